@@ -18,7 +18,15 @@ package com.quadbits.gdxhelper;
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
 import com.quadbits.gdxhelper.screens.LWPScreen;
+import com.quadbits.gdxhelper.utils.MemoryTrimmable;
+import com.quadbits.gdxhelper.utils.ParticleEffectCache;
+import com.quadbits.gdxhelper.utils.PoolRegistry;
+import com.quadbits.gdxhelper.utils.TextureMemoryTracker;
+import com.quadbits.gdxhelper.utils.TextureUploadQueue;
+import com.quadbits.gdxhelper.utils.WhiteTexel;
 
 import javax.inject.Inject;
 
@@ -32,10 +40,26 @@ public abstract class LWPGame extends Game {
     boolean panningEnabled;
     boolean flingEnabled;
     int currentScreenId;
+    final Array<Disposable> registeredDisposables;
 
     @Inject
     Lazy<AssetManager> lazyAssetManager;
 
+    @Inject
+    Lazy<WhiteTexel> lazyWhiteTexel;
+
+    @Inject
+    Lazy<TextureMemoryTracker> lazyTextureMemoryTracker;
+
+    @Inject
+    Lazy<PoolRegistry> lazyPoolRegistry;
+
+    @Inject
+    Lazy<TextureUploadQueue> lazyTextureUploadQueue;
+
+    @Inject
+    Lazy<ParticleEffectCache> lazyParticleEffectCache;
+
     public static final float MDPI_SCALE = 0.25f;
     public static final float HDPI_SCALE = 0.375f;
     public static final float XHDPI_SCALE = 0.5f;
@@ -55,6 +79,7 @@ public abstract class LWPGame extends Game {
         flingEnabled = false;
         dim = 0f;
         currentScreenId = SCREEN_NO_SCREEN;
+        registeredDisposables = new Array<Disposable>();
     }
 
     @Override
@@ -66,11 +91,64 @@ public abstract class LWPGame extends Game {
         }
 
         // dispose assets
+        lazyParticleEffectCache.get().dispose();
         lazyAssetManager.get().dispose();
+        lazyTextureUploadQueue.get().dispose();
+        for (int i = registeredDisposables.size - 1; i >= 0; i--) {
+            registeredDisposables.get(i).dispose();
+        }
+        registeredDisposables.clear();
+        lazyWhiteTexel.get().dispose();
 
         super.dispose();
     }
 
+    /**
+     * Registers an object created on demand (e.g., a lazily injected per-game service) to be
+     * disposed along with the game, before the shared white texel. Objects that are never
+     * created are never registered, so the game does not need to create them to dispose them.
+     */
+    public void registerDisposable(Disposable disposable) {
+        if (!registeredDisposables.contains(disposable, true)) {
+            registeredDisposables.add(disposable);
+        }
+    }
+
+    /**
+     * Releases memory in response to a memory-pressure notification (e.g., Android's
+     * onTrimMemory()). The current screen releases its caches first (see {@link
+     * LWPScreen#trimMemory(int)}), so that the actors it frees are released along with the free
+     * lists of the per-game pools. Everything released is recreated lazily when needed again.
+     * <p/>
+     * This is the single entry point for trimming memory, and it only reacts to the levels the
+     * platform actually reports: the launcher should forward here every notification it
+     * receives. Pausing the game does not trim anything by itself, as a paused live wallpaper is
+     * usually shown again shortly and rebuilding its caches is not free.
+     *
+     * @param level
+     *         one of the {@link MemoryTrimmable} TRIM_MEMORY_* levels
+     *
+     * @return the tracked texture bytes released, i.e., the drop in {@link
+     * TextureMemoryTracker#getTotalBytes()}. Pool free lists, particle effects and any texture
+     * not registered with the tracker are released as well, but are not accounted for
+     */
+    public long trimMemory(int level) {
+        TextureMemoryTracker textureMemoryTracker = lazyTextureMemoryTracker.get();
+        long trackedTextureBytes = textureMemoryTracker.getTotalBytes();
+
+        Screen screen = getScreen();
+        if (screen != null && screen instanceof LWPScreen) {
+            ((LWPScreen) screen).trimMemory(level);
+        }
+
+        if (level >= MemoryTrimmable.TRIM_MEMORY_RUNNING_MODERATE) {
+            lazyPoolRegistry.get().clearFreeObjects();
+        }
+        lazyParticleEffectCache.get().trimMemory(level, true);
+
+        return trackedTextureBytes - textureMemoryTracker.getTotalBytes();
+    }
+
     public float getDim() {
         return dim;
     }
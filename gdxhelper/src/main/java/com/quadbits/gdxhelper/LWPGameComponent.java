@@ -30,7 +30,9 @@ import com.quadbits.gdxhelper.actors.ParticleEffectActor;
 import com.quadbits.gdxhelper.actors.ScreenDimActor;
 import com.quadbits.gdxhelper.actors.SkyActor;
 import com.quadbits.gdxhelper.actors.SpriteActor;
+import com.quadbits.gdxhelper.actors.SpriteFieldActor;
 import com.quadbits.gdxhelper.controllers.LinearTrajectoryController;
+import com.quadbits.gdxhelper.controllers.LinearTrajectorySpawnerController;
 import com.quadbits.gdxhelper.controllers.MoonController;
 import com.quadbits.gdxhelper.controllers.OnlyAtNightController;
 import com.quadbits.gdxhelper.controllers.OnlyAtNightPeriodController;
@@ -46,9 +48,14 @@ import com.quadbits.gdxhelper.controllers.TimePeriodTintController;
 import com.quadbits.gdxhelper.controllers.TimePeriodVisibilityController;
 import com.quadbits.gdxhelper.controllers.TintAtNightController;
 import com.quadbits.gdxhelper.utils.AnimatedSpriteGrid;
+import com.quadbits.gdxhelper.utils.ParticleEffectCache;
+import com.quadbits.gdxhelper.utils.PoolRegistry;
 import com.quadbits.gdxhelper.utils.SpriteGrid;
 import com.quadbits.gdxhelper.utils.TextureAtlasProxy;
+import com.quadbits.gdxhelper.utils.TextureMemoryTracker;
+import com.quadbits.gdxhelper.utils.TextureUploadQueue;
 import com.quadbits.gdxhelper.utils.TimeManager;
+import com.quadbits.gdxhelper.utils.WhiteTexel;
 
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 
@@ -76,6 +83,16 @@ public interface LWPGameComponent {
 
     TextureAtlasProxy getTextureAtlasProxy();
 
+    WhiteTexel getWhiteTexel();
+
+    TextureMemoryTracker getTextureMemoryTracker();
+
+    PoolRegistry getPoolRegistry();
+
+    TextureUploadQueue getTextureUploadQueue();
+
+    ParticleEffectCache getParticleEffectCache();
+
     Pool<AnimatedSpriteActor> getAnimatedSpriteActorPool();
 
     Pool<AnimatedSpriteGrid> getAnimatedSpriteGridPool();
@@ -84,8 +101,6 @@ public interface LWPGameComponent {
 
     Pool<BackgroundActor> getBackgroundActorPool();
 
-    Pool<CloudsActor.Cloud> getCloudPool();
-
     Pool<CloudsActor> getCloudsActorPool();
 
     Pool<CompositeActor> getCompositeActorPool();
@@ -98,6 +113,8 @@ public interface LWPGameComponent {
 
     Pool<LinearTrajectoryController> getLinearTrajectoryControllerPool();
 
+    Pool<LinearTrajectorySpawnerController> getLinearTrajectorySpawnerControllerPool();
+
     Pool<MoonController> getMoonControllerPool();
 
     Pool<OnlyAtNightController> getOnlyAtNightControllerPool();
@@ -126,6 +143,8 @@ public interface LWPGameComponent {
 
     Pool<SpriteActor> getSpriteActorPool();
 
+    Pool<SpriteFieldActor> getSpriteFieldActorPool();
+
     Pool<SpriteGrid> getSpriteGridPool();
 
     Pool<SunController> getSunControllerPool();
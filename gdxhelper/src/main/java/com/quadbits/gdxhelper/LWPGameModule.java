@@ -30,7 +30,9 @@ import com.quadbits.gdxhelper.actors.ParticleEffectActor;
 import com.quadbits.gdxhelper.actors.ScreenDimActor;
 import com.quadbits.gdxhelper.actors.SkyActor;
 import com.quadbits.gdxhelper.actors.SpriteActor;
+import com.quadbits.gdxhelper.actors.SpriteFieldActor;
 import com.quadbits.gdxhelper.controllers.LinearTrajectoryController;
+import com.quadbits.gdxhelper.controllers.LinearTrajectorySpawnerController;
 import com.quadbits.gdxhelper.controllers.MoonController;
 import com.quadbits.gdxhelper.controllers.OnlyAtNightController;
 import com.quadbits.gdxhelper.controllers.OnlyAtNightPeriodController;
@@ -46,6 +48,7 @@ import com.quadbits.gdxhelper.controllers.TimePeriodTintController;
 import com.quadbits.gdxhelper.controllers.TimePeriodVisibilityController;
 import com.quadbits.gdxhelper.controllers.TintAtNightController;
 import com.quadbits.gdxhelper.utils.AnimatedSpriteGrid;
+import com.quadbits.gdxhelper.utils.PoolRegistry;
 import com.quadbits.gdxhelper.utils.SpriteGrid;
 import com.quadbits.gdxhelper.utils.TimeManager;
 
@@ -62,9 +65,11 @@ import dagger.Provides;
 @Module
 public class LWPGameModule {
     private final LWPGame game;
+    private final PoolRegistry poolRegistry;
 
     public LWPGameModule(LWPGame game) {
         this.game = game;
+        poolRegistry = new PoolRegistry();
     }
 
     @Provides
@@ -111,6 +116,12 @@ public class LWPGameModule {
         return timeManager;
     }
 
+    @Provides
+    @PerGame
+    PoolRegistry providePoolRegistry() {
+        return poolRegistry;
+    }
+
     @Provides
     ScheduledThreadPoolExecutor provideScheduledThreadPoolExecutor() {
         return new ScheduledThreadPoolExecutor(1);
@@ -132,14 +143,14 @@ public class LWPGameModule {
     @PerGame
     Pool<AnimatedSpriteActor> provideAnimatedSpriteActorPool(
             final Provider<AnimatedSpriteActor> provider) {
-        return new Pool<AnimatedSpriteActor>() {
+        return poolRegistry.register(new Pool<AnimatedSpriteActor>() {
             @Override
             protected AnimatedSpriteActor newObject() {
                 AnimatedSpriteActor object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -149,14 +160,14 @@ public class LWPGameModule {
     @PerGame
     Pool<AnimatedSpriteGrid> provideAnimatedSpriteGridPool(
             final Provider<AnimatedSpriteGrid> provider) {
-        return new Pool<AnimatedSpriteGrid>() {
+        return poolRegistry.register(new Pool<AnimatedSpriteGrid>() {
             @Override
             protected AnimatedSpriteGrid newObject() {
                 AnimatedSpriteGrid object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -166,14 +177,14 @@ public class LWPGameModule {
     @PerGame
     Pool<AnimatedSpriteGrid.AnimationSequence> provideAnimationSequencePool(
             final Provider<AnimatedSpriteGrid.AnimationSequence> provider) {
-        return new Pool<AnimatedSpriteGrid.AnimationSequence>() {
+        return poolRegistry.register(new Pool<AnimatedSpriteGrid.AnimationSequence>() {
             @Override
             protected AnimatedSpriteGrid.AnimationSequence newObject() {
                 AnimatedSpriteGrid.AnimationSequence object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -182,30 +193,14 @@ public class LWPGameModule {
     @Provides
     @PerGame
     Pool<BackgroundActor> provideBackgroundActorPool(final Provider<BackgroundActor> provider) {
-        return new Pool<BackgroundActor>() {
+        return poolRegistry.register(new Pool<BackgroundActor>() {
             @Override
             protected BackgroundActor newObject() {
                 BackgroundActor object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
-    }
-
-    //----------------------------------------------------------------
-    // Cloud
-    //----------------------------------------------------------------
-    @Provides
-    @PerGame
-    Pool<CloudsActor.Cloud> provideCloudPool(final Provider<CloudsActor.Cloud> provider) {
-        return new Pool<CloudsActor.Cloud>() {
-            @Override
-            protected CloudsActor.Cloud newObject() {
-                CloudsActor.Cloud object = provider.get();
-                object.setPool(this);
-                return object;
-            }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -214,14 +209,14 @@ public class LWPGameModule {
     @Provides
     @PerGame
     Pool<CloudsActor> provideCloudsActorPool(final Provider<CloudsActor> provider) {
-        return new Pool<CloudsActor>() {
+        return poolRegistry.register(new Pool<CloudsActor>() {
             @Override
             protected CloudsActor newObject() {
                 CloudsActor object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -230,14 +225,14 @@ public class LWPGameModule {
     @Provides
     @PerGame
     Pool<CompositeActor> provideCompositeActorPool(final Provider<CompositeActor> provider) {
-        return new Pool<CompositeActor>() {
+        return poolRegistry.register(new Pool<CompositeActor>() {
             @Override
             protected CompositeActor newObject() {
                 CompositeActor object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -247,14 +242,14 @@ public class LWPGameModule {
     @PerGame
     Pool<ContinuousLoopingScrollActor> provideContinuousLoopingScrollActorPool(
             final Provider<ContinuousLoopingScrollActor> provider) {
-        return new Pool<ContinuousLoopingScrollActor>() {
+        return poolRegistry.register(new Pool<ContinuousLoopingScrollActor>() {
             @Override
             protected ContinuousLoopingScrollActor newObject() {
                 ContinuousLoopingScrollActor object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -264,14 +259,14 @@ public class LWPGameModule {
     @PerGame
     Pool<AnimatedSpriteGrid.Frame> provideFramePool(
             final Provider<AnimatedSpriteGrid.Frame> provider) {
-        return new Pool<AnimatedSpriteGrid.Frame>() {
+        return poolRegistry.register(new Pool<AnimatedSpriteGrid.Frame>() {
             @Override
             protected AnimatedSpriteGrid.Frame newObject() {
                 AnimatedSpriteGrid.Frame object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -280,14 +275,14 @@ public class LWPGameModule {
     @Provides
     @PerGame
     Pool<Layer> provideLayerPool(final Provider<Layer> provider) {
-        return new Pool<Layer>() {
+        return poolRegistry.register(new Pool<Layer>() {
             @Override
             protected Layer newObject() {
                 Layer object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -297,14 +292,31 @@ public class LWPGameModule {
     @PerGame
     Pool<LinearTrajectoryController> provideLinearTrajectoryControllerPool(
             final Provider<LinearTrajectoryController> provider) {
-        return new Pool<LinearTrajectoryController>() {
+        return poolRegistry.register(new Pool<LinearTrajectoryController>() {
             @Override
             protected LinearTrajectoryController newObject() {
                 LinearTrajectoryController object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
+    }
+
+    //----------------------------------------------------------------
+    // LinearTrajectorySpawnerController
+    //----------------------------------------------------------------
+    @Provides
+    @PerGame
+    Pool<LinearTrajectorySpawnerController> provideLinearTrajectorySpawnerControllerPool(
+            final Provider<LinearTrajectorySpawnerController> provider) {
+        return poolRegistry.register(new Pool<LinearTrajectorySpawnerController>() {
+            @Override
+            protected LinearTrajectorySpawnerController newObject() {
+                LinearTrajectorySpawnerController object = provider.get();
+                object.setPool(this);
+                return object;
+            }
+        });
     }
 
     //----------------------------------------------------------------
@@ -313,14 +325,14 @@ public class LWPGameModule {
     @Provides
     @PerGame
     Pool<MoonController> provideMoonControllerPool(final Provider<MoonController> provider) {
-        return new Pool<MoonController>() {
+        return poolRegistry.register(new Pool<MoonController>() {
             @Override
             protected MoonController newObject() {
                 MoonController object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -330,14 +342,14 @@ public class LWPGameModule {
     @PerGame
     Pool<OnlyAtNightController> provideOnlyAtNightControllerPool(
             final Provider<OnlyAtNightController> provider) {
-        return new Pool<OnlyAtNightController>() {
+        return poolRegistry.register(new Pool<OnlyAtNightController>() {
             @Override
             protected OnlyAtNightController newObject() {
                 OnlyAtNightController object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -347,14 +359,14 @@ public class LWPGameModule {
     @PerGame
     Pool<OnlyAtNightPeriodController> provideOnlyAtNightPeriodControllerPool(
             final Provider<OnlyAtNightPeriodController> provider) {
-        return new Pool<OnlyAtNightPeriodController>() {
+        return poolRegistry.register(new Pool<OnlyAtNightPeriodController>() {
             @Override
             protected OnlyAtNightPeriodController newObject() {
                 OnlyAtNightPeriodController object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -364,14 +376,14 @@ public class LWPGameModule {
     @PerGame
     Pool<PanXOnScrollController> providePanXOnScrollControllerPool(
             final Provider<PanXOnScrollController> provider) {
-        return new Pool<PanXOnScrollController>() {
+        return poolRegistry.register(new Pool<PanXOnScrollController>() {
             @Override
             protected PanXOnScrollController newObject() {
                 PanXOnScrollController object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -381,14 +393,14 @@ public class LWPGameModule {
     @PerGame
     Pool<PanYOnScrollController> providePanYOnScrollControllerPool(
             final Provider<PanYOnScrollController> provider) {
-        return new Pool<PanYOnScrollController>() {
+        return poolRegistry.register(new Pool<PanYOnScrollController>() {
             @Override
             protected PanYOnScrollController newObject() {
                 PanYOnScrollController object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -398,14 +410,14 @@ public class LWPGameModule {
     @PerGame
     Pool<ParabolaAnimationController> provideParabolaAnimationControllerPool(
             final Provider<ParabolaAnimationController> provider) {
-        return new Pool<ParabolaAnimationController>() {
+        return poolRegistry.register(new Pool<ParabolaAnimationController>() {
             @Override
             protected ParabolaAnimationController newObject() {
                 ParabolaAnimationController object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -415,14 +427,14 @@ public class LWPGameModule {
     @PerGame
     Pool<ParabolaAroundFixedPointController> provideParabolaAroundFixedPointControllerPool(
             final Provider<ParabolaAroundFixedPointController> provider) {
-        return new Pool<ParabolaAroundFixedPointController>() {
+        return poolRegistry.register(new Pool<ParabolaAroundFixedPointController>() {
             @Override
             protected ParabolaAroundFixedPointController newObject() {
                 ParabolaAroundFixedPointController object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -432,14 +444,14 @@ public class LWPGameModule {
     @PerGame
     Pool<ParticleEffectActor> provideParticleEffectActorPool(
             final Provider<ParticleEffectActor> provider) {
-        return new Pool<ParticleEffectActor>() {
+        return poolRegistry.register(new Pool<ParticleEffectActor>() {
             @Override
             protected ParticleEffectActor newObject() {
                 ParticleEffectActor object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -449,14 +461,14 @@ public class LWPGameModule {
     @PerGame
     Pool<PeriodicRotationController> providePeriodicRotationControllerPool(
             final Provider<PeriodicRotationController> provider) {
-        return new Pool<PeriodicRotationController>() {
+        return poolRegistry.register(new Pool<PeriodicRotationController>() {
             @Override
             protected PeriodicRotationController newObject() {
                 PeriodicRotationController object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -466,14 +478,14 @@ public class LWPGameModule {
     @PerGame
     Pool<RotateOnScrollController> provideRotateOnScrollControllerPool(
             final Provider<RotateOnScrollController> provider) {
-        return new Pool<RotateOnScrollController>() {
+        return poolRegistry.register(new Pool<RotateOnScrollController>() {
             @Override
             protected RotateOnScrollController newObject() {
                 RotateOnScrollController object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -483,14 +495,14 @@ public class LWPGameModule {
     @PerGame
     Pool<RotationSimpleController> provideRotationSimpleControllerPool(
             final Provider<RotationSimpleController> provider) {
-        return new Pool<RotationSimpleController>() {
+        return poolRegistry.register(new Pool<RotationSimpleController>() {
             @Override
             protected RotationSimpleController newObject() {
                 RotationSimpleController object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -499,14 +511,14 @@ public class LWPGameModule {
     @Provides
     @PerGame
     Pool<ScreenDimActor> provideScreenDimActorPool(final Provider<ScreenDimActor> provider) {
-        return new Pool<ScreenDimActor>() {
+        return poolRegistry.register(new Pool<ScreenDimActor>() {
             @Override
             protected ScreenDimActor newObject() {
                 ScreenDimActor object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -515,14 +527,14 @@ public class LWPGameModule {
     @Provides
     @PerGame
     Pool<SkyActor> provideSkyActorPool(final Provider<SkyActor> provider) {
-        return new Pool<SkyActor>() {
+        return poolRegistry.register(new Pool<SkyActor>() {
             @Override
             protected SkyActor newObject() {
                 SkyActor object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -531,14 +543,31 @@ public class LWPGameModule {
     @Provides
     @PerGame
     Pool<SpriteActor> provideSpriteActorPool(final Provider<SpriteActor> provider) {
-        return new Pool<SpriteActor>() {
+        return poolRegistry.register(new Pool<SpriteActor>() {
             @Override
             protected SpriteActor newObject() {
                 SpriteActor object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
+    }
+
+    //----------------------------------------------------------------
+    // SpriteFieldActor
+    //----------------------------------------------------------------
+    @Provides
+    @PerGame
+    Pool<SpriteFieldActor> provideSpriteFieldActorPool(
+            final Provider<SpriteFieldActor> provider) {
+        return poolRegistry.register(new Pool<SpriteFieldActor>() {
+            @Override
+            protected SpriteFieldActor newObject() {
+                SpriteFieldActor object = provider.get();
+                object.setPool(this);
+                return object;
+            }
+        });
     }
 
     //----------------------------------------------------------------
@@ -547,14 +576,14 @@ public class LWPGameModule {
     @Provides
     @PerGame
     Pool<SpriteGrid> provideSpriteGridPool(final Provider<SpriteGrid> provider) {
-        return new Pool<SpriteGrid>() {
+        return poolRegistry.register(new Pool<SpriteGrid>() {
             @Override
             protected SpriteGrid newObject() {
                 SpriteGrid object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -563,14 +592,14 @@ public class LWPGameModule {
     @Provides
     @PerGame
     Pool<SunController> provideSunControllerPool(final Provider<SunController> provider) {
-        return new Pool<SunController>() {
+        return poolRegistry.register(new Pool<SunController>() {
             @Override
             protected SunController newObject() {
                 SunController object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -580,14 +609,14 @@ public class LWPGameModule {
     @PerGame
     Pool<TimePeriodTintController> provideTimePeriodTintControllerPool(
             final Provider<TimePeriodTintController> provider) {
-        return new Pool<TimePeriodTintController>() {
+        return poolRegistry.register(new Pool<TimePeriodTintController>() {
             @Override
             protected TimePeriodTintController newObject() {
                 TimePeriodTintController object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -597,14 +626,14 @@ public class LWPGameModule {
     @PerGame
     Pool<TimePeriodVisibilityController> provideTimePeriodVisibilityControllerPool(
             final Provider<TimePeriodVisibilityController> provider) {
-        return new Pool<TimePeriodVisibilityController>() {
+        return poolRegistry.register(new Pool<TimePeriodVisibilityController>() {
             @Override
             protected TimePeriodVisibilityController newObject() {
                 TimePeriodVisibilityController object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 
     //----------------------------------------------------------------
@@ -614,13 +643,13 @@ public class LWPGameModule {
     @PerGame
     Pool<TintAtNightController> provideTintAtNightControllerPool(
             final Provider<TintAtNightController> provider) {
-        return new Pool<TintAtNightController>() {
+        return poolRegistry.register(new Pool<TintAtNightController>() {
             @Override
             protected TintAtNightController newObject() {
                 TintAtNightController object = provider.get();
                 object.setPool(this);
                 return object;
             }
-        };
+        });
     }
 }
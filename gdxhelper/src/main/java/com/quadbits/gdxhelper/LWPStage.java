@@ -15,15 +15,142 @@
  */
 package com.quadbits.gdxhelper;
 
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Group;
 import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.SnapshotArray;
+import com.quadbits.gdxhelper.actors.Cullable;
+import com.quadbits.gdxhelper.utils.DrawUtils;
+import com.quadbits.gdxhelper.utils.OcclusionCuller;
 
 /**
- *
+ * A stage whose root children (typically layers) are culled like the children of a {@link
+ * com.quadbits.gdxhelper.actors.ControllableGroup}: the {@link Cullable} ones outside the
+ * viewport are not drawn, since the root is a plain group.
  */
 public class LWPStage extends Stage {
+    protected boolean cullingEnabled;
+    protected int culledRootChildrenCount;
+    protected final Array<Actor> culledRootChildren;
+    protected final Rectangle childBounds;
+    protected boolean occlusionCullingEnabled;
+    protected final OcclusionCuller occlusionCuller;
+    protected final Rectangle viewportBounds;
+
+    public LWPStage() {
+        super();
+        cullingEnabled = true;
+        culledRootChildrenCount = 0;
+        culledRootChildren = new Array<Actor>();
+        childBounds = new Rectangle();
+        occlusionCullingEnabled = false;
+        occlusionCuller = new OcclusionCuller();
+        viewportBounds = new Rectangle();
+    }
+
+    /**
+     * Opt-in occlusion pass: hides the actors completely covered by opaque actors drawn after
+     * them (see {@link OcclusionCuller}) until the end of the next {@link #draw()}.
+     *
+     * @return true if an opaque actor covers the whole viewport, so the color buffer does not
+     * need to be cleared before drawing; always false if occlusion culling is disabled
+     */
+    public boolean cullOccludedActors() {
+        if (!occlusionCullingEnabled) {
+            return false;
+        }
+
+        boolean viewportValid = updateViewportBounds();
+        return occlusionCuller.cull(getRoot(), viewportValid ? viewportBounds : null);
+    }
+
+    /**
+     * Calculates the viewport in stage coordinates, as it will be set by {@link #draw()}.
+     *
+     * @return false if the viewport could not be calculated
+     */
+    protected boolean updateViewportBounds() {
+        Camera camera = getViewport().getCamera();
+        camera.update();
+        Batch batch = getBatch();
+        batch.setProjectionMatrix(camera.combined);
+        return DrawUtils.getViewportBounds(batch, viewportBounds);
+    }
+
+    @Override
+    public void draw() {
+        cullRootChildren();
+        super.draw();
+        for (Actor child : culledRootChildren) {
+            child.setVisible(true);
+        }
+        culledRootChildren.clear();
+        occlusionCuller.restore();
+    }
+
+    /**
+     * Hides the cullable children of the root outside the viewport until the end of {@link
+     * #draw()}.
+     */
+    protected void cullRootChildren() {
+        culledRootChildrenCount = 0;
+        if (!cullingEnabled || !updateViewportBounds()) {
+            return;
+        }
+
+        Group root = getRoot();
+        viewportBounds.x -= root.getX();
+        viewportBounds.y -= root.getY();
+        SnapshotArray<Actor> children = root.getChildren();
+        Actor[] actors = children.begin();
+        for (int i = 0, n = children.size; i < n; i++) {
+            Actor child = actors[i];
+            if (child.isVisible() && child instanceof Cullable &&
+                    ((Cullable) child).getCullingBounds(childBounds) &&
+                    !childBounds.overlaps(viewportBounds)) {
+                child.setVisible(false);
+                culledRootChildren.add(child);
+            }
+        }
+        children.end();
+        culledRootChildrenCount = culledRootChildren.size;
+    }
+
+    public boolean isCullingEnabled() {
+        return cullingEnabled;
+    }
+
+    public void setCullingEnabled(boolean cullingEnabled) {
+        this.cullingEnabled = cullingEnabled;
+    }
+
+    /**
+     * @return the number of root children culled in the last draw
+     */
+    public int getCulledRootChildrenCount() {
+        return culledRootChildrenCount;
+    }
+
+    public boolean isOcclusionCullingEnabled() {
+        return occlusionCullingEnabled;
+    }
+
+    public void setOcclusionCullingEnabled(boolean occlusionCullingEnabled) {
+        this.occlusionCullingEnabled = occlusionCullingEnabled;
+        if (!occlusionCullingEnabled) {
+            occlusionCuller.restore();
+        }
+    }
+
+    public OcclusionCuller getOcclusionCuller() {
+        return occlusionCuller;
+    }
+
     @Override
     public void dispose() {
         disposeActors(getRoot());
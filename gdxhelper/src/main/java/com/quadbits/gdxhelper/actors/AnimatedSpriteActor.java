@@ -15,28 +15,54 @@
  */
 package com.quadbits.gdxhelper.actors;
 
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Pool;
 import com.quadbits.gdxhelper.utils.AnimatedSpriteGrid;
+import com.quadbits.gdxhelper.utils.DrawUtils;
 import com.quadbits.gdxhelper.utils.Recyclable;
 import com.quadbits.gdxhelper.utils.SpriteGrid;
 
 import javax.inject.Inject;
 
 /**
- *
+ * An actor drawing an {@link AnimatedSpriteGrid}. By default the actor builds and owns its
+ * animations (see {@link #addFrame}); actors with identical animations can instead share a
+ * single animated sprite grid (a clip, see {@link #setClip(AnimatedSpriteGrid, boolean)}),
+ * keeping only their own playback cursor and flip. Sharing is opt-in: it saves the memory of
+ * the frames, but actors sharing a clip push their position and color to the same sprite grids
+ * on every draw, so the cached vertices of the grids are rebuilt for each of them.
  */
 public class AnimatedSpriteActor extends ControllableActor
-        implements FlippableActor, Recyclable<AnimatedSpriteActor> {
+        implements FlippableActor, Cullable, Recyclable<AnimatedSpriteActor> {
     protected Pool<AnimatedSpriteActor> animatedSpriteActorPool;
 
     @Inject
     protected AnimatedSpriteGrid animatedSpriteGrid;
 
+    // Shared clip, or null when playing the actor's own animated sprite grid
+    protected AnimatedSpriteGrid clip;
+    protected boolean clipOwner;
+    protected final AnimatedSpriteGrid.Cursor cursor;
+    protected boolean flipX;
+    protected boolean flipY;
+    protected SpriteGrid syncedSprite;
+    protected int syncedSpriteGeometryVersion;
+    protected boolean spriteGridSizeDirty;
+    protected final Color tintedColor;
+
+    /**
+     * Frames shorter than this (one frame at 60 fps) require continuous rendering
+     */
+    public static final long FRAME_BUDGET_MILLIS = 16;
+
     @Inject
     public AnimatedSpriteActor() {
         super();
+        cursor = new AnimatedSpriteGrid.Cursor();
+        tintedColor = new Color();
         init();
     }
 
@@ -46,6 +72,12 @@ public class AnimatedSpriteActor extends ControllableActor
         getColor().set(1, 1, 1, 1);
         setName(null);
         setVisible(true);
+        clip = null;
+        clipOwner = true;
+        cursor.reset();
+        flipX = flipY = false;
+        syncedSprite = null;
+        spriteGridSizeDirty = true;
     }
 
     @Override
@@ -66,47 +98,121 @@ public class AnimatedSpriteActor extends ControllableActor
         this.animatedSpriteActorPool = animatedSpriteActorPool;
     }
 
+    /**
+     * Plays the animations of a shared animated sprite grid, without owning it (see {@link
+     * #setClip(AnimatedSpriteGrid, boolean)}).
+     */
+    public void setClip(AnimatedSpriteGrid clip) {
+        setClip(clip, false);
+    }
+
+    /**
+     * Plays the animations of a shared animated sprite grid instead of the actor's own ones.
+     * The clip is not reset nor freed by this actor; whoever created it must keep it alive
+     * while the actor uses it. Actors sharing a clip share its frames' sprite grids too: the
+     * size of the actor follows the size of the grids, and only the clip owner scales them and
+     * changes their texture filter, tiling and per-frame flip (changes that apply to every
+     * actor sharing the clip). The playback state, flip, position and color are kept per actor.
+     * Pass null to go back to the actor's own animations.
+     *
+     * @param owner
+     *         true if this actor is the one scaling and configuring the clip's sprite grids
+     */
+    public void setClip(AnimatedSpriteGrid clip, boolean owner) {
+        this.clip = clip == animatedSpriteGrid ? null : clip;
+        clipOwner = this.clip == null || owner;
+        boolean showEachFrameAtLeastOnce = cursor.isShowEachFrameAtLeastOnce();
+        cursor.reset();
+        cursor.setShowEachFrameAtLeastOnce(showEachFrameAtLeastOnce);
+        syncedSprite = null;
+    }
+
+    /**
+     * @return the animated sprite grid played by this actor: the shared clip if there is one,
+     * or else the actor's own one
+     */
+    public AnimatedSpriteGrid getClip() {
+        return clip == null ? animatedSpriteGrid : clip;
+    }
+
+    public boolean isClipShared() {
+        return clip != null;
+    }
+
+    /**
+     * @return true if this actor may change the sprite grids it plays: its own animations, or
+     * a shared clip it owns
+     */
+    public boolean isClipOwner() {
+        return clipOwner;
+    }
+
+    /**
+     * Changes to the frames' sprite grids of a shared clip leak into every actor sharing it, so
+     * they are only allowed to the clip owner.
+     */
+    protected void checkClipOwner() {
+        if (!clipOwner) {
+            throw new IllegalStateException(
+                    "The sprite grids of a shared animation clip can only be changed by its " +
+                            "owner");
+        }
+    }
+
+    public AnimatedSpriteGrid.Cursor getCursor() {
+        return cursor;
+    }
+
     public int addFrame(Object state, String textureName, float duration, float comX, float comY) {
-        return animatedSpriteGrid.addFrame(state, textureName, duration, comX, comY);
+        return getClip().addFrame(state, textureName, duration, comX, comY);
     }
 
     public int addFrame(Object state, AnimatedSpriteGrid.Frame frame) {
-        return animatedSpriteGrid.addFrame(state, frame);
+        return getClip().addFrame(state, frame);
     }
 
     public Object getState() {
-        return animatedSpriteGrid.getState();
+        return cursor.getState();
     }
 
     public void setState(Object state) {
-        animatedSpriteGrid.setState(state);
+        AnimatedSpriteGrid clip = getClip();
+        clip.setStateById(cursor, clip.getStateId(state));
+        invalidateCullingBounds();
         setSize(getActiveFrame().getSprite().getWidth(), getActiveFrame().getSprite().getHeight());
     }
 
     public void setActiveFrame(Object state, int index) {
-        animatedSpriteGrid.setActiveFrame(state, index);
+        AnimatedSpriteGrid clip = getClip();
+        clip.setActiveFrameById(cursor, clip.getStateId(state), index);
+        invalidateCullingBounds();
         setSize(getActiveFrame().getSprite().getWidth(), getActiveFrame().getSprite().getHeight());
     }
 
     public AnimatedSpriteGrid.Frame getActiveFrame() {
-        return animatedSpriteGrid.getActiveFrame();
+        return cursor.getActiveFrame();
     }
 
     public int getActiveFrameIndex() {
-        return animatedSpriteGrid.getActiveFrameIndex();
+        return cursor.getActiveFrameIndex();
     }
 
     public AnimatedSpriteGrid.Frame getFrame(Object state, int index) {
-        return animatedSpriteGrid.getFrame(state, index);
+        return getClip().getFrame(state, index);
     }
 
     public AnimatedSpriteGrid.AnimationSequence getAnimationSequence(Object state) {
-        return animatedSpriteGrid.getAnimationSequence(state);
+        return getClip().getAnimationSequence(state);
     }
 
     public AnimatedSpriteGrid.Frame calculateCurrentAnimationFrame(float deltaSeconds) {
+        AnimatedSpriteGrid.Frame previousFrame = getActiveFrame();
         AnimatedSpriteGrid.Frame frame =
-                animatedSpriteGrid.calculateCurrentAnimationFrame(deltaSeconds);
+                getClip().calculateCurrentAnimationFrame(cursor, deltaSeconds);
+        if (frame != previousFrame) {
+            // Frames may have different centers of mass
+            invalidateCullingBounds();
+        }
         if (frame != null) {
             setSize(frame.getSprite().getWidth(), frame.getSprite().getHeight());
         }
@@ -114,11 +220,11 @@ public class AnimatedSpriteActor extends ControllableActor
     }
 
     public boolean isShowEachFrameAtLeastOnce() {
-        return animatedSpriteGrid.isShowEachFrameAtLeastOnce();
+        return cursor.isShowEachFrameAtLeastOnce();
     }
 
     public void setShowEachFrameAtLeastOnce(boolean showEachFrameAtLeastOnce) {
-        animatedSpriteGrid.setShowEachFrameAtLeastOnce(showEachFrameAtLeastOnce);
+        cursor.setShowEachFrameAtLeastOnce(showEachFrameAtLeastOnce);
     }
 
     private void setActorPropertiesFromSpriteGrid() {
@@ -136,7 +242,19 @@ public class AnimatedSpriteActor extends ControllableActor
         setColor(sprite.getColor());
     }
 
+    /**
+     * Pushes the actor properties to the sprite grid of the active frame. The size is only
+     * pushed when the size or scale have changed, when the active frame has changed or when
+     * another actor sharing the clip has resized the sprite grid; the rest of properties are
+     * compared by the sprite grid setters, which ignore unchanged values.
+     */
     private void setSpriteGridPropertiesFromActor() {
+        // The flip of a shared clip is the flip of the last actor drawing it
+        AnimatedSpriteGrid.AnimationSequence animation =
+                getClip().getAnimationSequenceById(cursor.getStateId());
+        animation.setFlipX(flipX);
+        animation.setFlipY(flipY);
+
         AnimatedSpriteGrid.Frame activeFrame = getActiveFrame();
         SpriteGrid sprite = activeFrame.getSprite();
         float shiftX = activeFrame.getCenterOfMassX() * sprite.getWidth() -
@@ -144,22 +262,44 @@ public class AnimatedSpriteActor extends ControllableActor
         float shiftY = activeFrame.getCenterOfMassY() * sprite.getHeight() -
                 (isFlipY() ? 1f : 0f) * sprite.getHeight();
         sprite.setPosition(getX() - shiftX, getY() - shiftY);
-        sprite.setScale(getScaleX(), getScaleY());
-        sprite.setSize(getWidth(), getHeight());
+
+        // The size of a shared clip belongs to the clip: follow it instead of pushing ours
+        if (isClipShared()) {
+            if (getWidth() != sprite.getWidth() || getHeight() != sprite.getHeight()) {
+                setSize(sprite.getWidth(), sprite.getHeight());
+            }
+            spriteGridSizeDirty = false;
+        } else if (spriteGridSizeDirty || sprite != syncedSprite ||
+                sprite.getGeometryVersion() != syncedSpriteGeometryVersion ||
+                sprite.getScaleX() != getScaleX() || sprite.getScaleY() != getScaleY()) {
+            sprite.setScale(getScaleX(), getScaleY());
+            sprite.setSize(getWidth(), getHeight());
+            syncedSprite = sprite;
+            syncedSpriteGeometryVersion = sprite.getGeometryVersion();
+            spriteGridSizeDirty = false;
+        }
         sprite.setOrigin(getOriginX(), getOriginY());
         sprite.setRotation(getRotation());
-        sprite.setColor(getColor());
+        sprite.setColor(ControllableGroup.applyInheritedTint(this, getColor(), tintedColor));
+    }
+
+    @Override
+    protected void sizeChanged() {
+        super.sizeChanged();
+        spriteGridSizeDirty = true;
     }
 
     public void setTextureFilter(Object state, int index, Texture.TextureFilter minFilter,
                                  Texture.TextureFilter maxFilter) {
+        checkClipOwner();
         getFrame(state, index).getSprite().setTextureFilter(minFilter, maxFilter);
     }
 
     public void setTextureFilter(Texture.TextureFilter minFilter, Texture.TextureFilter maxFilter) {
-        for (Object state : animatedSpriteGrid.getAllStates()) {
-            AnimatedSpriteGrid.AnimationSequence animation =
-                    animatedSpriteGrid.getAnimationSequence(state);
+        checkClipOwner();
+        AnimatedSpriteGrid clip = getClip();
+        for (int id = 0; id < clip.getStateCount(); id++) {
+            AnimatedSpriteGrid.AnimationSequence animation = clip.getAnimationSequenceById(id);
             for (int i = 0; i < animation.getSize(); i++) {
                 animation.getFrame(i).getSprite().setTextureFilter(minFilter, maxFilter);
             }
@@ -172,6 +312,51 @@ public class AnimatedSpriteActor extends ControllableActor
         calculateCurrentAnimationFrame(deltaSeconds);
     }
 
+    /**
+     * Returns the time until the active frame ends, so that the screen is only redrawn when the
+     * animation actually changes. Frames shorter than {@link #FRAME_BUDGET_MILLIS} (and frames
+     * whose end has already passed, e.g. when showing each frame at least once) require
+     * continuous rendering.
+     */
+    @Override
+    public long getMaxSleepTime() {
+        long maxSleepTimeMillis = super.getMaxSleepTime();
+
+        AnimatedSpriteGrid.Frame activeFrame = getActiveFrame();
+        if (!isVisible() || activeFrame == null) {
+            return maxSleepTimeMillis;
+        }
+
+        long frameSleepTimeMillis = 0;
+        if (activeFrame.getDuration() * 1000 >= FRAME_BUDGET_MILLIS) {
+            float remainingTime =
+                    activeFrame.getEndTimeFromAnimStart() - cursor.getAccumulatedAnimTime();
+            if (remainingTime > 0) {
+                frameSleepTimeMillis = (long) Math.ceil(remainingTime * 1000);
+            }
+        }
+
+        return Math.min(maxSleepTimeMillis, frameSleepTimeMillis);
+    }
+
+    @Override
+    public boolean getCullingBounds(Rectangle bounds) {
+        AnimatedSpriteGrid.Frame activeFrame = getActiveFrame();
+        if (activeFrame == null || isTileableX() || isTileableY()) {
+            return false;
+        }
+
+        // The sprite grid is shifted by the center of mass of the frame
+        float width = getWidth();
+        float height = getHeight();
+        float shiftX = activeFrame.getCenterOfMassX() * width - (isFlipX() ? 1f : 0f) * width;
+        float shiftY = activeFrame.getCenterOfMassY() * height - (isFlipY() ? 1f : 0f) * height;
+        bounds.set(0, 0, width, height);
+        DrawUtils.transformBounds(bounds, getX() - shiftX, getY() - shiftY, getOriginX(),
+                getOriginY(), 1, 1, getRotation(), bounds);
+        return true;
+    }
+
     @Override
     public void draw(Batch batch, float parentAlpha) {
         setSpriteGridPropertiesFromActor();
@@ -187,17 +372,21 @@ public class AnimatedSpriteActor extends ControllableActor
     }
 
     public void setTileableX(boolean tileableX) {
-        for (Object state : animatedSpriteGrid.getAllStates()) {
-            AnimatedSpriteGrid.AnimationSequence animation =
-                    animatedSpriteGrid.getAnimationSequence(state);
+        checkClipOwner();
+        AnimatedSpriteGrid clip = getClip();
+        for (int id = 0; id < clip.getStateCount(); id++) {
+            AnimatedSpriteGrid.AnimationSequence animation = clip.getAnimationSequenceById(id);
             for (int i = 0; i < animation.getSize(); i++) {
                 animation.getFrame(i).getSprite().setTileableX(tileableX);
             }
         }
+        invalidateCullingBounds();
     }
 
     public void setTileableX(Object state, int index, boolean tileableX) {
+        checkClipOwner();
         getFrame(state, index).getSprite().setTileableX(tileableX);
+        invalidateCullingBounds();
     }
 
     public boolean isTileableY() {
@@ -209,61 +398,84 @@ public class AnimatedSpriteActor extends ControllableActor
     }
 
     public void setTileableY(boolean tileableY) {
-        for (Object state : animatedSpriteGrid.getAllStates()) {
-            AnimatedSpriteGrid.AnimationSequence animation =
-                    animatedSpriteGrid.getAnimationSequence(state);
+        checkClipOwner();
+        AnimatedSpriteGrid clip = getClip();
+        for (int id = 0; id < clip.getStateCount(); id++) {
+            AnimatedSpriteGrid.AnimationSequence animation = clip.getAnimationSequenceById(id);
             for (int i = 0; i < animation.getSize(); i++) {
                 animation.getFrame(i).getSprite().setTileableY(tileableY);
             }
         }
+        invalidateCullingBounds();
     }
 
     public void setTileableY(Object state, int index, boolean tileableY) {
+        checkClipOwner();
         getFrame(state, index).getSprite().setTileableY(tileableY);
+        invalidateCullingBounds();
     }
 
     @Override
     public boolean isFlipX() {
-        return getAnimationSequence(getState()).isFlipX();
+        return flipX;
     }
 
     public boolean isFlipX(Object state, int index) {
         return getFrame(state, index).isFlipX();
     }
 
+    /**
+     * The flip is kept per actor; with a shared clip, it is applied to the clip's animations
+     * when the actor is drawn.
+     */
     @Override
     public void setFlipX(boolean flipX) {
-        for (Object state : animatedSpriteGrid.getAllStates()) {
-            AnimatedSpriteGrid.AnimationSequence animation =
-                    animatedSpriteGrid.getAnimationSequence(state);
+        this.flipX = flipX;
+        invalidateCullingBounds();
+        if (isClipShared()) {
+            return;
+        }
+        AnimatedSpriteGrid clip = getClip();
+        for (int id = 0; id < clip.getStateCount(); id++) {
+            AnimatedSpriteGrid.AnimationSequence animation = clip.getAnimationSequenceById(id);
             animation.setFlipX(flipX);
         }
     }
 
     public void setFlipX(Object state, int index, boolean flipX) {
+        checkClipOwner();
         AnimatedSpriteGrid.Frame frame = getFrame(state, index);
         frame.getSprite().setFlipX(flipX);
     }
 
     @Override
     public boolean isFlipY() {
-        return getAnimationSequence(getState()).isFlipY();
+        return flipY;
     }
 
     public boolean isFlipY(Object state, int index) {
         return getFrame(state, index).isFlipY();
     }
 
+    /**
+     * See {@link #setFlipX(boolean)}.
+     */
     @Override
     public void setFlipY(boolean flipY) {
-        for (Object state : animatedSpriteGrid.getAllStates()) {
-            AnimatedSpriteGrid.AnimationSequence animation =
-                    animatedSpriteGrid.getAnimationSequence(state);
+        this.flipY = flipY;
+        invalidateCullingBounds();
+        if (isClipShared()) {
+            return;
+        }
+        AnimatedSpriteGrid clip = getClip();
+        for (int id = 0; id < clip.getStateCount(); id++) {
+            AnimatedSpriteGrid.AnimationSequence animation = clip.getAnimationSequenceById(id);
             animation.setFlipY(flipY);
         }
     }
 
     public void setFlipY(Object state, int index, boolean flipY) {
+        checkClipOwner();
         AnimatedSpriteGrid.Frame frame = getFrame(state, index);
         frame.getSprite().setFlipY(flipY);
     }
@@ -280,10 +492,22 @@ public class AnimatedSpriteActor extends ControllableActor
         scaleBy(scale, scale);
     }
 
+    /**
+     * Scales the sprite grids of all the frames. Actors sharing a clip they do not own only
+     * follow the size of the active frame, so that the clip is scaled once (by its owner).
+     */
     public void scaleBy(float scaleX, float scaleY) {
-        for (Object state : animatedSpriteGrid.getAllStates()) {
-            AnimatedSpriteGrid.AnimationSequence animation =
-                    animatedSpriteGrid.getAnimationSequence(state);
+        if (!clipOwner) {
+            AnimatedSpriteGrid.Frame frame = getActiveFrame();
+            if (frame != null) {
+                setSize(frame.getSprite().getWidth(), frame.getSprite().getHeight());
+            }
+            return;
+        }
+
+        AnimatedSpriteGrid clip = getClip();
+        for (int id = 0; id < clip.getStateCount(); id++) {
+            AnimatedSpriteGrid.AnimationSequence animation = clip.getAnimationSequenceById(id);
             for (int i = 0; i < animation.getSize(); i++) {
                 animation.getFrame(i).getSprite().scaleBy(scaleX, scaleY);
             }
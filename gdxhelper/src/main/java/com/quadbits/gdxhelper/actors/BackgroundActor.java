@@ -17,24 +17,35 @@ package com.quadbits.gdxhelper.actors;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.Batch;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Pool;
 import com.quadbits.gdxhelper.utils.Recyclable;
+import com.quadbits.gdxhelper.utils.WhiteTexel;
 
 import javax.inject.Inject;
 
 /**
  *
  */
-public class BackgroundActor extends ControllableActor implements Recyclable<BackgroundActor> {
+public class BackgroundActor extends ControllableActor
+        implements Cullable, Occluder, Recyclable<BackgroundActor> {
     protected Pool<BackgroundActor> backgroundActorPool;
     protected Color topLeftColor;
     protected Color topRightColor;
     protected Color bottomLeftColor;
     protected Color bottomRightColor;
+    protected ShaderProgram preDrawShader;
+    protected ShaderProgram postDrawShader;
+    protected final float[] vertices;
+    private final Color tmpColor;
 
     @Inject
-    protected ShapeRenderer shapeRenderer;
+    protected WhiteTexel whiteTexel;
+
+    // Vertex layout used by SpriteBatch: x, y, packed color, u, v
+    protected static final int VERTEX_SIZE = 5;
+    protected static final int QUAD_SIZE = 4 * VERTEX_SIZE;
 
     @Inject
     public BackgroundActor() {
@@ -44,6 +55,20 @@ public class BackgroundActor extends ControllableActor implements Recyclable<Bac
         topRightColor = new Color();
         bottomLeftColor = new Color();
         bottomRightColor = new Color();
+        vertices = new float[QUAD_SIZE];
+        tmpColor = new Color();
+        init();
+    }
+
+    private void init() {
+        preDrawShader = null;
+        postDrawShader = null;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        init();
     }
 
     @Override
@@ -61,25 +86,66 @@ public class BackgroundActor extends ControllableActor implements Recyclable<Bac
         super.draw(batch, parentAlpha);
 
         // ------------------------------------------------------------------------
-        // We are going to use a shapeRenderer -> end current batch
+        // Draw a quad with the specified corner colors, using the shared white texel, so that
+        // the background goes into the same batch as the rest of sprites (no flush)
         // ------------------------------------------------------------------------
-        batch.end();
+        float x = getX();
+        float y = getY();
+        float x2 = x + getWidth();
+        float y2 = y + getHeight();
+        float u = whiteTexel.getU();
+        float v = whiteTexel.getV();
+
+        // Vertices are sent in the same order as Sprite's: BL, TL, TR, BR. As when the
+        // background was drawn with a ShapeRenderer, the corner colors are used as they are
+        // (only tinted by the parent group), without the parent's alpha
+        setVertex(0, x, y, bottomLeftColor, u, v);
+        setVertex(1, x, y2, topLeftColor, u, v);
+        setVertex(2, x2, y2, topRightColor, u, v);
+        setVertex(3, x2, y, bottomRightColor, u, v);
+
+        // Without a pre-draw shader the batch's shader is left untouched; otherwise, the
+        // post-draw shader (or the previous one, if none is set) is restored afterwards
+        if (preDrawShader == null) {
+            batch.draw(whiteTexel.getTexture(), vertices, 0, QUAD_SIZE);
+            return;
+        }
+        ShaderProgram previousShader = batch.getShader();
+        batch.setShader(preDrawShader);
+        batch.draw(whiteTexel.getTexture(), vertices, 0, QUAD_SIZE);
+        ShaderProgram restoredShader = postDrawShader != null ? postDrawShader : previousShader;
+        if (restoredShader != preDrawShader) {
+            batch.setShader(restoredShader);
+        }
+    }
 
-        // ------------------------------------------------------------------------
-        // Draw a rectangle with the specified colors
-        // ------------------------------------------------------------------------
-        shapeRenderer.setProjectionMatrix(batch.getProjectionMatrix());
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+    @Override
+    public boolean getCullingBounds(Rectangle bounds) {
+        bounds.set(getX(), getY(), getWidth(), getHeight());
+        return true;
+    }
 
-        shapeRenderer
-                .rect(getX(), getY(), getWidth(), getHeight(), bottomLeftColor, bottomRightColor,
-                        topRightColor, topLeftColor);
-        shapeRenderer.end();
+    /**
+     * The quad is opaque when all the corner colors are; custom shaders are assumed to keep
+     * the alpha of the colors.
+     */
+    @Override
+    public boolean getOpaqueBounds(Rectangle bounds) {
+        if (topLeftColor.a < 1 || topRightColor.a < 1 || bottomLeftColor.a < 1 ||
+                bottomRightColor.a < 1) {
+            return false;
+        }
+        return getCullingBounds(bounds);
+    }
 
-        // ------------------------------------------------------------------------
-        // We are done -> begin a batch again for the next actors
-        // ------------------------------------------------------------------------
-        batch.begin();
+    private void setVertex(int index, float x, float y, Color color, float u, float v) {
+        int offset = index * VERTEX_SIZE;
+        ControllableGroup.applyInheritedTint(this, color, tmpColor);
+        vertices[offset] = x;
+        vertices[offset + 1] = y;
+        vertices[offset + 2] = tmpColor.toFloatBits();
+        vertices[offset + 3] = u;
+        vertices[offset + 4] = v;
     }
 
     public void setCornerColors(Color topLeftColor, Color topRightColor, Color bottomLeftColor,
@@ -121,4 +187,31 @@ public class BackgroundActor extends ControllableActor implements Recyclable<Bac
     public void setBottomRightColor(Color bottomRightColor) {
         this.bottomRightColor = bottomRightColor;
     }
+
+    public ShaderProgram getPreDrawShader() {
+        return preDrawShader;
+    }
+
+    /**
+     * Set the shader used for drawing the background. Only needed when the batch's current
+     * shader does not sample textures in the standard way (e.g., the ETC1a shader). Note that
+     * changing shaders flushes the batch.
+     *
+     * @param preDrawShader
+     */
+    public void setPreDrawShader(ShaderProgram preDrawShader) {
+        this.preDrawShader = preDrawShader;
+    }
+
+    public ShaderProgram getPostDrawShader() {
+        return postDrawShader;
+    }
+
+    /**
+     * Set the shader restored after drawing the background with a pre-draw shader. If null, the
+     * shader the batch had before is restored.
+     */
+    public void setPostDrawShader(ShaderProgram postDrawShader) {
+        this.postDrawShader = postDrawShader;
+    }
 }
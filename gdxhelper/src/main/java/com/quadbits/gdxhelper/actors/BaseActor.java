@@ -39,6 +39,60 @@ public abstract class BaseActor extends Actor implements Pool.Poolable, NonConti
         clear();
     }
 
+    /**
+     * Notifies the groups containing this actor that its culling bounds have changed (see
+     * {@link ControllableGroup#invalidateCullingBounds(Actor)}).
+     */
+    protected void invalidateCullingBounds() {
+        ControllableGroup.invalidateCullingBounds(this);
+    }
+
+    @Override
+    protected void positionChanged() {
+        super.positionChanged();
+        invalidateCullingBounds();
+    }
+
+    @Override
+    protected void sizeChanged() {
+        super.sizeChanged();
+        invalidateCullingBounds();
+    }
+
+    @Override
+    public void setRotation(float degrees) {
+        if (degrees != getRotation()) {
+            super.setRotation(degrees);
+            invalidateCullingBounds();
+        }
+    }
+
+    @Override
+    public void rotateBy(float amountInDegrees) {
+        if (amountInDegrees != 0) {
+            super.rotateBy(amountInDegrees);
+            invalidateCullingBounds();
+        }
+    }
+
+    @Override
+    public void setOrigin(float originX, float originY) {
+        super.setOrigin(originX, originY);
+        invalidateCullingBounds();
+    }
+
+    @Override
+    public void setOriginX(float originX) {
+        super.setOriginX(originX);
+        invalidateCullingBounds();
+    }
+
+    @Override
+    public void setOriginY(float originY) {
+        super.setOriginY(originY);
+        invalidateCullingBounds();
+    }
+
     public float getRelX(float relativeX) {
         return getX() + getWidth() * relativeX;
     }
@@ -15,16 +15,22 @@
  */
 package com.quadbits.gdxhelper.actors;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
 import com.badlogic.gdx.utils.Pool;
+import com.quadbits.gdxhelper.utils.CloudPlacer;
 import com.quadbits.gdxhelper.utils.DrawUtils;
 import com.quadbits.gdxhelper.utils.Recyclable;
 import com.quadbits.gdxhelper.utils.SpriteGrid;
+import com.quadbits.gdxhelper.utils.SpriteGridTemplate;
+import com.quadbits.gdxhelper.utils.UniformGrid;
 
 import javax.inject.Inject;
 
@@ -32,12 +38,11 @@ import javax.inject.Inject;
  *
  */
 public class CloudsActor extends ControllableActor
-        implements DrawUtils.BatchDrawableSprite, Recyclable<CloudsActor> {
+        implements DrawUtils.BatchDrawableSprite, Cullable, Recyclable<CloudsActor> {
     protected Pool<CloudsActor> cloudsActorPool;
     protected Array<SpriteGrid> spriteGrids;
-    protected Array<Cloud> clouds;
-    protected Array<Float> spritesMinScale;
-    protected Array<Float> spritesMaxScale;
+    protected FloatArray spritesMinScale;
+    protected FloatArray spritesMaxScale;
     protected float cloudsPerc; // [0, 1]
     protected float availableArea;
     protected float coveredArea;
@@ -45,29 +50,68 @@ public class CloudsActor extends ControllableActor
     protected float fadeAnimMaxDeltaSeconds;
     protected boolean fading;
 
+    // Clouds, as parallel arrays
+    protected int cloudCount;
+    protected float[] cloudX;
+    protected float[] cloudY;
+    protected float[] cloudWidth;
+    protected float[] cloudHeight;
+    protected float[] cloudScale;
+    protected float[] cloudAlpha;
+    protected float[] cloudTargetAlpha;
+    protected boolean[] cloudFlipX;
+    protected boolean[] cloudFlipY;
+    protected int[] cloudSpriteIndex;
+
+    protected CloudPlacer cloudPlacer;
+
+    // Spatial index of the clouds, rebuilt when they are added, moved or removed
+    protected UniformGrid cloudIndex;
+    protected boolean cloudIndexDirty;
+    protected int cloudIndexDivisions;
+    protected IntArray visibleClouds;
+    protected Rectangle viewportBounds;
+    protected Color tintedColor;
+    protected boolean viewportValid;
+
+    // Vertex buffer
+    protected float[] vertices;
+    protected int verticesOffset;
+    protected Texture verticesTexture;
+
     protected boolean tileableX;
     protected boolean tileableY;
+    protected int culledTileCount;
     protected float minTiledX;
     protected float maxTiledX;
     protected float minTiledY;
     protected float maxTiledY;
 
-    @Inject
-    protected Pool<Cloud> cloudPool;
-
     @Inject
     protected Pool<SpriteGrid> spriteGridPool;
 
     public static final float DEFAULT_FADE_ANIM_DURATION_SECONDS = 1f;
     public static final float DEFAULT_FADE_ANIM_MAX_DELTA_SECONDS = 1.f / 30.f;
+    public static final int INITIAL_CLOUDS_CAPACITY = 16;
+    private static final Rectangle tmpCloudBounds = new Rectangle();
+    private static final Vector2 tmpPosition = new Vector2();
+
+    public static final int VERTICES_BUFFER_CELLS = 128;
+    public static final int DEFAULT_CLOUD_INDEX_DIVISIONS = 8;
 
     @Inject
     public CloudsActor() {
         super();
         spriteGrids = new Array<SpriteGrid>();
-        spritesMinScale = new Array<Float>();
-        spritesMaxScale = new Array<Float>();
-        clouds = new Array<Cloud>();
+        spritesMinScale = new FloatArray();
+        spritesMaxScale = new FloatArray();
+        setCloudsCapacity(INITIAL_CLOUDS_CAPACITY);
+        vertices = new float[VERTICES_BUFFER_CELLS * SpriteGrid.CELL_SIZE];
+        cloudPlacer = new CloudPlacer();
+        cloudIndex = new UniformGrid();
+        visibleClouds = new IntArray();
+        viewportBounds = new Rectangle();
+        tintedColor = new Color();
         init();
     }
 
@@ -78,6 +122,15 @@ public class CloudsActor extends ControllableActor
         fadeAnimDurationSeconds = DEFAULT_FADE_ANIM_DURATION_SECONDS;
         fadeAnimMaxDeltaSeconds = DEFAULT_FADE_ANIM_MAX_DELTA_SECONDS;
         fading = false;
+        cloudCount = 0;
+        cloudIndexDirty = true;
+        cloudIndexDivisions = DEFAULT_CLOUD_INDEX_DIVISIONS;
+        cloudPlacer.setOverlapPolicy(CloudPlacer.OverlapPolicy.AVOID);
+        cloudPlacer.setCandidateCount(CloudPlacer.DEFAULT_CANDIDATE_COUNT);
+        viewportValid = false;
+        culledTileCount = 0;
+        verticesOffset = 0;
+        verticesTexture = null;
     }
 
     @Override
@@ -91,10 +144,6 @@ public class CloudsActor extends ControllableActor
         spritesMinScale.clear();
         spritesMaxScale.clear();
 
-        for (Cloud cloud : clouds) {
-            cloud.free();
-        }
-        clouds.clear();
         init();
     }
 
@@ -122,43 +171,65 @@ public class CloudsActor extends ControllableActor
 
         // If already present clouds cover a greater area than available,
         // mark some clouds as removed
-        for (Cloud cloud : clouds) {
+        for (int i = 0; i < cloudCount; i++) {
             if (coveredArea <= availableArea) {
                 break;
             }
 
-            if (cloud.targetAlpha == 0) {
+            if (cloudTargetAlpha[i] == 0) {
                 continue;
             }
 
-            cloud.targetAlpha = 0;
-            coveredArea -= cloud.width * cloud.height;
+            cloudTargetAlpha[i] = 0;
+            coveredArea -= cloudWidth[i] * cloudHeight[i];
         }
 
         // Add clouds until we fill up the available area
         while (coveredArea < availableArea) {
-            Cloud cloud = createCloud(availableArea - coveredArea);
-            if (cloud == null) {
+            int i = addCloud(availableArea - coveredArea);
+            if (i == -1) {
                 break;
             }
 
-            clouds.add(cloud);
-            coveredArea += cloud.width * cloud.height;
+            coveredArea += cloudWidth[i] * cloudHeight[i];
         }
 
-        // Randomize positions of the clouds using a Halton sequence with bases 2 and 3,
-        // discarding the first r numbers (r = random[1, 60])
-        int base2 = 2;
-        int base3 = 3;
-        int index = MathUtils.random(1, 60) + 1;
-        for (Cloud cloud : clouds) {
-            if (cloud.targetAlpha == 1 && cloud.targetAlpha != cloud.alpha) {
-                cloud.x = DrawUtils.haltonSequence(index, base2) * getWidth();
-                cloud.x -= Math.max(0, cloud.x + cloud.width - getWidth());
-                cloud.y = DrawUtils.haltonSequence(index, base3) * getHeight();
-                index++;
+        // Place the new (still invisible) clouds using a Halton sequence with bases 2 and 3,
+        // discarding the first r numbers (r = random[1, 60]). Visible clouds stay where they
+        // are, and are taken into account to avoid overlaps
+        cloudPlacer.begin(getWidth(), getHeight(), MathUtils.random(1, 60) + 1);
+        for (int i = 0; i < cloudCount; i++) {
+            if (cloudTargetAlpha[i] == 1 && cloudAlpha[i] != 0) {
+                cloudPlacer.addCovered(cloudX[i], cloudY[i], cloudWidth[i], cloudHeight[i]);
             }
         }
+        boolean placed = false;
+        for (int i = 0; i < cloudCount; i++) {
+            if (cloudTargetAlpha[i] == 1 && cloudAlpha[i] == 0) {
+                cloudPlacer.place(cloudWidth[i], cloudHeight[i], tmpPosition);
+                cloudX[i] = tmpPosition.x;
+                cloudY[i] = tmpPosition.y;
+                placed = true;
+            }
+        }
+
+        if (placed) {
+            cloudIndexDirty = true;
+            invalidateCullingBounds();
+        }
+    }
+
+    /**
+     * Rebuilds the spatial index of the clouds, covering the actor's area.
+     */
+    protected void rebuildCloudIndex() {
+        cloudIndex.clear(0, 0, getWidth(), getHeight(), cloudIndexDivisions,
+                cloudIndexDivisions);
+        for (int i = 0; i < cloudCount; i++) {
+            cloudIndex.add(cloudX[i], cloudY[i], cloudWidth[i], cloudHeight[i]);
+        }
+        cloudIndex.build();
+        cloudIndexDirty = false;
     }
 
     protected void recalculateAvailableArea() {
@@ -167,20 +238,23 @@ public class CloudsActor extends ControllableActor
 
     protected void recalculateCoveredArea() {
         coveredArea = 0;
-        for (Cloud cloud : clouds) {
-            if (cloud.targetAlpha == 1) {
-                coveredArea += cloud.width * cloud.height;
+        for (int i = 0; i < cloudCount; i++) {
+            if (cloudTargetAlpha[i] == 1) {
+                coveredArea += cloudWidth[i] * cloudHeight[i];
             }
         }
     }
 
-    protected Cloud createCloud(float remainingArea) {
-        // Create the cloud object
-        Cloud cloud = cloudPool.obtain();
-
+    /**
+     * Adds a new cloud, with a random sprite and a random scale that fits in the remaining
+     * area.
+     *
+     * @return the index of the new cloud, or -1 if no cloud fits in the remaining area
+     */
+    protected int addCloud(float remainingArea) {
         // Randomly choose the cloud sprite to use
-        cloud.spriteGridIndex = MathUtils.random(spriteGrids.size - 1);
-        SpriteGrid spriteGrid = spriteGrids.get(cloud.spriteGridIndex);
+        int spriteIndex = MathUtils.random(spriteGrids.size - 1);
+        SpriteGrid spriteGrid = spriteGrids.get(spriteIndex);
 
         // Find out the area occupied by the original sprite
         float originalArea = spriteGrid.getOriginalWidth() * spriteGrid.getOriginalHeight();
@@ -188,13 +262,12 @@ public class CloudsActor extends ControllableActor
         // Calculate the maximum scale that we can use to create a cloud that would fit
         // in the remaining area
         float remainingAreaMaxScale = (float) Math.sqrt(remainingArea / originalArea);
-        float minScale = spritesMinScale.get(cloud.spriteGridIndex);
-        float maxScale = spritesMaxScale.get(cloud.spriteGridIndex);
+        float minScale = spritesMinScale.get(spriteIndex);
+        float maxScale = spritesMaxScale.get(spriteIndex);
 
         // If the scale is less than the minimum scale, return
         if (remainingAreaMaxScale < minScale) {
-            cloud.free();
-            return null;
+            return -1;
         }
 
         // If the scale is less than the maximum scale, adjust max-scale
@@ -203,27 +276,55 @@ public class CloudsActor extends ControllableActor
         }
 
         // Set the cloud's properties
-        cloud.scale = MathUtils.random(minScale, maxScale);
-        cloud.width = spriteGrid.getOriginalWidth() * cloud.scale;
-        cloud.height = spriteGrid.getOriginalHeight() * cloud.scale;
-        //cloud.x = MathUtils.random(0, getWidth() - cloud.width);
-        //cloud.y = MathUtils.random(0, getHeight() - cloud.height);
-        cloud.flipX = MathUtils.randomBoolean();
-        cloud.alpha = 0;
-        cloud.targetAlpha = 1;
+        if (cloudCount == cloudX.length) {
+            setCloudsCapacity(cloudCount * 2);
+        }
+        int i = cloudCount++;
+        float scale = MathUtils.random(minScale, maxScale);
+        cloudSpriteIndex[i] = spriteIndex;
+        cloudScale[i] = scale;
+        cloudWidth[i] = spriteGrid.getOriginalWidth() * scale;
+        cloudHeight[i] = spriteGrid.getOriginalHeight() * scale;
+        cloudX[i] = cloudY[i] = 0;
+        cloudFlipX[i] = MathUtils.randomBoolean();
+        cloudFlipY[i] = false;
+        cloudAlpha[i] = 0;
+        cloudTargetAlpha[i] = 1;
+
+        return i;
+    }
+
+    protected void setCloudsCapacity(int capacity) {
+        cloudX = copyOf(cloudX, capacity);
+        cloudY = copyOf(cloudY, capacity);
+        cloudWidth = copyOf(cloudWidth, capacity);
+        cloudHeight = copyOf(cloudHeight, capacity);
+        cloudScale = copyOf(cloudScale, capacity);
+        cloudAlpha = copyOf(cloudAlpha, capacity);
+        cloudTargetAlpha = copyOf(cloudTargetAlpha, capacity);
+        boolean[] newFlipX = new boolean[capacity];
+        boolean[] newFlipY = new boolean[capacity];
+        int[] newSpriteIndex = new int[capacity];
+        if (cloudSpriteIndex != null) {
+            System.arraycopy(cloudFlipX, 0, newFlipX, 0, cloudCount);
+            System.arraycopy(cloudFlipY, 0, newFlipY, 0, cloudCount);
+            System.arraycopy(cloudSpriteIndex, 0, newSpriteIndex, 0, cloudCount);
+        }
+        cloudFlipX = newFlipX;
+        cloudFlipY = newFlipY;
+        cloudSpriteIndex = newSpriteIndex;
+    }
 
-        return cloud;
+    private float[] copyOf(float[] array, int capacity) {
+        float[] newArray = new float[capacity];
+        if (array != null) {
+            System.arraycopy(array, 0, newArray, 0, cloudCount);
+        }
+        return newArray;
     }
 
-    protected void setSpriteGridPropertiesFromCloud(SpriteGrid spriteGrid, Cloud cloud) {
-        spriteGrid.setPosition(getX() + cloud.x, getY() + cloud.y);
-        spriteGrid.setSize(cloud.width, cloud.height);
-        spriteGrid.setFlipX(cloud.flipX);
-        spriteGrid.setFlipY(cloud.flipY);
-        Color spriteGridColor = spriteGrid.getColor();
-        Color actorColor = getColor();
-        spriteGridColor.set(actorColor.r, actorColor.g, actorColor.b, cloud.alpha);
-        spriteGrid.setColor(spriteGridColor);
+    public int getCloudCount() {
+        return cloudCount;
     }
 
     public void setTextureFilter(Texture.TextureFilter minFilter, Texture.TextureFilter maxFilter) {
@@ -232,75 +333,183 @@ public class CloudsActor extends ControllableActor
         }
     }
 
+    @Override
+    protected void sizeChanged() {
+        super.sizeChanged();
+        cloudIndexDirty = true;
+    }
+
     @Override
     public void act(float deltaSeconds) {
         super.act(deltaSeconds);
 
         float deltaAlpha = deltaSeconds / fadeAnimDurationSeconds;
 
-        // Update fade alphas
-        for (Cloud cloud : clouds) {
-            if (cloud.alpha != cloud.targetAlpha) {
-                cloud.alpha += (cloud.targetAlpha == 1) ? deltaAlpha : -deltaAlpha;
-                if (cloud.alpha < 0) {
-                    cloud.alpha = 0;
+        // Update fade alphas, and remove the clouds that have faded out (keeping the drawing
+        // order of the rest)
+        fading = false;
+        int n = 0;
+        for (int i = 0; i < cloudCount; i++) {
+            float alpha = cloudAlpha[i];
+            float targetAlpha = cloudTargetAlpha[i];
+            if (alpha != targetAlpha) {
+                alpha += (targetAlpha == 1) ? deltaAlpha : -deltaAlpha;
+                if (alpha < 0) {
+                    alpha = 0;
                 }
-                if (cloud.alpha > 1) {
-                    cloud.alpha = 1;
+                if (alpha > 1) {
+                    alpha = 1;
                 }
             }
-        }
 
-        // If fade animations are completed, remove deleted clouds
-        int i = 0;
-        while (i < clouds.size) {
-            Cloud cloud = clouds.get(i);
-            if ((cloud.targetAlpha == 0) && (cloud.alpha == 0)) {
-                clouds.removeIndex(i);
-                cloud.free();
-            } else {
-                i++;
+            if (targetAlpha == 0 && alpha == 0) {
+                continue;
+            }
+            if (alpha != targetAlpha) {
+                fading = true;
+            }
+
+            if (n != i) {
+                cloudX[n] = cloudX[i];
+                cloudY[n] = cloudY[i];
+                cloudWidth[n] = cloudWidth[i];
+                cloudHeight[n] = cloudHeight[i];
+                cloudScale[n] = cloudScale[i];
+                cloudTargetAlpha[n] = targetAlpha;
+                cloudFlipX[n] = cloudFlipX[i];
+                cloudFlipY[n] = cloudFlipY[i];
+                cloudSpriteIndex[n] = cloudSpriteIndex[i];
             }
+            cloudAlpha[n] = alpha;
+            n++;
         }
+        if (n != cloudCount) {
+            cloudIndexDirty = true;
+            invalidateCullingBounds();
+        }
+        cloudCount = n;
     }
 
     @Override
     public void draw(Batch batch, float parentAlpha) {
+        // The viewport (in the batch's coordinates) is shared by all the tiles
+        viewportValid = DrawUtils.getViewportBounds(batch, viewportBounds);
+        if (cloudIndexDirty) {
+            rebuildCloudIndex();
+        }
+
         // Special case: not tileable
         if (!tileableX && !tileableY) {
+            culledTileCount = 0;
             drawSprite(batch, parentAlpha);
         }
 
         // General case: tileable in at least one dimension
         else {
-            DrawUtils.drawTileableSprite(batch, parentAlpha, this, tileableX, tileableY, minTiledX,
-                    maxTiledX, minTiledY, maxTiledY);
+            culledTileCount = DrawUtils.drawTileableSprite(batch, parentAlpha, this, tileableX,
+                    tileableY, minTiledX, maxTiledX, minTiledY, maxTiledY,
+                    viewportValid ? viewportBounds : null);
+        }
+    }
+
+    /**
+     * Clouds may overflow the actor's size, so the bounds are calculated from the clouds.
+     */
+    @Override
+    public void getDrawBounds(Rectangle bounds) {
+        if (cloudCount == 0) {
+            bounds.set(0, 0, getWidth(), getHeight());
+            return;
+        }
+
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < cloudCount; i++) {
+            minX = Math.min(minX, cloudX[i]);
+            minY = Math.min(minY, cloudY[i]);
+            maxX = Math.max(maxX, cloudX[i] + cloudWidth[i]);
+            maxY = Math.max(maxY, cloudY[i] + cloudHeight[i]);
         }
+        bounds.set(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    @Override
+    public boolean getCullingBounds(Rectangle bounds) {
+        if (tileableX || tileableY) {
+            return false;
+        }
+
+        getDrawBounds(bounds);
+        bounds.x += getX();
+        bounds.y += getY();
+        return true;
     }
 
     @Override
     public void drawSprite(Batch batch, float parentAlpha) {
-        fading = false;
         float actorX = getX();
-        float screenWidth = Gdx.graphics.getWidth();
+        float actorY = getY();
+        Color actorColor = ControllableGroup.applyInheritedTint(this, getColor(), tintedColor);
+        float actorAlpha = actorColor.a * parentAlpha;
+
+        // Pixels per unit, to choose the level of detail from the size of the clouds on screen
+        float pixelScale = DrawUtils.getPixelScale(batch);
+
+        // Only visit the clouds whose buckets intersect the viewport (relative to this tile)
+        int nClouds = cloudCount;
+        if (viewportValid) {
+            Rectangle viewport = viewportBounds;
+            nClouds = cloudIndex.query(viewport.x - actorX, viewport.y - actorY, viewport.width,
+                    viewport.height, visibleClouds);
+        }
+
+        for (int k = 0; k < nClouds; k++) {
+            int i = viewportValid ? visibleClouds.get(k) : k;
 
-        for (Cloud cloud : clouds) {
             // Do not draw out-of-screen clouds
-            float cloudX = actorX + cloud.x;
-            if (cloudX > screenWidth) {
-                continue;
-            }
-            if (cloudX + cloud.width < 0) {
+            float x = actorX + cloudX[i];
+            float y = actorY + cloudY[i];
+            float width = cloudWidth[i];
+            float height = cloudHeight[i];
+            if (viewportValid && !viewportBounds.overlaps(tmpCloudBounds.set(x, y, width,
+                    height))) {
                 continue;
             }
 
-            // Set sprite grid properties from the cloud and draw it
-            setSpriteGridPropertiesFromCloud(spriteGrids.get(cloud.spriteGridIndex), cloud);
-            spriteGrids.get(cloud.spriteGridIndex).draw(batch, parentAlpha);
-            if (cloud.alpha != cloud.targetAlpha) {
-                fading = true;
+            // Write the cloud's vertices, using the level of detail for its size
+            SpriteGrid spriteGrid = spriteGrids.get(cloudSpriteIndex[i]);
+            SpriteGridTemplate template = spriteGrid.getTemplate();
+            if (spriteGrid.isLodEnabled()) {
+                template = template.selectLod(
+                        width / spriteGrid.getOriginalWidth() * pixelScale);
+            }
+            float colorBits = Color.toFloatBits(actorColor.r, actorColor.g, actorColor.b,
+                    cloudAlpha[i] * actorAlpha);
+            for (int page = 0; page < template.getPageCount(); page++) {
+                Texture texture = template.getPageTexture(page);
+                int size = template.getPageCellCount(page) * SpriteGrid.CELL_SIZE;
+                if (texture != verticesTexture || verticesOffset + size > vertices.length) {
+                    flushVertices(batch);
+                    verticesTexture = texture;
+                    if (size > vertices.length) {
+                        vertices = new float[size];
+                    }
+                }
+                verticesOffset = template.writeVertices(page, vertices, verticesOffset, x, y,
+                        width, height, cloudFlipX[i], cloudFlipY[i], colorBits);
             }
         }
+        flushVertices(batch);
+    }
+
+    protected void flushVertices(Batch batch) {
+        if (verticesOffset > 0) {
+            batch.draw(verticesTexture, vertices, 0, verticesOffset);
+        }
+        verticesOffset = 0;
+        verticesTexture = null;
     }
 
     @Override
@@ -314,13 +523,33 @@ public class CloudsActor extends ControllableActor
 
     @Override
     public void scaleBy(float scale) {
-        for (Cloud cloud : clouds) {
-            SpriteGrid spriteGrid = spriteGrids.get(cloud.spriteGridIndex);
-            float originalWidth = spriteGrid.getOriginalWidth();
-            float originalHeight = spriteGrid.getOriginalHeight();
-            cloud.width = originalWidth * cloud.scale * scale;
-            cloud.height = originalHeight * cloud.scale * scale;
+        for (int i = 0; i < cloudCount; i++) {
+            SpriteGrid spriteGrid = spriteGrids.get(cloudSpriteIndex[i]);
+            cloudWidth[i] = spriteGrid.getOriginalWidth() * cloudScale[i] * scale;
+            cloudHeight[i] = spriteGrid.getOriginalHeight() * cloudScale[i] * scale;
         }
+        cloudIndexDirty = true;
+        invalidateCullingBounds();
+    }
+
+    /**
+     * @return the engine placing the clouds, which can be configured (e.g., its
+     * {@link CloudPlacer.OverlapPolicy})
+     */
+    public CloudPlacer getCloudPlacer() {
+        return cloudPlacer;
+    }
+
+    public int getCloudIndexDivisions() {
+        return cloudIndexDivisions;
+    }
+
+    /**
+     * Sets the number of buckets of the clouds' spatial index, in both dimensions.
+     */
+    public void setCloudIndexDivisions(int cloudIndexDivisions) {
+        this.cloudIndexDivisions = cloudIndexDivisions;
+        cloudIndexDirty = true;
     }
 
     public float getCloudsPerc() {
@@ -337,6 +566,7 @@ public class CloudsActor extends ControllableActor
 
     public void setTileableX(boolean tileableX) {
         this.tileableX = tileableX;
+        invalidateCullingBounds();
     }
 
     public boolean isTileableY() {
@@ -345,6 +575,14 @@ public class CloudsActor extends ControllableActor
 
     public void setTileableY(boolean tileableY) {
         this.tileableY = tileableY;
+        invalidateCullingBounds();
+    }
+
+    /**
+     * @return the number of tiles culled in the last draw (0 if not tileable)
+     */
+    public int getCulledTileCount() {
+        return culledTileCount;
     }
 
     public float getMinTiledX() {
@@ -404,38 +642,4 @@ public class CloudsActor extends ControllableActor
     public void setFadeAnimMaxDeltaSeconds(float fadeAnimMaxDeltaSeconds) {
         this.fadeAnimMaxDeltaSeconds = fadeAnimMaxDeltaSeconds;
     }
-
-    public static class Cloud implements Pool.Poolable {
-        protected Pool<Cloud> cloudPool;
-        float x, y;
-        float width, height;
-        float scale;
-        float alpha, targetAlpha;
-        boolean flipX, flipY;
-        int spriteGridIndex;
-
-        @Inject
-        public Cloud() {
-            reset();
-        }
-
-        @Override
-        public void reset() {
-            x = y = width = height = 0;
-            scale = 1;
-            alpha = 0;
-            targetAlpha = 1;
-            flipX = flipY = false;
-            spriteGridIndex = -1;
-        }
-
-        public void free() {
-            cloudPool.free(this);
-        }
-
-        public void setPool(Pool<Cloud> cloudPool) {
-            this.cloudPool = cloudPool;
-        }
-    }
-
 }
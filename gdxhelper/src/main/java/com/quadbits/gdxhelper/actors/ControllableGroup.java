@@ -15,24 +15,346 @@
  */
 package com.quadbits.gdxhelper.actors;
 
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Group;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.SnapshotArray;
 import com.quadbits.gdxhelper.controllers.Controller;
 import com.quadbits.gdxhelper.controllers.NonContinuousRenderingController;
+import com.quadbits.gdxhelper.utils.DrawUtils;
 
 /**
- *
+ * A group with controllers. Children implementing {@link Cullable} are not drawn when their
+ * bounds are outside the viewport; groups are themselves cullable, with the union of their
+ * children's bounds, so whole subtrees outside the viewport are skipped. The union is cached
+ * until it is invalidated by a change in the children's geometry (see {@link
+ * #invalidateCullingBounds(Actor)}), and the children are not tested one by one while it is
+ * completely inside the viewport.
+ * <p/>
+ * Groups also carry a tint, which is multiplied into the colors of the whole subtree when it is
+ * drawn: tint controllers (e.g., {@link com.quadbits.gdxhelper.controllers.TintAtNightController})
+ * attached to a group set the group's tint once per frame, instead of the color of every actor
+ * in it. Actors apply the tint inherited from their parent with {@link #applyInheritedTint(Actor,
+ * Color, Color)}.
  */
-public abstract class ControllableGroup extends BaseGroup {
+public abstract class ControllableGroup extends BaseGroup implements Cullable {
     protected Array<Controller> controllers;
+    protected boolean cullingEnabled;
+    protected int culledChildrenCount;
+    protected final Array<Actor> culledChildren;
+    protected final Rectangle viewportBounds;
+    protected final Rectangle childBounds;
+    protected final Rectangle childrenBounds;
+    protected boolean childrenBoundsKnown;
+    protected boolean childrenBoundsDirty;
+    protected final Color tint;
+    protected final Color inheritedTint;
 
     public ControllableGroup() {
         super();
         controllers = new Array<Controller>();
+        culledChildren = new Array<Actor>();
+        viewportBounds = new Rectangle();
+        childBounds = new Rectangle();
+        childrenBounds = new Rectangle();
+        tint = new Color(Color.WHITE);
+        inheritedTint = new Color(Color.WHITE);
+        init();
+    }
+
+    private void init() {
+        cullingEnabled = true;
+        culledChildrenCount = 0;
+        childrenBoundsDirty = true;
+        tint.set(Color.WHITE);
+        inheritedTint.set(Color.WHITE);
     }
 
     @Override
     public void reset() {
         controllers.clear();
+        init();
+    }
+
+    @Override
+    protected void drawChildren(Batch batch, float parentAlpha) {
+        // Parents are drawn before their children, so the parent's tint is up to date
+        Color parentTint = getInheritedTint(this);
+        inheritedTint.set(tint.r * parentTint.r, tint.g * parentTint.g, tint.b * parentTint.b, 1);
+
+        culledChildrenCount = 0;
+        if (!cullingEnabled || !DrawUtils.getViewportBounds(batch, viewportBounds)) {
+            super.drawChildren(batch, parentAlpha);
+            return;
+        }
+
+        // Without transform, the batch is in the parent's coordinates and children are offset
+        // by the group's position
+        if (!isTransform()) {
+            viewportBounds.x -= getX();
+            viewportBounds.y -= getY();
+        }
+
+        // Nothing to cull if all the children are inside the viewport
+        if (updateChildrenBounds() && viewportBounds.contains(childrenBounds)) {
+            super.drawChildren(batch, parentAlpha);
+            return;
+        }
+
+        // Culled children are hidden while the rest are drawn
+        SnapshotArray<Actor> children = getChildren();
+        Actor[] actors = children.begin();
+        for (int i = 0, n = children.size; i < n; i++) {
+            Actor child = actors[i];
+            if (child.isVisible() && child instanceof Cullable &&
+                    ((Cullable) child).getCullingBounds(childBounds) &&
+                    !childBounds.overlaps(viewportBounds)) {
+                child.setVisible(false);
+                culledChildren.add(child);
+            }
+        }
+        children.end();
+
+        culledChildrenCount = culledChildren.size;
+        super.drawChildren(batch, parentAlpha);
+
+        for (Actor child : culledChildren) {
+            child.setVisible(true);
+        }
+        culledChildren.clear();
+    }
+
+    @Override
+    public boolean getCullingBounds(Rectangle bounds) {
+        if (!updateChildrenBounds()) {
+            return false;
+        }
+
+        if (isTransform()) {
+            DrawUtils.transformBounds(childrenBounds, getX(), getY(), getOriginX(), getOriginY(),
+                    getScaleX(), getScaleY(), getRotation(), bounds);
+        } else {
+            bounds.set(childrenBounds);
+            bounds.x += getX();
+            bounds.y += getY();
+        }
+        return true;
+    }
+
+    /**
+     * Recalculates the union of the children's bounds (in the group's coordinates) if it has
+     * been invalidated.
+     *
+     * @return false if the union is unknown
+     */
+    protected boolean updateChildrenBounds() {
+        if (childrenBoundsDirty) {
+            childrenBoundsDirty = false;
+            childrenBoundsKnown = calculateChildrenBounds(childrenBounds);
+        }
+        return childrenBoundsKnown;
+    }
+
+    /**
+     * Hidden children are included, so that the union does not depend on the visibility of the
+     * children (which is toggled while culling).
+     *
+     * @return false if any child is not cullable or has unknown bounds
+     */
+    protected boolean calculateChildrenBounds(Rectangle bounds) {
+        boolean empty = true;
+        for (Actor child : getChildren()) {
+            if (!(child instanceof Cullable) || !((Cullable) child).getCullingBounds(childBounds)) {
+                return false;
+            }
+            if (empty) {
+                bounds.set(childBounds);
+                empty = false;
+            } else {
+                bounds.merge(childBounds);
+            }
+        }
+        if (empty) {
+            bounds.set(0, 0, 0, 0);
+        }
+        return true;
+    }
+
+    /**
+     * Marks the cached bounds of the groups containing an actor as outdated. Actors must call it
+     * whenever their culling bounds change; position, size, rotation and origin changes of
+     * {@link BaseActor}s and groups, and children being added or removed, are notified
+     * automatically.
+     */
+    public static void invalidateCullingBounds(Actor actor) {
+        for (Group parent = actor.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent instanceof ControllableGroup) {
+                ((ControllableGroup) parent).childrenBoundsDirty = true;
+            }
+        }
+    }
+
+    @Override
+    protected void childrenChanged() {
+        super.childrenChanged();
+        childrenBoundsDirty = true;
+        invalidateCullingBounds(this);
+    }
+
+    @Override
+    protected void positionChanged() {
+        super.positionChanged();
+        invalidateCullingBounds(this);
+    }
+
+    // The bounds of the group in its parent only depend on its rotation, scale and origin if it
+    // is transformed
+
+    @Override
+    public void setRotation(float degrees) {
+        super.setRotation(degrees);
+        transformChanged();
+    }
+
+    @Override
+    public void rotateBy(float amountInDegrees) {
+        super.rotateBy(amountInDegrees);
+        transformChanged();
+    }
+
+    @Override
+    public void setScaleX(float scaleX) {
+        super.setScaleX(scaleX);
+        transformChanged();
+    }
+
+    @Override
+    public void setScaleY(float scaleY) {
+        super.setScaleY(scaleY);
+        transformChanged();
+    }
+
+    @Override
+    public void setScale(float scaleXY) {
+        super.setScale(scaleXY);
+        transformChanged();
+    }
+
+    @Override
+    public void setScale(float scaleX, float scaleY) {
+        super.setScale(scaleX, scaleY);
+        transformChanged();
+    }
+
+    @Override
+    public void scaleBy(float scale) {
+        super.scaleBy(scale);
+        transformChanged();
+    }
+
+    @Override
+    public void scaleBy(float scaleX, float scaleY) {
+        super.scaleBy(scaleX, scaleY);
+        transformChanged();
+    }
+
+    @Override
+    public void setOrigin(float originX, float originY) {
+        super.setOrigin(originX, originY);
+        transformChanged();
+    }
+
+    @Override
+    public void setOriginX(float originX) {
+        super.setOriginX(originX);
+        transformChanged();
+    }
+
+    @Override
+    public void setOriginY(float originY) {
+        super.setOriginY(originY);
+        transformChanged();
+    }
+
+    @Override
+    public void setTransform(boolean transform) {
+        super.setTransform(transform);
+        invalidateCullingBounds(this);
+    }
+
+    private void transformChanged() {
+        if (isTransform()) {
+            invalidateCullingBounds(this);
+        }
+    }
+
+    /**
+     * @return the tint of this group (not including the tints of its ancestors). Only the RGB
+     * components are used; the alpha of the subtree is controlled by the group's color, as usual
+     */
+    public Color getTint() {
+        return tint;
+    }
+
+    public void setTint(Color tint) {
+        this.tint.set(tint.r, tint.g, tint.b, 1);
+    }
+
+    public void setTint(float r, float g, float b) {
+        this.tint.set(r, g, b, 1);
+    }
+
+    /**
+     * @return the tint of this group multiplied by the tints of its ancestors, as calculated in
+     * the last draw
+     */
+    public Color getDrawTint() {
+        return inheritedTint;
+    }
+
+    /**
+     * @return the tint that applies to an actor being drawn, i.e., the draw tint of its parent
+     * (white if the parent is not a controllable group)
+     */
+    public static Color getInheritedTint(Actor actor) {
+        Group parent = actor.getParent();
+        if (parent instanceof ControllableGroup) {
+            return ((ControllableGroup) parent).inheritedTint;
+        }
+        return Color.WHITE;
+    }
+
+    /**
+     * Multiplies the RGB components of a color by the tint inherited by an actor.
+     *
+     * @param color
+     *         the actor's color
+     * @param out
+     *         output color (may be the same object as 'color')
+     *
+     * @return out
+     */
+    public static Color applyInheritedTint(Actor actor, Color color, Color out) {
+        Color tint = getInheritedTint(actor);
+        return out.set(color.r * tint.r, color.g * tint.g, color.b * tint.b, color.a);
+    }
+
+    public boolean isCullingEnabled() {
+        return cullingEnabled;
+    }
+
+    public void setCullingEnabled(boolean cullingEnabled) {
+        this.cullingEnabled = cullingEnabled;
+    }
+
+    /**
+     * @return the number of children culled in the last draw
+     */
+    public int getCulledChildrenCount() {
+        return culledChildrenCount;
     }
 
     @Override
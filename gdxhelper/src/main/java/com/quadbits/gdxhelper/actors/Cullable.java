@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.actors;
+
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * Actors whose drawn area is known, so that {@link ControllableGroup}s can skip drawing them
+ * when they are outside the viewport.
+ */
+public interface Cullable {
+    /**
+     * Calculates the axis-aligned bounds of everything the actor draws, in its parent's
+     * coordinates.
+     *
+     * @param bounds
+     *         output rectangle
+     *
+     * @return false if the bounds are unknown or unbounded (e.g., tiled actors); the actor is
+     * never culled in that case
+     */
+    public boolean getCullingBounds(Rectangle bounds);
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.actors;
+
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * Actors that completely cover (i.e., draw fully opaque pixels over) a known rectangle, so that
+ * the actors drawn before them within that rectangle can be skipped (see {@link
+ * com.quadbits.gdxhelper.utils.OcclusionCuller}).
+ */
+public interface Occluder {
+    /**
+     * Calculates an axis-aligned rectangle, in the parent's coordinates, where everything the
+     * actor draws is opaque. The rectangle does not need to cover the whole actor, but it must
+     * not exceed its opaque part. The alpha of the actor and its ancestors is checked by the
+     * caller.
+     *
+     * @param bounds
+     *         output rectangle
+     *
+     * @return false if the actor is not opaque at the moment (e.g., it is rotated or its colors
+     * are translucent)
+     */
+    public boolean getOpaqueBounds(Rectangle bounds);
+}
@@ -15,40 +15,82 @@
  */
 package com.quadbits.gdxhelper.actors;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.ParticleEmitter;
 import com.badlogic.gdx.graphics.g2d.ParticleEffectPool;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Pool;
+import com.quadbits.gdxhelper.utils.DrawUtils;
+import com.quadbits.gdxhelper.utils.ParticleBudget;
 import com.quadbits.gdxhelper.utils.Recyclable;
 
 import javax.inject.Inject;
 
 /**
- *
+ * An actor playing a pooled particle effect.
+ * <p/>
+ * The bounds of the effect are calculated at most once per frame. While the effect is off
+ * screen (or the actor is hidden), it is only updated every {@link
+ * #getOffScreenUpdateIntervalSeconds()} (or never, if negative), in a single coarse step
+ * covering the skipped time; when it becomes visible again, it catches up the same way before
+ * being drawn.
+ * <p/>
+ * If a {@link ParticleBudget} is set, the actor reports the time spent on its particles to it,
+ * and scales the emission of its effect as told by the budget.
  */
 public class ParticleEffectActor extends ControllableActor
-        implements Recyclable<ParticleEffectActor> {
+        implements Recyclable<ParticleEffectActor>, ParticleBudget.Client {
     protected Pool<ParticleEffectActor> pool;
     protected ParticleEffectPool.PooledEffect effect;
     protected ShaderProgram preDrawShader;
     protected ShaderProgram postDrawShader;
-    protected final BoundingBox screenBoundingBox;
+    protected float effectScale;
+    protected final Rectangle effectBounds;
+    protected final Rectangle viewportBounds;
+    protected long effectBoundsFrameId;
+    protected boolean onScreen;
+    protected float offScreenUpdateIntervalSeconds;
+    protected float skippedSeconds;
+    protected ParticleBudget particleBudget;
+    protected float emissionScale;
+    protected float[] baseEmissions; // lowMin, lowMax, highMin, highMax for each emitter
+
+    public static final float DEFAULT_OFF_SCREEN_UPDATE_INTERVAL_SECONDS = 0.5f;
+    public static final float MAX_CATCH_UP_SECONDS = 10;
 
     @Inject
     public ParticleEffectActor() {
-        screenBoundingBox = new BoundingBox();
+        effectScale = 1;
+        effectBounds = new Rectangle();
+        viewportBounds = new Rectangle();
+        baseEmissions = new float[0];
+        emissionScale = 1;
+        init();
+    }
+
+    private void init() {
+        effectBoundsFrameId = -1;
+        onScreen = false;
+        offScreenUpdateIntervalSeconds = DEFAULT_OFF_SCREEN_UPDATE_INTERVAL_SECONDS;
+        skippedSeconds = 0;
     }
 
     @Override
     public void reset() {
         super.reset();
         setPosition(0, 0);
-        if (effect != null) {
-            effect.free();
-            effect = null;
+        setEffect(null);
+        if (particleBudget != null) {
+            particleBudget.unregister(this);
+            particleBudget = null;
         }
+        emissionScale = 1;
+        init();
     }
 
     @Override
@@ -65,6 +107,7 @@ public class ParticleEffectActor extends ControllableActor
     public void scaleBy(float scale) {
         if (effect != null) {
             effect.scaleEffect(scale);
+            effectScale *= scale;
         }
     }
 
@@ -77,59 +120,209 @@ public class ParticleEffectActor extends ControllableActor
         }
     }
 
+    /**
+     * Sets the effect of this actor. The previous effect is freed, undoing the scale and the
+     * emission changes applied to it, as pooled effects outlive the stage and are reused.
+     */
     public void setEffect(ParticleEffectPool.PooledEffect effect) {
-        if (this.effect != null && this.effect != effect) {
+        if (this.effect == effect) {
+            return;
+        }
+
+        if (this.effect != null) {
+            if (effectScale != 1) {
+                this.effect.scaleEffect(1 / effectScale);
+            }
+            applyEmissionScale(1);
             this.effect.free();
         }
+        effectScale = 1;
         this.effect = effect;
         if (this.effect != null) {
             this.effect.setPosition(getX(), getY());
+            storeBaseEmissions();
+            applyEmissionScale(emissionScale);
+        }
+        effectBoundsFrameId = -1;
+        skippedSeconds = 0;
+    }
+
+    protected void storeBaseEmissions() {
+        Array<ParticleEmitter> emitters = effect.getEmitters();
+        if (baseEmissions.length < emitters.size * 4) {
+            baseEmissions = new float[emitters.size * 4];
+        }
+        for (int i = 0; i < emitters.size; i++) {
+            ParticleEmitter.ScaledNumericValue emission = emitters.get(i).getEmission();
+            baseEmissions[i * 4] = emission.getLowMin();
+            baseEmissions[i * 4 + 1] = emission.getLowMax();
+            baseEmissions[i * 4 + 2] = emission.getHighMin();
+            baseEmissions[i * 4 + 3] = emission.getHighMax();
+        }
+    }
+
+    /**
+     * Scales the emission of the emitters of the effect, relative to their original values.
+     * Emitters take the new values when they (re)start.
+     */
+    protected void applyEmissionScale(float scale) {
+        Array<ParticleEmitter> emitters = effect.getEmitters();
+        for (int i = 0; i < emitters.size; i++) {
+            ParticleEmitter.ScaledNumericValue emission = emitters.get(i).getEmission();
+            emission.setLow(baseEmissions[i * 4] * scale, baseEmissions[i * 4 + 1] * scale);
+            emission.setHigh(baseEmissions[i * 4 + 2] * scale, baseEmissions[i * 4 + 3] * scale);
+        }
+    }
+
+    @Override
+    public void setEmissionScale(float emissionScale) {
+        if (this.emissionScale == emissionScale) {
+            return;
+        }
+
+        this.emissionScale = emissionScale;
+        if (effect != null) {
+            applyEmissionScale(emissionScale);
         }
     }
 
+    public float getEmissionScale() {
+        return emissionScale;
+    }
+
+    @Override
+    public int getLiveParticleCount() {
+        if (effect == null) {
+            return 0;
+        }
+
+        int liveParticleCount = 0;
+        Array<ParticleEmitter> emitters = effect.getEmitters();
+        for (int i = 0; i < emitters.size; i++) {
+            liveParticleCount += emitters.get(i).getActiveCount();
+        }
+        return liveParticleCount;
+    }
+
+    /**
+     * Sets the budget this actor reports to, registering it with the given priority (higher
+     * priorities are scaled down later). Null removes the actor from its current budget.
+     */
+    public void setParticleBudget(ParticleBudget particleBudget, int priority) {
+        if (this.particleBudget != null && this.particleBudget != particleBudget) {
+            this.particleBudget.unregister(this);
+            setEmissionScale(1);
+        }
+        this.particleBudget = particleBudget;
+        if (particleBudget != null) {
+            particleBudget.register(this, priority);
+        }
+    }
+
+    public ParticleBudget getParticleBudget() {
+        return particleBudget;
+    }
+
     @Override
     public void act(float delta) {
         super.act(delta);
 
-        if (effect != null) {
+        if (effect == null) {
+            return;
+        }
+
+        // Full rate while on screen
+        if (onScreen && isVisible()) {
+            long startNanos = particleBudget != null ? System.nanoTime() : 0;
             effect.update(delta);
+            if (particleBudget != null) {
+                particleBudget.addParticleNanos(System.nanoTime() - startNanos);
+            }
+            return;
+        }
+
+        // Low rate (or paused) while off screen
+        skippedSeconds += delta;
+        if (offScreenUpdateIntervalSeconds >= 0 &&
+                skippedSeconds >= offScreenUpdateIntervalSeconds) {
+            catchUp();
         }
     }
 
+    /**
+     * Updates the effect with the time skipped while off screen, in a single step.
+     */
+    protected void catchUp() {
+        effect.update(Math.min(skippedSeconds, MAX_CATCH_UP_SECONDS));
+        skippedSeconds = 0;
+        effectBoundsFrameId = -1;
+    }
+
     @Override
     public void draw(Batch batch, float parentAlpha) {
         super.draw(batch, parentAlpha);
 
-        if (effect != null) {
-            effect.setPosition(getX(), getY());
-            if (isVisible() && !effect.isComplete() && isWithinScreenBounds()) {
-                if (preDrawShader != null) {
-                    batch.setShader(preDrawShader);
-                }
-                effect.draw(batch);
-                if (preDrawShader != postDrawShader) {
-                    batch.setShader(postDrawShader);
-                }
+        if (effect == null) {
+            return;
+        }
+
+        effect.setPosition(getX(), getY());
+        onScreen = isWithinViewport(batch);
+        if (!onScreen) {
+            return;
+        }
+
+        if (skippedSeconds > 0) {
+            catchUp();
+        }
+
+        if (!effect.isComplete()) {
+            if (preDrawShader != null) {
+                batch.setShader(preDrawShader);
+            }
+            long startNanos = particleBudget != null ? System.nanoTime() : 0;
+            effect.draw(batch);
+            if (particleBudget != null) {
+                particleBudget.addParticleNanos(System.nanoTime() - startNanos);
+            }
+            if (preDrawShader != postDrawShader) {
+                batch.setShader(postDrawShader);
             }
         }
     }
 
-    protected boolean isWithinScreenBounds() {
-        if (effect == null) {
-            return false;
+    /**
+     * Checks whether the effect intersects the viewport of the batch (which takes into account
+     * the transforms of the parents). The bounds of the effect are calculated once per frame,
+     * and include the position of the emitters, so that effects without live particles are not
+     * considered off screen.
+     */
+    protected boolean isWithinViewport(Batch batch) {
+        long frameId = Gdx.graphics.getFrameId();
+        if (effectBoundsFrameId != frameId) {
+            BoundingBox boundingBox = effect.getBoundingBox();
+            float minX = getX();
+            float minY = getY();
+            float maxX = minX;
+            float maxY = minY;
+            if (boundingBox.min.x <= boundingBox.max.x && boundingBox.min.y <= boundingBox.max.y) {
+                minX = Math.min(minX, boundingBox.min.x);
+                minY = Math.min(minY, boundingBox.min.y);
+                maxX = Math.max(maxX, boundingBox.max.x);
+                maxY = Math.max(maxY, boundingBox.max.y);
+            }
+            effectBounds.set(minX, minY, maxX - minX, maxY - minY);
+            effectBoundsFrameId = frameId;
         }
 
-        BoundingBox boundingBox = effect.getBoundingBox();
-        boundingBox.min.z = 0; // HACK! to make the bounding box valid
-        boundingBox.max.z = 1; // HACK! to make the bounding box valid
-
-        // Set stage's viewport coordinates
-        float screenWidth = getStage().getViewport().getScreenWidth();
-        float screenHeight = getStage().getViewport().getScreenHeight();
-        screenBoundingBox.clr().ext(0, 0, 0)
-                .ext(screenWidth, screenHeight, 1); // HACK! z = 1 to make bounding box valid
+        if (!DrawUtils.getViewportBounds(batch, viewportBounds)) {
+            return true;
+        }
 
-        return boundingBox.intersects(screenBoundingBox);
+        return effectBounds.x <= viewportBounds.x + viewportBounds.width &&
+                effectBounds.x + effectBounds.width >= viewportBounds.x &&
+                effectBounds.y <= viewportBounds.y + viewportBounds.height &&
+                effectBounds.y + effectBounds.height >= viewportBounds.y;
     }
 
     @Override
@@ -150,13 +343,30 @@ public class ParticleEffectActor extends ControllableActor
 
     @Override
     public long getMaxSleepTime() {
-        if (isVisible() && !effect.isComplete() && isWithinScreenBounds()) {
+        // Off-screen effects do not keep rendering continuous
+        if (effect != null && isVisible() && onScreen && !effect.isComplete()) {
             return 0;
         }
 
         return super.getMaxSleepTime();
     }
 
+    public boolean isOnScreen() {
+        return onScreen;
+    }
+
+    public float getOffScreenUpdateIntervalSeconds() {
+        return offScreenUpdateIntervalSeconds;
+    }
+
+    /**
+     * Sets how often the effect is updated while off screen. A negative value pauses the
+     * effect.
+     */
+    public void setOffScreenUpdateIntervalSeconds(float offScreenUpdateIntervalSeconds) {
+        this.offScreenUpdateIntervalSeconds = offScreenUpdateIntervalSeconds;
+    }
+
     public ShaderProgram getPreDrawShader() {
         return preDrawShader;
     }
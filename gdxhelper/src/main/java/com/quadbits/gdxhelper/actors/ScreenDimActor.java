@@ -16,15 +16,13 @@
 package com.quadbits.gdxhelper.actors;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Pixmap;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.Pool;
 import com.quadbits.gdxhelper.utils.Recyclable;
+import com.quadbits.gdxhelper.utils.WhiteTexel;
 
 import javax.inject.Inject;
 
@@ -34,22 +32,19 @@ import javax.inject.Inject;
 public class ScreenDimActor extends BaseActor implements Disposable, Recyclable<ScreenDimActor> {
     protected Pool<ScreenDimActor> screenDimActorPool;
     private float alpha;
-    private Texture dimTexture;
     private Sprite dimSprite;
     protected ShaderProgram postDrawShader;
 
+    @Inject
+    protected WhiteTexel whiteTexel;
+
     @Inject
     public ScreenDimActor() {
         super();
 
-        // Create a 1x1 black pixmap and send it to the graphics card (create texture)
-        Pixmap dimPixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
-        dimPixmap.drawPixel(0, 0, Color.rgba8888(0, 0, 0, 1));
-        dimTexture = new Texture(dimPixmap);
-        dimPixmap.dispose();
-
-        this.dimSprite = new Sprite(dimTexture);
-        setSize(dimSprite.getWidth(), dimSprite.getHeight());
+        // The sprite is drawn using the shared white texel, tinted black (see draw())
+        this.dimSprite = new Sprite();
+        setSize(1, 1);
         alpha = 0;
     }
 
@@ -60,7 +55,7 @@ public class ScreenDimActor extends BaseActor implements Disposable, Recyclable<
 
     @Override
     public void dispose() {
-        dimTexture.dispose();
+        // Nothing to dispose: the white texel is shared, and disposed by the game
     }
 
     @Override
@@ -77,14 +72,16 @@ public class ScreenDimActor extends BaseActor implements Disposable, Recyclable<
     public void draw(Batch batch, float parentAlpha) {
         super.draw(batch, parentAlpha);
 
+        // The white texel may have been moved to a different texture (e.g., a shared page)
+        dimSprite.setRegion(whiteTexel.getRegion());
+
         dimSprite.setPosition(0, 0);
         float width = Gdx.graphics.getWidth();
         float height = Gdx.graphics.getHeight();
         if (dimSprite.getWidth() != width || dimSprite.getHeight() != height) {
             dimSprite.setSize(width, height);
         }
-        dimSprite.setColor(getColor());
-        dimSprite.setAlpha(parentAlpha * alpha);
+        dimSprite.setColor(0, 0, 0, parentAlpha * alpha);
 
         // Use default shader
         batch.setShader(null);
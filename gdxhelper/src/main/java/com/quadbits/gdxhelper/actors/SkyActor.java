@@ -26,21 +26,30 @@ import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.Pool;
+import com.quadbits.gdxhelper.utils.MemoryTrimmable;
 import com.quadbits.gdxhelper.utils.Recyclable;
+import com.quadbits.gdxhelper.utils.TextureMemoryTracker;
+import com.quadbits.gdxhelper.utils.TextureUploadQueue;
 import com.quadbits.gdxhelper.utils.TimeManager;
+import com.quadbits.gdxhelper.utils.WhiteTexel;
 
 import javax.inject.Inject;
 
 /**
  *
  */
-public class SkyActor extends ControllableActor implements Disposable, Recyclable<SkyActor> {
+public class SkyActor extends ControllableActor
+        implements Disposable, Recyclable<SkyActor>, MemoryTrimmable, Cullable, Occluder {
     protected Pool<SkyActor> skyActorPool;
 
     protected Sprite vgradient;
+    protected Sprite placeholder;
+    protected TextureUploadQueue.Request gradientUploadRequest;
+    protected TextureUploadQueue.Listener gradientUploadListener;
 
     protected Array<DayPalette> palettes;
     protected float paletteAlpha;
@@ -70,8 +79,19 @@ public class SkyActor extends ControllableActor implements Disposable, Recyclabl
     @Inject
     protected RandomXS128 random;
 
+    @Inject
+    protected TextureMemoryTracker textureMemoryTracker;
+
+    @Inject
+    protected TextureUploadQueue textureUploadQueue;
+
+    @Inject
+    protected WhiteTexel whiteTexel;
+
     public static final float DEFAULT_FADE_ANIM_DURATION_SECONDS = 1f;
     public static final float DEFAULT_FADE_ANIM_MAX_DELTA_SECONDS = 1.f / 30.f;
+    public static final int MIN_GRADIENT_SIZE = 64;
+    public static final String TEXTURE_MEMORY_OWNER = "SkyActor";
 
     public static final String SHADER_ATTR_NAME_COLOR_TOP = "a_colorTop";
     public static final String SHADER_ATTR_NAME_COLOR_BOTTOM = "a_colorBottom";
@@ -131,11 +151,20 @@ public class SkyActor extends ControllableActor implements Disposable, Recyclabl
         palettes = new Array<DayPalette>();
         palettes.add(new DayPalette());
 
-        shaderProgram = new ShaderProgram(getVertexShader(), getFragmentShader());
-        if (!shaderProgram.isCompiled()) {
-            Gdx.app.error("SkyActor", "[Shader program error] " + shaderProgram.getLog());
-            Gdx.app.exit();
-        }
+        placeholder = new Sprite();
+        gradientUploadRequest = null;
+        gradientUploadListener = new TextureUploadQueue.Listener() {
+            @Override
+            public void textureUploaded(TextureUploadQueue.Request request, Texture texture) {
+                gradientUploadRequest = null;
+                releaseGradient();
+                vgradient = new Sprite(texture);
+                invalidateCullingBounds();
+            }
+        };
+
+        // The shader program is compiled lazily, in the GL thread, on the first draw
+        shaderProgram = null;
 
         init();
     }
@@ -180,22 +209,41 @@ public class SkyActor extends ControllableActor implements Disposable, Recyclabl
     @Override
     public void setSize(float width, float height) {
         super.setSize(width, height);
+        createGradient(width, height);
+    }
 
+    protected void createGradient(float width, float height) {
         Pixmap vgradientPixmap;
 
+        // Halve the resolution of the gradient until it fits in the texture memory budget. The
+        // memory of the texture being replaced is taken into account, as it will be released.
+        int pixmapWidth = (int) width;
+        int pixmapHeight = (int) height;
+        long releasedBytes = 0;
+        if (vgradient != null && vgradient.getTexture() != null) {
+            releasedBytes = textureMemoryTracker.getBytes(vgradient.getTexture());
+        }
+        while (pixmapWidth > MIN_GRADIENT_SIZE && pixmapHeight > MIN_GRADIENT_SIZE &&
+                !textureMemoryTracker.fitsInBudget(TextureMemoryTracker
+                        .estimateBytes(pixmapWidth, pixmapHeight, Pixmap.Format.RGBA8888, false) -
+                        releasedBytes)) {
+            pixmapWidth /= 2;
+            pixmapHeight /= 2;
+        }
+
         // Read any previously existing pixmap from file
         String vgradientPixmapFilenameSize =
-                String.format("vgradient_%d_%d.cim", (int) width, (int) height);
+                String.format("vgradient_%d_%d.cim", pixmapWidth, pixmapHeight);
         FileHandle dataFile = Gdx.files.local(vgradientPixmapFilenameSize);
 
         if (dataFile.exists()) {
             vgradientPixmap = PixmapIO.readCIM(dataFile);
         } else {
-            vgradientPixmap = new Pixmap((int) width, (int) height, Pixmap.Format.RGBA8888);
+            vgradientPixmap = new Pixmap(pixmapWidth, pixmapHeight, Pixmap.Format.RGBA8888);
 
             // Create an array of viewportWidth integers indicating the shift in alpha for a certain
             // horizontal pixel value
-            float[] alphaShifts = new float[(int) width];
+            float[] alphaShifts = new float[pixmapWidth];
             float maxAlphaShift = 3f / 255f;
             for (int i = 0; i < alphaShifts.length; i++) {
                 alphaShifts[i] = maxAlphaShift * (2 * random.nextFloat() - 1);
@@ -223,27 +271,57 @@ public class SkyActor extends ControllableActor implements Disposable, Recyclabl
             PixmapIO.writeCIM(dataFile, vgradientPixmap);
         }
 
-        // Free any previously existing texture
-        if (vgradient != null && vgradient.getTexture() != null) {
-            vgradient.getTexture().dispose();
+        // The reduced gradient is stretched to the actor size
+        Texture.TextureFilter filter = Texture.TextureFilter.Nearest;
+        if (pixmapWidth != (int) width || pixmapHeight != (int) height) {
+            filter = Texture.TextureFilter.Linear;
         }
 
-        vgradient = new Sprite(new Texture(vgradientPixmap));
-        vgradient.setPosition(0, 0);
-        vgradient.setSize(width, height);
+        // Queue the pixmap for upload (the queue disposes it). Any previously existing gradient
+        // is kept until the new one is ready.
+        textureUploadQueue.cancel(gradientUploadRequest);
+        gradientUploadRequest = textureUploadQueue
+                .upload(vgradientPixmap, TEXTURE_MEMORY_OWNER, gradientUploadListener, filter,
+                        filter);
+    }
 
-        // Dispose pixmap
-        vgradientPixmap.dispose();
+    protected boolean isGradientUploadPending() {
+        return gradientUploadRequest != null && gradientUploadRequest.isPending();
     }
 
-    @Override
-    public void dispose() {
+    protected void releaseGradient() {
         if (vgradient != null && vgradient.getTexture() != null) {
+            textureMemoryTracker.untrack(vgradient.getTexture());
             vgradient.getTexture().dispose();
         }
+        vgradient = null;
+        invalidateCullingBounds();
+    }
+
+    /**
+     * Releases the gradient texture when it is not visible under critical memory pressure, or
+     * once the process is in the background list. The gradient is created again the next time
+     * it is drawn (from the pixmap cached in local storage).
+     */
+    @Override
+    public void trimMemory(int level, boolean visible) {
+        if (level >= TRIM_MEMORY_BACKGROUND ||
+                (level >= TRIM_MEMORY_RUNNING_CRITICAL && !visible)) {
+            textureUploadQueue.cancel(gradientUploadRequest);
+            gradientUploadRequest = null;
+            releaseGradient();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        textureUploadQueue.cancel(gradientUploadRequest);
+        gradientUploadRequest = null;
+        releaseGradient();
 
         if (shaderProgram != null) {
             shaderProgram.dispose();
+            shaderProgram = null;
         }
     }
 
@@ -560,26 +638,66 @@ public class SkyActor extends ControllableActor implements Disposable, Recyclabl
         }
         colorTop.lerp(dstColor, timeManager.getTPeriod());
 
-        // For the moment, ignore offset
-        // TODO: add gradient offset to the pixmap generation
-        vgradient.setPosition(getX(), getY());
-        vgradient.setSize(getWidth(), getHeight());
-
         // ------------------------------------------------------------------------
         // Use a custom shader for creating the gradient based on the
         // vgradient sprite
         // ------------------------------------------------------------------------
+        ShaderProgram shaderProgram = getShaderProgram();
         shaderProgram.setAttributef(getShaderAttrNameColorTop(), colorTop.r, colorTop.g, colorTop.b,
                 colorTop.a);
         shaderProgram.setAttributef(getShaderAttrNameColorBottom(), colorBottom.r, colorBottom.g,
                 colorBottom.b, colorBottom.a);
+        if (vgradient == null && !isGradientUploadPending()) {
+            createGradient(getWidth(), getHeight());
+        }
+        if (vgradient == null) {
+            placeholder.setRegion(whiteTexel.getRegion());
+        }
         batch.setShader(shaderProgram);
-        vgradient.draw(batch);
+        getSkySprite().draw(batch);
 
         // Restore default shader
         batch.setShader(null);
     }
 
+    /**
+     * Returns the sprite that draws the sky, laid over the bounds of the actor: the gradient or,
+     * until its texture is uploaded (or after it has been trimmed), the flat placeholder (bottom
+     * color).
+     */
+    protected Sprite getSkySprite() {
+        // For the moment, ignore offset
+        // TODO: add gradient offset to the pixmap generation
+        Sprite sprite = (vgradient != null) ? vgradient : placeholder;
+        sprite.setBounds(getX(), getY(), getWidth(), getHeight());
+        return sprite;
+    }
+
+    protected ShaderProgram getShaderProgram() {
+        if (shaderProgram == null) {
+            shaderProgram = new ShaderProgram(getVertexShader(), getFragmentShader());
+            if (!shaderProgram.isCompiled()) {
+                Gdx.app.error("SkyActor", "[Shader program error] " + shaderProgram.getLog());
+                Gdx.app.exit();
+            }
+        }
+        return shaderProgram;
+    }
+
+    @Override
+    public boolean getCullingBounds(Rectangle bounds) {
+        bounds.set(getX(), getY(), getWidth(), getHeight());
+        return true;
+    }
+
+    /**
+     * The gradient shader writes opaque pixels over the whole actor.
+     */
+    @Override
+    public boolean getOpaqueBounds(Rectangle bounds) {
+        return getCullingBounds(bounds);
+    }
+
     protected String getShaderAttrNameColorTop() {
         return SHADER_ATTR_NAME_COLOR_TOP;
     }
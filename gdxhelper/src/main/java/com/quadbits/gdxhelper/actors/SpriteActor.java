@@ -15,10 +15,14 @@
  */
 package com.quadbits.gdxhelper.actors;
 
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Pool;
+import com.quadbits.gdxhelper.utils.DrawUtils;
 import com.quadbits.gdxhelper.utils.Recyclable;
 import com.quadbits.gdxhelper.utils.SpriteGrid;
 
@@ -28,11 +32,21 @@ import javax.inject.Inject;
  *
  */
 public class SpriteActor extends ControllableActor
-        implements FlippableActor, Recyclable<SpriteActor> {
+        implements FlippableActor, Cullable, Occluder, Recyclable<SpriteActor> {
     protected Pool<SpriteActor> spriteActorPool;
     protected ShaderProgram preDrawShader;
     protected ShaderProgram postDrawShader;
     protected boolean useCustomShader;
+    protected boolean spriteGridPositionDirty;
+    protected boolean spriteGridSizeDirty;
+    protected final Color tintedColor;
+
+    /**
+     * The part of the sprite known to be opaque, relative to the actor's size (see {@link
+     * #setOpaqueRegion(float, float, float, float)})
+     */
+    protected final Rectangle opaqueRegion;
+    protected boolean opaqueRegionSet;
 
     @Inject
     protected SpriteGrid spriteGrid;
@@ -40,6 +54,8 @@ public class SpriteActor extends ControllableActor
     @Inject
     public SpriteActor() {
         super();
+        tintedColor = new Color();
+        opaqueRegion = new Rectangle();
         init();
     }
 
@@ -48,6 +64,9 @@ public class SpriteActor extends ControllableActor
         preDrawShader = null;
         postDrawShader = null;
         useCustomShader = false;
+        spriteGridPositionDirty = true;
+        spriteGridSizeDirty = true;
+        opaqueRegionSet = false;
     }
 
     @Override
@@ -72,6 +91,11 @@ public class SpriteActor extends ControllableActor
         setActorPropertiesFromSpriteGrid();
     }
 
+    public void setTexture(TextureRegion textureRegion) {
+        spriteGrid.setTexture(textureRegion);
+        setActorPropertiesFromSpriteGrid();
+    }
+
     private void setActorPropertiesFromSpriteGrid() {
         setPosition(spriteGrid.getX(), spriteGrid.getY());
         //setScale(spriteGrid.getScaleX(), spriteGrid.getScaleY());
@@ -81,13 +105,37 @@ public class SpriteActor extends ControllableActor
         setColor(spriteGrid.getColor());
     }
 
+    /**
+     * Pushes the actor properties that have changed since the last call to the sprite grid.
+     * Position and size changes are flagged by the actor; origin, rotation and color are
+     * compared by the sprite grid setters. The color includes the tint inherited from the
+     * parent group (see {@link ControllableGroup}).
+     */
     private void setSpriteGridPropertiesFromActor() {
-        spriteGrid.setPosition(getX(), getY());
-        //spriteGrid.setScale(getScaleX(), getScaleY());
-        spriteGrid.setSize(getWidth(), getHeight());
+        if (spriteGridPositionDirty) {
+            spriteGrid.setPosition(getX(), getY());
+            spriteGridPositionDirty = false;
+        }
+        if (spriteGridSizeDirty) {
+            //spriteGrid.setScale(getScaleX(), getScaleY());
+            spriteGrid.setSize(getWidth(), getHeight());
+            spriteGridSizeDirty = false;
+        }
         spriteGrid.setOrigin(getOriginX(), getOriginY());
         spriteGrid.setRotation(getRotation());
-        spriteGrid.setColor(getColor());
+        spriteGrid.setColor(ControllableGroup.applyInheritedTint(this, getColor(), tintedColor));
+    }
+
+    @Override
+    protected void positionChanged() {
+        super.positionChanged();
+        spriteGridPositionDirty = true;
+    }
+
+    @Override
+    protected void sizeChanged() {
+        super.sizeChanged();
+        spriteGridSizeDirty = true;
     }
 
     public void setTextureFilter(Texture.TextureFilter minFilter, Texture.TextureFilter maxFilter) {
@@ -106,12 +154,54 @@ public class SpriteActor extends ControllableActor
         }
     }
 
+    @Override
+    public boolean getCullingBounds(Rectangle bounds) {
+        if (isTileableX() || isTileableY()) {
+            return false;
+        }
+
+        bounds.set(0, 0, getWidth(), getHeight());
+        DrawUtils.transformBounds(bounds, getX(), getY(), getOriginX(), getOriginY(), 1, 1,
+                getRotation(), bounds);
+        return true;
+    }
+
+    /**
+     * Declares the part of the sprite whose pixels are all opaque (e.g., the solid body of a
+     * landscape layer), so that the actors it covers can be skipped by the occlusion pass of the
+     * stage. Values are relative to the actor's size, for the unflipped sprite.
+     */
+    public void setOpaqueRegion(float x, float y, float width, float height) {
+        opaqueRegion.set(x, y, width, height);
+        opaqueRegionSet = true;
+    }
+
+    public void clearOpaqueRegion() {
+        opaqueRegionSet = false;
+    }
+
+    @Override
+    public boolean getOpaqueBounds(Rectangle bounds) {
+        if (!opaqueRegionSet || getRotation() != 0 || isTileableX() || isTileableY()) {
+            return false;
+        }
+
+        float width = getWidth();
+        float height = getHeight();
+        float regionX = isFlipX() ? 1 - opaqueRegion.x - opaqueRegion.width : opaqueRegion.x;
+        float regionY = isFlipY() ? 1 - opaqueRegion.y - opaqueRegion.height : opaqueRegion.y;
+        bounds.set(getX() + regionX * width, getY() + regionY * height,
+                opaqueRegion.width * width, opaqueRegion.height * height);
+        return true;
+    }
+
     public boolean isTileableX() {
         return spriteGrid.isTileableX();
     }
 
     public void setTileableX(boolean isTileableX) {
         spriteGrid.setTileableX(isTileableX);
+        invalidateCullingBounds();
     }
 
     public boolean isTileableY() {
@@ -120,6 +210,7 @@ public class SpriteActor extends ControllableActor
 
     public void setTileableY(boolean isTileableY) {
         spriteGrid.setTileableY(isTileableY);
+        invalidateCullingBounds();
     }
 
     @Override
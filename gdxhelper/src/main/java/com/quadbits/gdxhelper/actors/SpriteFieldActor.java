@@ -0,0 +1,587 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.actors;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.NumberUtils;
+import com.badlogic.gdx.utils.Pool;
+import com.quadbits.gdxhelper.utils.DrawUtils;
+import com.quadbits.gdxhelper.utils.Recyclable;
+import com.quadbits.gdxhelper.utils.TextureAtlasProxy;
+
+import javax.inject.Inject;
+
+/**
+ * An actor drawing a field of many lightweight elements (e.g., stars, snow flakes, fireflies),
+ * each one showing one of a set of texture regions. Elements are not actors: their properties
+ * are stored in parallel primitive arrays, updated in tight loops and drawn by writing their
+ * vertices straight into a buffer that is submitted to the batch once per texture.
+ * <p/>
+ * Elements can drift at a constant velocity (wrapping around the actor's area, if enabled) and
+ * twinkle (their alpha oscillates at their own speed and phase). Positions are relative to the
+ * actor, and are rescaled along with it when its size changes.
+ * <p/>
+ * While no element is on screen (or the actor is not drawn), a drifting or twinkling field only
+ * asks for rendering every {@link #getOffScreenUpdateIntervalSeconds()}, so that its elements
+ * can drift back into the viewport.
+ */
+public class SpriteFieldActor extends ControllableActor
+        implements Cullable, Recyclable<SpriteFieldActor> {
+    protected Pool<SpriteFieldActor> spriteFieldActorPool;
+    protected Array<TextureRegion> regions;
+    protected float sizeScale;
+    protected float elementsWidth; // size the positions of the elements are relative to
+    protected float elementsHeight;
+
+    // Elements, as parallel arrays
+    protected int elementCount;
+    protected float[] elementX;
+    protected float[] elementY;
+    protected float[] elementVelocityX;
+    protected float[] elementVelocityY;
+    protected float[] elementScale;
+    protected float[] elementRotation;
+    protected float[] elementAlpha;
+    protected float[] elementTwinklePhase;
+    protected float[] elementTwinkleSpeed;
+    protected int[] elementColor; // rgba8888
+    protected int[] elementRegion;
+
+    // Element generation ranges
+    protected float minScale, maxScale;
+    protected float minRotation, maxRotation;
+    protected float minAlpha, maxAlpha;
+    protected float minVelocityX, maxVelocityX;
+    protected float minVelocityY, maxVelocityY;
+    protected float minTwinkleSpeed, maxTwinkleSpeed;
+    protected Array<Color> colors;
+
+    // Behaviors
+    protected float twinkleAmplitude; // [0, 1]
+    protected boolean wrapX;
+    protected boolean wrapY;
+    protected boolean drifting;
+    protected boolean twinkling;
+    protected int visibleElementCount;
+    protected float offScreenUpdateIntervalSeconds;
+
+    // Vertex buffer
+    protected float[] vertices;
+    protected int verticesOffset;
+    protected Texture verticesTexture;
+    protected final Rectangle viewportBounds;
+    protected final Color tintedColor;
+
+    @Inject
+    protected TextureAtlasProxy textureAtlasProxy;
+
+    public static final int VERTICES_BUFFER_ELEMENTS = 256;
+    public static final float DEFAULT_OFF_SCREEN_UPDATE_INTERVAL_SECONDS = 0.5f;
+    public static final int VERTEX_SIZE = 5;
+    public static final int ELEMENT_SIZE = 4 * VERTEX_SIZE;
+
+    @Inject
+    public SpriteFieldActor() {
+        super();
+        regions = new Array<TextureRegion>();
+        colors = new Array<Color>();
+        vertices = new float[VERTICES_BUFFER_ELEMENTS * ELEMENT_SIZE];
+        viewportBounds = new Rectangle();
+        tintedColor = new Color();
+        setElementCapacity(0);
+        init();
+    }
+
+    private void init() {
+        regions.clear();
+        colors.clear();
+        sizeScale = 1;
+        elementsWidth = elementsHeight = 0;
+        elementCount = 0;
+        minScale = maxScale = 1;
+        minRotation = maxRotation = 0;
+        minAlpha = maxAlpha = 1;
+        minVelocityX = maxVelocityX = 0;
+        minVelocityY = maxVelocityY = 0;
+        minTwinkleSpeed = maxTwinkleSpeed = 0;
+        twinkleAmplitude = 0;
+        wrapX = wrapY = true;
+        drifting = false;
+        twinkling = false;
+        visibleElementCount = 0;
+        offScreenUpdateIntervalSeconds = DEFAULT_OFF_SCREEN_UPDATE_INTERVAL_SECONDS;
+        verticesOffset = 0;
+        verticesTexture = null;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        init();
+    }
+
+    @Override
+    public void free() {
+        spriteFieldActorPool.free(this);
+    }
+
+    @Override
+    public void setPool(Pool<SpriteFieldActor> spriteFieldActorPool) {
+        this.spriteFieldActorPool = spriteFieldActorPool;
+    }
+
+    public void addRegion(String regionName) {
+        TextureRegion region = textureAtlasProxy.findRegion(regionName);
+        if (region == null) {
+            throw new IllegalArgumentException("Region not found: " + regionName);
+        }
+        addRegion(region);
+    }
+
+    public void addRegion(TextureRegion region) {
+        regions.add(region);
+        invalidateCullingBounds();
+    }
+
+    public void addColor(Color color) {
+        colors.add(new Color(color));
+    }
+
+    /**
+     * Replaces the elements of the field by count new elements, randomly placed inside the
+     * actor's area, with properties chosen randomly within the configured ranges.
+     */
+    public void populate(int count) {
+        if (regions.size == 0) {
+            throw new IllegalStateException("No regions added to the sprite field");
+        }
+
+        if (elementX.length < count) {
+            setElementCapacity(count);
+        }
+        elementCount = count;
+
+        float width = getWidth();
+        float height = getHeight();
+        for (int i = 0; i < count; i++) {
+            elementX[i] = MathUtils.random(width);
+            elementY[i] = MathUtils.random(height);
+            elementVelocityX[i] = MathUtils.random(minVelocityX, maxVelocityX);
+            elementVelocityY[i] = MathUtils.random(minVelocityY, maxVelocityY);
+            elementScale[i] = MathUtils.random(minScale, maxScale);
+            elementRotation[i] = MathUtils.random(minRotation, maxRotation);
+            elementAlpha[i] = MathUtils.random(minAlpha, maxAlpha);
+            elementTwinklePhase[i] = MathUtils.random(MathUtils.PI2);
+            elementTwinkleSpeed[i] =
+                    MathUtils.random(minTwinkleSpeed, maxTwinkleSpeed) * MathUtils.PI2;
+            elementColor[i] = colors.size == 0 ? 0xffffffff :
+                    Color.rgba8888(colors.get(MathUtils.random(colors.size - 1)));
+            elementRegion[i] = MathUtils.random(regions.size - 1);
+        }
+
+        elementsWidth = width;
+        elementsHeight = height;
+        updateBehaviors();
+    }
+
+    protected void updateBehaviors() {
+        drifting = minVelocityX != 0 || maxVelocityX != 0 || minVelocityY != 0 ||
+                maxVelocityY != 0;
+        twinkling = twinkleAmplitude > 0 && (minTwinkleSpeed != 0 || maxTwinkleSpeed != 0);
+    }
+
+    protected void setElementCapacity(int capacity) {
+        elementX = new float[capacity];
+        elementY = new float[capacity];
+        elementVelocityX = new float[capacity];
+        elementVelocityY = new float[capacity];
+        elementScale = new float[capacity];
+        elementRotation = new float[capacity];
+        elementAlpha = new float[capacity];
+        elementTwinklePhase = new float[capacity];
+        elementTwinkleSpeed = new float[capacity];
+        elementColor = new int[capacity];
+        elementRegion = new int[capacity];
+    }
+
+    /**
+     * Rescales the positions of the elements to the new size.
+     */
+    @Override
+    protected void sizeChanged() {
+        super.sizeChanged();
+
+        float width = getWidth();
+        float height = getHeight();
+        if (elementsWidth > 0 && elementsHeight > 0) {
+            float scaleX = width / elementsWidth;
+            float scaleY = height / elementsHeight;
+            for (int i = 0; i < elementCount; i++) {
+                elementX[i] *= scaleX;
+            }
+            for (int i = 0; i < elementCount; i++) {
+                elementY[i] *= scaleY;
+            }
+        }
+        elementsWidth = width;
+        elementsHeight = height;
+    }
+
+    @Override
+    public void act(float deltaSeconds) {
+        super.act(deltaSeconds);
+
+        // Counted again when drawn (actors culled by their group are not)
+        visibleElementCount = 0;
+
+        int n = elementCount;
+
+        // Drift (velocities are relative to the actor's size)
+        if (drifting) {
+            float width = getWidth();
+            float height = getHeight();
+            float[] x = elementX;
+            float[] y = elementY;
+            float[] velocityX = elementVelocityX;
+            float[] velocityY = elementVelocityY;
+            float deltaX = width * deltaSeconds;
+            float deltaY = height * deltaSeconds;
+            for (int i = 0; i < n; i++) {
+                x[i] += velocityX[i] * deltaX;
+            }
+            for (int i = 0; i < n; i++) {
+                y[i] += velocityY[i] * deltaY;
+            }
+            if (wrapX) {
+                wrap(x, n, width);
+            }
+            if (wrapY) {
+                wrap(y, n, height);
+            }
+        }
+
+        // Twinkle
+        if (twinkling) {
+            float[] phase = elementTwinklePhase;
+            float[] speed = elementTwinkleSpeed;
+            for (int i = 0; i < n; i++) {
+                phase[i] += speed[i] * deltaSeconds;
+            }
+            for (int i = 0; i < n; i++) {
+                if (phase[i] >= MathUtils.PI2) {
+                    phase[i] -= MathUtils.PI2;
+                }
+            }
+        }
+    }
+
+    /**
+     * Wraps positions around the range [0, size).
+     */
+    protected static void wrap(float[] positions, int n, float size) {
+        if (size <= 0) {
+            return;
+        }
+
+        for (int i = 0; i < n; i++) {
+            float position = positions[i];
+            if (position < 0 || position >= size) {
+                position %= size;
+                positions[i] = position < 0 ? position + size : position;
+            }
+        }
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        if (elementCount == 0) {
+            visibleElementCount = 0;
+            return;
+        }
+
+        boolean viewportValid = DrawUtils.getViewportBounds(batch, viewportBounds);
+        drawElements(batch, parentAlpha, viewportValid ? viewportBounds : null);
+    }
+
+    /**
+     * Writes the vertices of the elements intersecting the viewport and submits them to the
+     * batch.
+     *
+     * @param viewport
+     *         the viewport in the batch's coordinates, or null to draw all the elements
+     */
+    protected void drawElements(Batch batch, float parentAlpha, Rectangle viewport) {
+        boolean viewportValid = viewport != null;
+        float viewportMinX = viewportValid ? viewport.x : 0;
+        float viewportMinY = viewportValid ? viewport.y : 0;
+        float viewportMaxX = viewportValid ? viewport.x + viewport.width : 0;
+        float viewportMaxY = viewportValid ? viewport.y + viewport.height : 0;
+
+        Color color = ControllableGroup.applyInheritedTint(this, getColor(), tintedColor);
+        float colorR = color.r;
+        float colorG = color.g;
+        float colorB = color.b;
+        float colorA = color.a * parentAlpha;
+        float actorX = getX();
+        float actorY = getY();
+
+        int visible = 0;
+        for (int i = 0; i < elementCount; i++) {
+            TextureRegion region = regions.get(elementRegion[i]);
+            float scale = elementScale[i] * sizeScale;
+            float width = region.getRegionWidth() * scale;
+            float height = region.getRegionHeight() * scale;
+            float halfWidth = width / 2;
+            float halfHeight = height / 2;
+            float centerX = actorX + elementX[i];
+            float centerY = actorY + elementY[i];
+
+            // Cull using the circle circumscribing the element, so rotations are covered
+            float radius = halfWidth + halfHeight;
+            if (viewportValid && (centerX + radius < viewportMinX ||
+                    centerX - radius > viewportMaxX || centerY + radius < viewportMinY ||
+                    centerY - radius > viewportMaxY)) {
+                continue;
+            }
+            visible++;
+
+            // Color
+            float alpha = elementAlpha[i];
+            if (twinkling) {
+                alpha *= 1 - twinkleAmplitude * (0.5f + 0.5f * MathUtils.sin(
+                        elementTwinklePhase[i]));
+            }
+            int rgba = elementColor[i];
+            int r = (int) (((rgba >>> 24) & 0xff) * colorR);
+            int g = (int) (((rgba >>> 16) & 0xff) * colorG);
+            int b = (int) (((rgba >>> 8) & 0xff) * colorB);
+            int a = (int) ((rgba & 0xff) * alpha * colorA);
+            float colorBits = NumberUtils.intToFloatColor((a << 24) | (b << 16) | (g << 8) | r);
+
+            // Flush when the texture changes or the buffer is full
+            Texture texture = region.getTexture();
+            if (texture != verticesTexture || verticesOffset == vertices.length) {
+                flushVertices(batch);
+                verticesTexture = texture;
+            }
+
+            // Corners (bottom-left, top-left, top-right, bottom-right), rotated if needed
+            float rotation = elementRotation[i];
+            float x1, y1, x2, y2, x3, y3, x4, y4;
+            if (rotation == 0) {
+                x1 = x2 = centerX - halfWidth;
+                x3 = x4 = centerX + halfWidth;
+                y1 = y4 = centerY - halfHeight;
+                y2 = y3 = centerY + halfHeight;
+            } else {
+                float cos = MathUtils.cosDeg(rotation);
+                float sin = MathUtils.sinDeg(rotation);
+                float cosX = cos * halfWidth;
+                float sinX = sin * halfWidth;
+                float cosY = cos * halfHeight;
+                float sinY = sin * halfHeight;
+                x1 = centerX - cosX + sinY;
+                y1 = centerY - sinX - cosY;
+                x2 = centerX - cosX - sinY;
+                y2 = centerY - sinX + cosY;
+                x3 = centerX + cosX - sinY;
+                y3 = centerY + sinX + cosY;
+                x4 = centerX + cosX + sinY;
+                y4 = centerY + sinX - cosY;
+            }
+
+            float u = region.getU();
+            float u2 = region.getU2();
+            float vBottom = region.getV2();
+            float vTop = region.getV();
+            float[] vertices = this.vertices;
+            int offset = verticesOffset;
+            vertices[offset] = x1;
+            vertices[offset + 1] = y1;
+            vertices[offset + 2] = colorBits;
+            vertices[offset + 3] = u;
+            vertices[offset + 4] = vBottom;
+            vertices[offset + 5] = x2;
+            vertices[offset + 6] = y2;
+            vertices[offset + 7] = colorBits;
+            vertices[offset + 8] = u;
+            vertices[offset + 9] = vTop;
+            vertices[offset + 10] = x3;
+            vertices[offset + 11] = y3;
+            vertices[offset + 12] = colorBits;
+            vertices[offset + 13] = u2;
+            vertices[offset + 14] = vTop;
+            vertices[offset + 15] = x4;
+            vertices[offset + 16] = y4;
+            vertices[offset + 17] = colorBits;
+            vertices[offset + 18] = u2;
+            vertices[offset + 19] = vBottom;
+            verticesOffset = offset + ELEMENT_SIZE;
+        }
+        flushVertices(batch);
+        visibleElementCount = visible;
+    }
+
+    protected void flushVertices(Batch batch) {
+        if (verticesOffset > 0) {
+            batch.draw(verticesTexture, vertices, 0, verticesOffset);
+        }
+        verticesOffset = 0;
+        verticesTexture = null;
+    }
+
+    /**
+     * Elements may overflow the actor's area by up to the size of the largest region.
+     */
+    @Override
+    public boolean getCullingBounds(Rectangle bounds) {
+        float maxRegionSize = 0;
+        for (TextureRegion region : regions) {
+            maxRegionSize = Math.max(maxRegionSize,
+                    region.getRegionWidth() + region.getRegionHeight());
+        }
+        float margin = maxRegionSize * Math.max(Math.abs(minScale), Math.abs(maxScale)) *
+                sizeScale;
+        bounds.set(getX() - margin, getY() - margin, getWidth() + 2 * margin,
+                getHeight() + 2 * margin);
+        return true;
+    }
+
+    @Override
+    public void scaleBy(float scale) {
+        sizeScale *= scale;
+        invalidateCullingBounds();
+    }
+
+    @Override
+    public long getMaxSleepTime() {
+        long maxSleepTime = super.getMaxSleepTime();
+        if (elementCount == 0 || (!drifting && !twinkling)) {
+            return maxSleepTime;
+        }
+
+        // Off-screen fields only wake up the screen from time to time
+        if (visibleElementCount > 0) {
+            return 0;
+        }
+        if (offScreenUpdateIntervalSeconds >= 0) {
+            return Math.min(maxSleepTime, (long) (offScreenUpdateIntervalSeconds * 1000));
+        }
+        return maxSleepTime;
+    }
+
+    /**
+     * @return the number of elements drawn in the last frame (0 if the actor was not drawn)
+     */
+    public int getVisibleElementCount() {
+        return visibleElementCount;
+    }
+
+    public float getOffScreenUpdateIntervalSeconds() {
+        return offScreenUpdateIntervalSeconds;
+    }
+
+    /**
+     * Sets how often the screen is rendered for this field while none of its elements is on
+     * screen. A negative value does not ask for rendering at all (the elements are still moved
+     * when the screen is rendered for other reasons).
+     */
+    public void setOffScreenUpdateIntervalSeconds(float offScreenUpdateIntervalSeconds) {
+        this.offScreenUpdateIntervalSeconds = offScreenUpdateIntervalSeconds;
+    }
+
+    public int getElementCount() {
+        return elementCount;
+    }
+
+    public float getElementX(int index) {
+        return elementX[index];
+    }
+
+    public float getElementY(int index) {
+        return elementY[index];
+    }
+
+    public void setScaleRange(float minScale, float maxScale) {
+        this.minScale = minScale;
+        this.maxScale = maxScale;
+        invalidateCullingBounds();
+    }
+
+    public void setRotationRange(float minRotation, float maxRotation) {
+        this.minRotation = minRotation;
+        this.maxRotation = maxRotation;
+    }
+
+    public void setAlphaRange(float minAlpha, float maxAlpha) {
+        this.minAlpha = minAlpha;
+        this.maxAlpha = maxAlpha;
+    }
+
+    /**
+     * Sets the range of the drift velocities of the elements, in actor widths (x) and heights
+     * (y) per second.
+     */
+    public void setVelocityRange(float minVelocityX, float maxVelocityX, float minVelocityY,
+                                 float maxVelocityY) {
+        this.minVelocityX = minVelocityX;
+        this.maxVelocityX = maxVelocityX;
+        this.minVelocityY = minVelocityY;
+        this.maxVelocityY = maxVelocityY;
+    }
+
+    /**
+     * Sets the range of the twinkle speeds of the elements, in cycles per second.
+     */
+    public void setTwinkleSpeedRange(float minTwinkleSpeed, float maxTwinkleSpeed) {
+        this.minTwinkleSpeed = minTwinkleSpeed;
+        this.maxTwinkleSpeed = maxTwinkleSpeed;
+    }
+
+    public float getTwinkleAmplitude() {
+        return twinkleAmplitude;
+    }
+
+    /**
+     * Sets how much the alpha of the elements drops when they twinkle, in [0, 1].
+     */
+    public void setTwinkleAmplitude(float twinkleAmplitude) {
+        this.twinkleAmplitude = twinkleAmplitude;
+        updateBehaviors();
+    }
+
+    public boolean isWrapX() {
+        return wrapX;
+    }
+
+    public void setWrapX(boolean wrapX) {
+        this.wrapX = wrapX;
+    }
+
+    public boolean isWrapY() {
+        return wrapY;
+    }
+
+    public void setWrapY(boolean wrapY) {
+        this.wrapY = wrapY;
+    }
+}
@@ -216,6 +216,34 @@ public class LinearTrajectoryController extends BaseController
         actor.setPosition(tmpVector.x, tmpVector.y);
     }
 
+    /**
+     * Makes the actor enter the scene right away, choosing a new trajectory, instead of waiting
+     * for the out-of-scene time to elapse.
+     *
+     * @param actor
+     */
+    public void startFlight(Actor actor) {
+        enterScene(actor);
+    }
+
+    /**
+     * Copies the trajectory parameters (speed, source and target segments, reference direction
+     * and the rotation/reversal flags) from another controller. The state of the current flight
+     * and the out-of-scene times are not copied.
+     *
+     * @param other
+     */
+    public void copyTrajectoryFrom(LinearTrajectoryController other) {
+        avgSpeedMillis = other.avgSpeedMillis;
+        stdSpeedMillis = other.stdSpeedMillis;
+        setSource(other.sourceX1, other.sourceX2, other.sourceY1, other.sourceY2);
+        setTarget(other.targetX1, other.targetX2, other.targetY1, other.targetY2);
+        referenceDirection.set(other.referenceDirection);
+        referenceMaxDeviationAngleDegrees = other.referenceMaxDeviationAngleDegrees;
+        adjustActorRotation = other.adjustActorRotation;
+        reversable = other.reversable;
+    }
+
     protected void enterScene(Actor actor) {
         outOfScene = false;
         currentOutOfSceneTimeMillis = 0;
@@ -353,6 +381,10 @@ public class LinearTrajectoryController extends BaseController
         actor.setVisible(false);
     }
 
+    public boolean isOutOfScene() {
+        return outOfScene;
+    }
+
     public float getAvgSpeedMillis() {
         return avgSpeedMillis;
     }
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.controllers;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Group;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+import com.quadbits.gdxhelper.utils.Recyclable;
+
+import javax.inject.Inject;
+
+/**
+ * A controller, attached to a group, that multiplexes linear trajectories over a small pool of
+ * actors. Instead of keeping one {@link LinearTrajectoryController} (and one actor on the
+ * stage) per potential flier, new flights are started from a single random process shared by
+ * all of them; an actor is taken from the pool and added to the group only while a flight is
+ * in progress, and at most {@link #maxConcurrentFlights} flights run at the same time.
+ * <p/>
+ * The trajectory parameters of each flight are copied from a template controller (see {@link
+ * #setTrajectory(LinearTrajectoryController)}), which is never attached to any actor. While no
+ * flight is in progress, the time left until the next spawn is reported as the max. sleep
+ * time.
+ */
+public class LinearTrajectorySpawnerController extends BaseController
+        implements NonContinuousRenderingController,
+        Recyclable<LinearTrajectorySpawnerController> {
+    protected Pool<LinearTrajectorySpawnerController> linearTrajectorySpawnerControllerPool;
+
+    /**
+     * The controller the parameters of every flight are copied from
+     */
+    LinearTrajectoryController trajectory;
+
+    /**
+     * Actors waiting for a flight
+     */
+    Array<Actor> idleActors;
+
+    /**
+     * Actors currently flying, in the same order as {@link #flights}
+     */
+    Array<Actor> flyingActors;
+
+    /**
+     * The trajectory controllers of the flights in progress
+     */
+    Array<LinearTrajectoryController> flights;
+
+    /**
+     * The max. number of flights in progress at the same time
+     */
+    int maxConcurrentFlights;
+
+    /**
+     * The average time between two consecutive spawns, in milliseconds
+     */
+    long avgSpawnIntervalMillis;
+
+    /**
+     * The standard deviation of the time between two consecutive spawns, in units relative to
+     * milliseconds
+     */
+    float stdSpawnIntervalMillis;
+
+    /**
+     * The time left until the next spawn (for internal use only)
+     */
+    float timeToNextSpawnMillis;
+
+    @Inject
+    protected Pool<LinearTrajectoryController> linearTrajectoryControllerPool;
+
+    @Inject
+    RandomXS128 random;
+
+    @Inject
+    public LinearTrajectorySpawnerController() {
+        super();
+        idleActors = new Array<Actor>();
+        flyingActors = new Array<Actor>();
+        flights = new Array<LinearTrajectoryController>();
+        init();
+    }
+
+    private void init() {
+        trajectory = null;
+        maxConcurrentFlights = 1;
+        avgSpawnIntervalMillis = 0;
+        stdSpawnIntervalMillis = 0;
+        timeToNextSpawnMillis = -1;
+    }
+
+    @Override
+    public void reset() {
+        endAllFlights();
+        idleActors.clear();
+        init();
+    }
+
+    @Override
+    public void free() {
+        linearTrajectorySpawnerControllerPool.free(this);
+    }
+
+    @Override
+    public void setPool(
+            Pool<LinearTrajectorySpawnerController> linearTrajectorySpawnerControllerPool) {
+        this.linearTrajectorySpawnerControllerPool = linearTrajectorySpawnerControllerPool;
+    }
+
+    @Override
+    public void control(Actor actor, float deltaSeconds) {
+        if (!(actor instanceof Group)) {
+            throw new IllegalArgumentException(
+                    "LinearTrajectorySpawnerController can only control groups");
+        }
+        Group group = (Group) actor;
+        float deltaMillis = deltaSeconds * 1000;
+
+        // Advance flights in progress, returning landed actors to the pool
+        for (int i = flights.size - 1; i >= 0; i--) {
+            LinearTrajectoryController flight = flights.get(i);
+            Actor flyingActor = flyingActors.get(i);
+            flight.control(flyingActor, deltaSeconds);
+            if (flight.isOutOfScene()) {
+                endFlight(i);
+            }
+        }
+
+        if (trajectory == null) {
+            return;
+        }
+
+        // First spawn after a reset
+        if (timeToNextSpawnMillis < 0) {
+            timeToNextSpawnMillis = nextSpawnIntervalMillis();
+        }
+
+        // Spawn all the flights due in this frame; spawns that find no free actor are dropped,
+        // so the rate of the process is kept instead of bursting when actors become free
+        timeToNextSpawnMillis -= deltaMillis;
+        while (timeToNextSpawnMillis <= 0) {
+            if (flights.size < maxConcurrentFlights && idleActors.size > 0) {
+                startFlight(group);
+            }
+            timeToNextSpawnMillis += nextSpawnIntervalMillis();
+        }
+    }
+
+    protected void startFlight(Group group) {
+        Actor flyingActor = idleActors.pop();
+        LinearTrajectoryController flight = linearTrajectoryControllerPool.obtain();
+        flight.copyTrajectoryFrom(trajectory);
+
+        group.addActor(flyingActor);
+        flight.startFlight(flyingActor);
+
+        flyingActors.add(flyingActor);
+        flights.add(flight);
+    }
+
+    protected void endFlight(int index) {
+        Actor flyingActor = flyingActors.removeIndex(index);
+        flyingActor.remove();
+        idleActors.add(flyingActor);
+
+        flights.removeIndex(index).free();
+    }
+
+    /**
+     * Ends the flights in progress, returning their actors to the pool of idle actors.
+     */
+    public void endAllFlights() {
+        for (int i = flights.size - 1; i >= 0; i--) {
+            endFlight(i);
+        }
+    }
+
+    protected float nextSpawnIntervalMillis() {
+        float interval =
+                avgSpawnIntervalMillis + (float) random.nextGaussian() * stdSpawnIntervalMillis;
+
+        // Avoid spinning in control() with non-positive intervals
+        return Math.max(interval, 1);
+    }
+
+    /**
+     * Adds an actor to the pool of actors used for the flights. The actor should not belong to
+     * any group; it is added to the controlled group only while it is flying.
+     *
+     * @param actor
+     */
+    public void addActor(Actor actor) {
+        actor.setVisible(false);
+        idleActors.add(actor);
+    }
+
+    /**
+     * Ends all the flights and empties the pool of actors.
+     */
+    public void clearActors() {
+        endAllFlights();
+        idleActors.clear();
+    }
+
+    public int getActorCount() {
+        return idleActors.size + flyingActors.size;
+    }
+
+    public int getFlightsInProgress() {
+        return flights.size;
+    }
+
+    public LinearTrajectoryController getTrajectory() {
+        return trajectory;
+    }
+
+    public void setTrajectory(LinearTrajectoryController trajectory) {
+        this.trajectory = trajectory;
+    }
+
+    public int getMaxConcurrentFlights() {
+        return maxConcurrentFlights;
+    }
+
+    public void setMaxConcurrentFlights(int maxConcurrentFlights) {
+        this.maxConcurrentFlights = maxConcurrentFlights;
+    }
+
+    public long getAvgSpawnIntervalMillis() {
+        return avgSpawnIntervalMillis;
+    }
+
+    public void setAvgSpawnIntervalMillis(long avgSpawnIntervalMillis) {
+        this.avgSpawnIntervalMillis = avgSpawnIntervalMillis;
+    }
+
+    public float getStdSpawnIntervalMillis() {
+        return stdSpawnIntervalMillis;
+    }
+
+    public void setStdSpawnIntervalMillis(float stdSpawnIntervalMillis) {
+        this.stdSpawnIntervalMillis = stdSpawnIntervalMillis;
+    }
+
+    @Override
+    public long getMaxSleepTime(Actor actor) {
+        if (flights.size > 0) {
+            return 0;
+        }
+
+        if (trajectory == null || idleActors.size == 0) {
+            return Long.MAX_VALUE;
+        }
+
+        if (timeToNextSpawnMillis < 0) {
+            return 0;
+        }
+
+        return (long) timeToNextSpawnMillis;
+    }
+}
@@ -19,13 +19,16 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Pool;
+import com.quadbits.gdxhelper.actors.ControllableGroup;
 import com.quadbits.gdxhelper.utils.Recyclable;
 import com.quadbits.gdxhelper.utils.TimeManager;
 
 import javax.inject.Inject;
 
 /**
- *
+ * Tints an actor with a palette color, blended according to a time period membership function.
+ * When attached to a {@link ControllableGroup}, the tint of the group is set instead, and
+ * applies to the whole subtree.
  */
 public class TimePeriodTintController extends BaseController
         implements NonContinuousRenderingController, Recyclable<TimePeriodTintController> {
@@ -133,6 +136,15 @@ public class TimePeriodTintController extends BaseController
             tmpColor.lerp(colors.get(secondaryColorIndex), colorCrossBlend);
         }
 
+        // Groups: one tint for all the children
+        if (actor instanceof ControllableGroup) {
+            Color tint = ((ControllableGroup) actor).getTint();
+            tint.set(Color.WHITE);
+            tint.lerp(tmpColor, blend);
+            tint.a = 1;
+            return;
+        }
+
         Color actorColor = actor.getColor();
         actorColor.set(1, 1, 1, actorColor.a);
         actorColor.lerp(tmpColor, blend);
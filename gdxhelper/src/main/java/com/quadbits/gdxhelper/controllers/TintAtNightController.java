@@ -18,13 +18,15 @@ package com.quadbits.gdxhelper.controllers;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.utils.Pool;
+import com.quadbits.gdxhelper.actors.ControllableGroup;
 import com.quadbits.gdxhelper.utils.Recyclable;
 import com.quadbits.gdxhelper.utils.TimeManager;
 
 import javax.inject.Inject;
 
 /**
- *
+ * Tints an actor with the night color. When attached to a {@link ControllableGroup}, the tint
+ * of the group is set instead, and applies to the whole subtree.
  */
 public class TintAtNightController extends BaseController
         implements Recyclable<TintAtNightController> {
@@ -76,6 +78,15 @@ public class TintAtNightController extends BaseController
                 blend = 0;
         }
 
+        // Groups: one tint for all the children
+        if (actor instanceof ControllableGroup) {
+            Color tint = ((ControllableGroup) actor).getTint();
+            tint.set(Color.WHITE);
+            tint.lerp(nightColor, blend);
+            tint.a = 1;
+            return;
+        }
+
         Color actorColor = actor.getColor();
         actorColor.set(1, 1, 1, actorColor.a);
         actorColor.lerp(nightColor, blend);
@@ -20,6 +20,7 @@ package com.quadbits.gdxhelper.scenemodel;
  */
 public class AnimatedSpriteActorModel extends ActorModel {
     public Boolean showEachFrameAtLeastOnce;
+    public Boolean shareAnimationClip; // opt-in, see AnimatedSpriteActor#setClip
     public String state;
     public StateModel[] states;
 
@@ -44,6 +45,9 @@ public class AnimatedSpriteActorModel extends ActorModel {
         if (showEachFrameAtLeastOnce == null) {
             showEachFrameAtLeastOnce = true;
         }
+        if (shareAnimationClip == null) {
+            shareAnimationClip = false;
+        }
         if (xRelativeTo == null) {
             xRelativeTo = SCREEN_ID;
         }
@@ -16,7 +16,6 @@
 package com.quadbits.gdxhelper.scenemodel;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.g2d.ParticleEffectPool;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Group;
 import com.badlogic.gdx.utils.Disposable;
@@ -28,7 +27,9 @@ import com.quadbits.gdxhelper.LWPStage;
 import com.quadbits.gdxhelper.controllers.Controller;
 import com.quadbits.gdxhelper.scenemodel.handlers.AssetsScaleModelHandler;
 import com.quadbits.gdxhelper.scenemodel.handlers.ModelHandler;
+import com.quadbits.gdxhelper.utils.AnimatedSpriteGrid;
 import com.quadbits.gdxhelper.utils.DependencyGraph;
+import com.quadbits.gdxhelper.utils.ParticleEffectCache;
 import com.quadbits.gdxhelper.utils.Recyclable;
 
 import java.util.ArrayList;
@@ -54,7 +55,7 @@ public class LWPSceneModelManager implements Disposable {
     HashMap<String, ActorModel> allActorModels;
     HashMap<String, ActorModel> nonGroupActorModels;
     HashMap<String, ActorModel> groupActorModels;
-    HashMap<String, ParticleEffectPool> particleEffectPools;
+    HashMap<String, AnimatedSpriteGrid> animationClips;
 
     Queue<BaseModel> modelProcessingQueue;
 
@@ -72,6 +73,9 @@ public class LWPSceneModelManager implements Disposable {
     @Inject
     LWPStage stage;
 
+    @Inject
+    ParticleEffectCache particleEffectCache;
+
     @Inject
     @Named("SceneModelManagerHandlers")
     List<ModelHandler> modelHandlers;
@@ -116,10 +120,10 @@ public class LWPSceneModelManager implements Disposable {
         }
         groupActorModels.clear();
 
-        if (particleEffectPools == null) {
-            particleEffectPools = new HashMap<String, ParticleEffectPool>();
+        if (animationClips == null) {
+            animationClips = new HashMap<String, AnimatedSpriteGrid>();
         }
-        particleEffectPools.clear();
+        animationClips.clear();
 
         if (modelProcessingQueue == null) {
             modelProcessingQueue = new LinkedList<BaseModel>();
@@ -252,6 +256,8 @@ public class LWPSceneModelManager implements Disposable {
         }
         sceneModel.created = false;
 
+        prewarmParticleEffects();
+
         modelProcessingQueue.clear();
         modelProcessingQueue.add(sceneModel);
         while (!modelProcessingQueue.isEmpty()) {
@@ -278,6 +284,34 @@ public class LWPSceneModelManager implements Disposable {
         }
     }
 
+    /**
+     * Makes sure that the particle effect cache holds as many effects of each effect file as
+     * the scene needs, before the actors using them are created.
+     */
+    protected void prewarmParticleEffects() {
+        // Count the models by effect file and atlas prefix
+        HashMap<String, Integer> effectCounts = new HashMap<String, Integer>();
+        HashMap<String, ParticleEffectActorModel> effectModels =
+                new HashMap<String, ParticleEffectActorModel>();
+        for (ActorModel actorModel : nonGroupActorModels.values()) {
+            if (!(actorModel instanceof ParticleEffectActorModel)) {
+                continue;
+            }
+
+            ParticleEffectActorModel effectModel = (ParticleEffectActorModel) actorModel;
+            String key = effectModel.effectFile + '#' + effectModel.atlasPrefix;
+            Integer effectCount = effectCounts.get(key);
+            effectCounts.put(key, effectCount == null ? 1 : effectCount + 1);
+            effectModels.put(key, effectModel);
+        }
+
+        for (String key : effectModels.keySet()) {
+            ParticleEffectActorModel effectModel = effectModels.get(key);
+            particleEffectCache.prewarm(effectModel.effectFile, effectModel.atlasPrefix,
+                    effectCounts.get(key));
+        }
+    }
+
     public Object createElement(BaseModel modelElement) {
         if (modelElement == null) {
             return null;
@@ -368,7 +402,11 @@ public class LWPSceneModelManager implements Disposable {
         resizeableActorsRelative.clear();
         allActors.clear();
 
-        particleEffectPools.clear();
+        // Shared animation clips are freed after the actors playing them
+        for (AnimatedSpriteGrid animationClip : animationClips.values()) {
+            animationClip.free();
+        }
+        animationClips.clear();
 
         for (Controller controller : allControllers.values()) {
             if (controller instanceof Recyclable) {
@@ -414,8 +452,11 @@ public class LWPSceneModelManager implements Disposable {
         return allModelsWithId.get(id);
     }
 
-    public HashMap<String, ParticleEffectPool> getParticleEffectPools() {
-        return particleEffectPools;
+    /**
+     * @return the animation clips shared by the animated sprite actors of the scene, by key
+     */
+    public HashMap<String, AnimatedSpriteGrid> getAnimationClips() {
+        return animationClips;
     }
 
     protected Gson getGson() {
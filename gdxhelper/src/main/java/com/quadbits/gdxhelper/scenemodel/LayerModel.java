@@ -31,6 +31,7 @@ public class LayerModel extends GroupModel {
     public String hRelativeTo;
     public boolean repositionChildrenX;
     public boolean repositionChildrenY;
+    public String tint; // hex, e.g. "ffffff"; multiplied into the colors of all the children
 
     @Override
     public void validate() {
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.scenemodel;
+
+/**
+ *
+ */
+public class LinearTrajectorySpawnerControllerModel extends ControllerModel {
+    public String trajectoryController; // id of a LinearTrajectoryControllerModel
+    public String[] actors; // ids of actors with addToParent = false
+    public Integer maxConcurrentFlights;
+    public Long avgSpawnIntervalMillis;
+    public float stdSpawnIntervalMillis;
+
+    @Override
+    public void validate() {
+        super.validate();
+
+        if (trajectoryController == null) {
+            throw new NullPointerException("field 'trajectoryController' must not be null");
+        }
+        if (actors == null || actors.length == 0) {
+            throw new NullPointerException("field 'actors' must not be null or empty");
+        }
+        if (avgSpawnIntervalMillis == null) {
+            throw new NullPointerException("field 'avgSpawnIntervalMillis' must not be null");
+        }
+        if (maxConcurrentFlights == null) {
+            maxConcurrentFlights = actors.length;
+        }
+
+        if (maxConcurrentFlights <= 0) {
+            throw new IllegalArgumentException("field 'maxConcurrentFlights' must be > 0");
+        }
+        if (avgSpawnIntervalMillis <= 0) {
+            throw new IllegalArgumentException("field 'avgSpawnIntervalMillis' must be > 0");
+        }
+    }
+}
@@ -21,6 +21,7 @@ package com.quadbits.gdxhelper.scenemodel;
 public class ParticleEffectActorModel extends ActorModel {
     public String effectFile;
     public String atlasPrefix;
+    public int priority; // higher priorities keep their emission longer under a particle budget
 
     // Position-related properties
     public float x; // [0,1]
@@ -27,6 +27,7 @@ public class SpriteActorModel extends ActorModel {
     public float originY; // for rotation, relative to actor's size
     public boolean flipX;
     public boolean flipY;
+    public float[] opaqueRegion; // x, y, width, height, relative to actor's size
 
     // Position-related properties
     public float x; // [0,1]
@@ -49,6 +50,10 @@ public class SpriteActorModel extends ActorModel {
         if (scaleY == null) {
             scaleY = 1f;
         }
+        if (opaqueRegion != null && opaqueRegion.length != 4) {
+            throw new IllegalArgumentException(
+                    "field 'opaqueRegion' must contain 4 values: x, y, width, height");
+        }
         if (rotation == null) {
             rotation = 0f;
         }
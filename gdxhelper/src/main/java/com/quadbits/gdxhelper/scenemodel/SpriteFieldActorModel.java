@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.scenemodel;
+
+/**
+ *
+ */
+public class SpriteFieldActorModel extends ActorModel {
+    public String[] textureNames;
+    public int count;
+    public String[] colors; // hex, e.g. "ffffffff"
+
+    // Element properties, chosen randomly within [min, max]
+    public Float minScale;
+    public Float maxScale;
+    public float minRotation;
+    public float maxRotation;
+    public Float minAlpha;
+    public Float maxAlpha;
+
+    // Behaviors
+    public float minVelocityX; // actor widths per second
+    public float maxVelocityX; // actor widths per second
+    public float minVelocityY; // actor heights per second
+    public float maxVelocityY; // actor heights per second
+    public Boolean wrapX;
+    public Boolean wrapY;
+    public float twinkleAmplitude; // [0,1]
+    public float minTwinkleSpeed; // cycles per second
+    public float maxTwinkleSpeed; // cycles per second
+
+    // Position and size, relative to the screen
+    public float x; // [0,1]
+    public float y; // [0,1]
+    public Float width; // [0,1]
+    public Float height; // [0,1]
+
+    @Override
+    public void validate() {
+        super.validate();
+
+        if (textureNames == null || textureNames.length == 0) {
+            throw new NullPointerException("field 'textureNames' must not be null or empty");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("field 'count' must be >= 0");
+        }
+        if (minScale == null) {
+            minScale = 1f;
+        }
+        if (maxScale == null) {
+            maxScale = minScale;
+        }
+        if (minAlpha == null) {
+            minAlpha = 1f;
+        }
+        if (maxAlpha == null) {
+            maxAlpha = minAlpha;
+        }
+        if (wrapX == null) {
+            wrapX = true;
+        }
+        if (wrapY == null) {
+            wrapY = true;
+        }
+        if (width == null) {
+            width = 1f;
+        }
+        if (height == null) {
+            height = 1f;
+        }
+    }
+}
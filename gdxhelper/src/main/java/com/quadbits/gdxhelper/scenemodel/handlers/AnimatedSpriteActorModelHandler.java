@@ -19,10 +19,12 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Group;
 import com.badlogic.gdx.utils.Pool;
+import com.google.gson.Gson;
 import com.quadbits.gdxhelper.actors.AnimatedSpriteActor;
 import com.quadbits.gdxhelper.controllers.Controller;
 import com.quadbits.gdxhelper.scenemodel.AnimatedSpriteActorModel;
 import com.quadbits.gdxhelper.scenemodel.BaseModel;
+import com.quadbits.gdxhelper.utils.AnimatedSpriteGrid;
 import com.quadbits.gdxhelper.utils.DependencyGraph;
 import com.quadbits.gdxhelper.utils.SpriteGrid;
 
@@ -38,6 +40,11 @@ public class AnimatedSpriteActorModelHandler extends ModelHandlerBaseImpl {
     @Inject
     protected Pool<AnimatedSpriteActor> animatedSpriteActorPool;
 
+    @Inject
+    protected Pool<AnimatedSpriteGrid> animatedSpriteGridPool;
+
+    protected Gson gson;
+
     @Inject
     public AnimatedSpriteActorModelHandler() {
         super();
@@ -79,9 +86,27 @@ public class AnimatedSpriteActorModelHandler extends ModelHandlerBaseImpl {
         // Show each frame at least once?
         actor.setShowEachFrameAtLeastOnce(actorModel.showEachFrameAtLeastOnce);
 
-        // Create states
-        for (AnimatedSpriteActorModel.StateModel stateModel : actorModel.states) {
-            createState(stateModel, actor);
+        // Create states. If requested, actors with the same states share a single animation
+        // clip, built (and owned) by the first of them
+        if (actorModel.shareAnimationClip) {
+            HashMap<String, AnimatedSpriteGrid> animationClips =
+                    sceneModelManager.getAnimationClips();
+            String clipKey = getGson().toJson(actorModel.states);
+            AnimatedSpriteGrid clip = animationClips.get(clipKey);
+            if (clip == null) {
+                clip = animatedSpriteGridPool.obtain();
+                for (AnimatedSpriteActorModel.StateModel stateModel : actorModel.states) {
+                    createState(stateModel, clip);
+                }
+                animationClips.put(clipKey, clip);
+                actor.setClip(clip, true);
+            } else {
+                actor.setClip(clip);
+            }
+        } else {
+            for (AnimatedSpriteActorModel.StateModel stateModel : actorModel.states) {
+                createState(stateModel, actor.getClip());
+            }
         }
 
         // Set initial state
@@ -101,13 +126,14 @@ public class AnimatedSpriteActorModelHandler extends ModelHandlerBaseImpl {
     }
 
     protected void createState(AnimatedSpriteActorModel.StateModel stateModel,
-                               AnimatedSpriteActor actor) {
+                               AnimatedSpriteGrid animatedSpriteGrid) {
         // Create animation frames
         for (AnimatedSpriteActorModel.FrameModel frameModel : stateModel.animation) {
-            int frameIndex = actor.addFrame(stateModel.id, frameModel.textureName,
+            int frameIndex = animatedSpriteGrid.addFrame(stateModel.id, frameModel.textureName,
                     frameModel.durationMillis / 1000.f, frameModel.centerOfMassX,
                     frameModel.centerOfMassY);
-            SpriteGrid spriteGrid = actor.getFrame(stateModel.id, frameIndex).getSprite();
+            SpriteGrid spriteGrid =
+                    animatedSpriteGrid.getFrame(stateModel.id, frameIndex).getSprite();
             spriteGrid.setScale(frameModel.scaleX, frameModel.scaleY);
             spriteGrid.setRotation(frameModel.rotation);
             spriteGrid.setOrigin(frameModel.originX, frameModel.originY);
@@ -117,7 +143,15 @@ public class AnimatedSpriteActorModelHandler extends ModelHandlerBaseImpl {
 
         // Loop animation must be set after at least one frame has been set; otherwise, the
         // animation returned is still null
-        actor.getAnimationSequence(stateModel.id).setLoopAnimation(stateModel.loopAnimation);
+        animatedSpriteGrid.getAnimationSequence(stateModel.id)
+                .setLoopAnimation(stateModel.loopAnimation);
+    }
+
+    protected Gson getGson() {
+        if (gson == null) {
+            gson = new Gson();
+        }
+        return gson;
     }
 
     @Override
@@ -15,6 +15,7 @@
  */
 package com.quadbits.gdxhelper.scenemodel.handlers;
 
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.utils.Pool;
 import com.quadbits.gdxhelper.actors.Layer;
@@ -61,6 +62,11 @@ public class LayerModelHandler extends ModelHandlerBaseImpl {
         layer.setName(id);
         sceneModelManager.getAllActors().put(id, layer);
 
+        // Tint (tint controllers attached to the layer override it)
+        if (layerModel.tint != null) {
+            layer.setTint(Color.valueOf(layerModel.tint));
+        }
+
         // Process controllers
         if (layerModel.controllers != null) {
             for (String controllerId : layerModel.controllers) {
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.scenemodel.handlers;
+
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.utils.Pool;
+import com.quadbits.gdxhelper.controllers.Controller;
+import com.quadbits.gdxhelper.controllers.LinearTrajectoryController;
+import com.quadbits.gdxhelper.controllers.LinearTrajectorySpawnerController;
+import com.quadbits.gdxhelper.scenemodel.BaseModel;
+import com.quadbits.gdxhelper.scenemodel.LinearTrajectorySpawnerControllerModel;
+
+import java.util.HashMap;
+
+import javax.inject.Inject;
+
+/**
+ *
+ */
+public class LinearTrajectorySpawnerControllerModelHandler extends ModelHandlerBaseImpl {
+    @Inject
+    protected Pool<LinearTrajectorySpawnerController> linearTrajectorySpawnerControllerPool;
+
+    @Inject
+    public LinearTrajectorySpawnerControllerModelHandler() {
+        super();
+    }
+
+    @Override
+    public Object create(BaseModel model, String id, boolean forceCreation) {
+        // Safeguard against duplicate calls
+        if (!forceCreation && model.created) {
+            return null;
+        }
+        model.created = true;
+
+        // Id
+        if (id == null) {
+            id = model.id;
+        }
+
+        LinearTrajectorySpawnerControllerModel controllerModel =
+                (LinearTrajectorySpawnerControllerModel) model;
+        HashMap<String, Controller> allControllers = sceneModelManager.getAllControllers();
+
+        // Create controller
+        LinearTrajectorySpawnerController controller =
+                linearTrajectorySpawnerControllerPool.obtain();
+        allControllers.put(id, controller);
+
+        // Concurrent flights
+        controller.setMaxConcurrentFlights(controllerModel.maxConcurrentFlights);
+
+        // Spawn interval
+        controller.setAvgSpawnIntervalMillis(controllerModel.avgSpawnIntervalMillis);
+        controller.setStdSpawnIntervalMillis(controllerModel.stdSpawnIntervalMillis);
+
+        return controller;
+    }
+
+    @Override
+    public void layout(BaseModel model, Object object, boolean forceLayout) {
+        // Safeguard against duplicate calls
+        if (!forceLayout && model.laidout) {
+            return;
+        }
+        model.laidout = true;
+
+        LinearTrajectorySpawnerControllerModel controllerModel =
+                (LinearTrajectorySpawnerControllerModel) model;
+        LinearTrajectorySpawnerController controller = (LinearTrajectorySpawnerController) object;
+        HashMap<String, Actor> allActors = sceneModelManager.getAllActors();
+        HashMap<String, Controller> allControllers = sceneModelManager.getAllControllers();
+
+        // Trajectory template (its parameters are read on every spawn, so it can be laid out
+        // after this controller)
+        Controller trajectory = allControllers.get(controllerModel.trajectoryController);
+        if (!(trajectory instanceof LinearTrajectoryController)) {
+            throw new IllegalArgumentException(
+                    "field 'trajectoryController' must be the id of a linear trajectory " +
+                            "controller");
+        }
+        controller.setTrajectory((LinearTrajectoryController) trajectory);
+
+        // Actors (flights in progress end, so that they are not added twice)
+        controller.clearActors();
+        for (String actorId : controllerModel.actors) {
+            Actor actor = allActors.get(actorId);
+            if (actor == null) {
+                throw new IllegalArgumentException("Unknown actor '" + actorId + "'");
+            }
+            if (actor.getParent() != null) {
+                throw new IllegalArgumentException(
+                        "Actor '" + actorId + "' must be declared with addToParent = false");
+            }
+            controller.addActor(actor);
+        }
+    }
+
+    @Override
+    public int getPreferenceForModel(BaseModel model) {
+        if (model.getClass() == LinearTrajectorySpawnerControllerModel.class) {
+            return HANDLER_PREFERENCE_FOR_MODEL_EXACT_MATCH;
+        }
+
+        if (model instanceof LinearTrajectorySpawnerControllerModel) {
+            return HANDLER_PREFERENCE_FOR_MODEL_SUPERCLASS_MATCH;
+        }
+
+        return HANDLER_PREFERENCE_FOR_MODEL_NO_MATCH;
+    }
+}
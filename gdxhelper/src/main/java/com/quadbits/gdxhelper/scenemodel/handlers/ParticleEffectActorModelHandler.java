@@ -16,7 +16,6 @@
 package com.quadbits.gdxhelper.scenemodel.handlers;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.g2d.ParticleEffect;
 import com.badlogic.gdx.graphics.g2d.ParticleEffectPool;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Group;
@@ -27,7 +26,8 @@ import com.quadbits.gdxhelper.scenemodel.BaseModel;
 import com.quadbits.gdxhelper.scenemodel.ParticleEffectActorModel;
 import com.quadbits.gdxhelper.screens.LWPScreen;
 import com.quadbits.gdxhelper.utils.DependencyGraph;
-import com.quadbits.gdxhelper.utils.TextureAtlasProxy;
+import com.quadbits.gdxhelper.utils.ParticleBudget;
+import com.quadbits.gdxhelper.utils.ParticleEffectCache;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -42,11 +42,14 @@ public class ParticleEffectActorModelHandler extends ModelHandlerBaseImpl {
     protected Pool<ParticleEffectActor> particleEffectActorPool;
 
     @Inject
-    protected TextureAtlasProxy textureAtlasProxy;
+    protected ParticleEffectCache particleEffectCache;
 
     @Inject
     protected LWPScreen screen;
 
+    @Inject
+    protected ParticleBudget particleBudget;
+
     @Inject
     public ParticleEffectActorModelHandler() {
     }
@@ -68,8 +71,6 @@ public class ParticleEffectActorModelHandler extends ModelHandlerBaseImpl {
         HashMap<String, Actor> allActors = sceneModelManager.getAllActors();
         ArrayList<Actor> resizeableActorsAbsolute = sceneModelManager.getResizeableActorsAbsolute();
         HashMap<String, Controller> allControllers = sceneModelManager.getAllControllers();
-        HashMap<String, ParticleEffectPool> particleEffectPools =
-                sceneModelManager.getParticleEffectPools();
 
         // Get parent
         Group parent = null;
@@ -86,23 +87,12 @@ public class ParticleEffectActorModelHandler extends ModelHandlerBaseImpl {
         allActors.put(id, actor);
         resizeableActorsAbsolute.add(actor);
 
-        // Get pooled effect from pool, create pool if it does not exist
-        ParticleEffectPool effectPool = particleEffectPools.get(actorModel.effectFile);
-        if (effectPool == null) {
-            ParticleEffect prototype = new ParticleEffect();
-            if (actorModel.atlasPrefix == null) {
-                prototype.load(Gdx.files.internal(actorModel.effectFile), textureAtlasProxy.get());
-            } else {
-                prototype.load(Gdx.files.internal(actorModel.effectFile), textureAtlasProxy.get(),
-                        actorModel.atlasPrefix);
-            }
-            effectPool = new ParticleEffectPool(prototype, 1, 70);
-            particleEffectPools.put(actorModel.effectFile, effectPool);
-            //            prototype.dispose();
-        }
-        ParticleEffectPool.PooledEffect effect = effectPool.obtain();
+        // Get pooled effect from the per-game cache, which loads the prototype if needed
+        ParticleEffectPool.PooledEffect effect =
+                particleEffectCache.obtain(actorModel.effectFile, actorModel.atlasPrefix);
         effect.start();
         actor.setEffect(effect);
+        actor.setParticleBudget(particleBudget, actorModel.priority);
 
         // Process controllers
         if (actorModel.controllers != null) {
@@ -109,6 +109,12 @@ public class SpriteActorModelHandler extends ModelHandlerBaseImpl {
         actor.setFlipX(actorModel.flipX);
         actor.setFlipY(actorModel.flipY);
 
+        // Opaque region, for occlusion culling
+        if (actorModel.opaqueRegion != null) {
+            actor.setOpaqueRegion(actorModel.opaqueRegion[0], actorModel.opaqueRegion[1],
+                    actorModel.opaqueRegion[2], actorModel.opaqueRegion[3]);
+        }
+
         // Process controllers
         if (actorModel.controllers != null) {
             for (String controllerId : actorModel.controllers) {
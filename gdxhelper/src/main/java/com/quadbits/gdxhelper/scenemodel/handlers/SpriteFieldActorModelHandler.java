@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.scenemodel.handlers;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Group;
+import com.badlogic.gdx.utils.Pool;
+import com.quadbits.gdxhelper.actors.SpriteFieldActor;
+import com.quadbits.gdxhelper.controllers.Controller;
+import com.quadbits.gdxhelper.scenemodel.BaseModel;
+import com.quadbits.gdxhelper.scenemodel.SpriteFieldActorModel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import javax.inject.Inject;
+
+/**
+ *
+ */
+public class SpriteFieldActorModelHandler extends ModelHandlerBaseImpl {
+    @Inject
+    protected Pool<SpriteFieldActor> spriteFieldActorPool;
+
+    @Inject
+    public SpriteFieldActorModelHandler() {
+        super();
+    }
+
+    @Override
+    public Object create(BaseModel model, String id, boolean forceCreation) {
+        // Safeguard against duplicate calls
+        if (!forceCreation && model.created) {
+            return null;
+        }
+        model.created = true;
+
+        // Id
+        if (id == null) {
+            id = model.id;
+        }
+
+        SpriteFieldActorModel actorModel = (SpriteFieldActorModel) model;
+        HashMap<String, Actor> allActors = sceneModelManager.getAllActors();
+        ArrayList<Actor> resizeableActorsRelative = sceneModelManager.getResizeableActorsRelative();
+        HashMap<String, Controller> allControllers = sceneModelManager.getAllControllers();
+
+        // Get parent
+        Group parent = null;
+        if (actorModel.parent != null && actorModel.addToParent) {
+            parent = (Group) allActors.get(actorModel.parent);
+        }
+
+        // Create sprite field actor
+        SpriteFieldActor actor = spriteFieldActorPool.obtain();
+        actor.setName(id);
+        if (parent != null) {
+            parent.addActor(actor);
+        }
+        allActors.put(id, actor);
+        resizeableActorsRelative.add(actor);
+
+        // Regions and colors
+        for (String textureName : actorModel.textureNames) {
+            actor.addRegion(textureName);
+        }
+        if (actorModel.colors != null) {
+            for (String color : actorModel.colors) {
+                actor.addColor(Color.valueOf(color));
+            }
+        }
+
+        // Element properties and behaviors (elements are created on layout, once the size of
+        // the field is known)
+        actor.setScaleRange(actorModel.minScale, actorModel.maxScale);
+        actor.setRotationRange(actorModel.minRotation, actorModel.maxRotation);
+        actor.setAlphaRange(actorModel.minAlpha, actorModel.maxAlpha);
+        actor.setVelocityRange(actorModel.minVelocityX, actorModel.maxVelocityX,
+                actorModel.minVelocityY, actorModel.maxVelocityY);
+        actor.setWrapX(actorModel.wrapX);
+        actor.setWrapY(actorModel.wrapY);
+        actor.setTwinkleSpeedRange(actorModel.minTwinkleSpeed, actorModel.maxTwinkleSpeed);
+        actor.setTwinkleAmplitude(actorModel.twinkleAmplitude);
+
+        // Process controllers
+        if (actorModel.controllers != null) {
+            for (String controllerId : actorModel.controllers) {
+                Controller controller = allControllers.get(controllerId);
+                if (controller != null) {
+                    actor.addController(controller);
+                }
+            }
+        }
+
+        return actor;
+    }
+
+    @Override
+    public void layout(BaseModel model, Object object, boolean forceLayout) {
+        // Safeguard against duplicate calls
+        if (!forceLayout && model.laidout) {
+            return;
+        }
+        model.laidout = true;
+
+        SpriteFieldActorModel actorModel = (SpriteFieldActorModel) model;
+        SpriteFieldActor actor = (SpriteFieldActor) object;
+
+        // Position and size
+        float screenWidth = Gdx.graphics.getWidth();
+        float screenHeight = Gdx.graphics.getHeight();
+        actor.setBounds(actorModel.x * screenWidth, actorModel.y * screenHeight,
+                actorModel.width * screenWidth, actorModel.height * screenHeight);
+
+        // Elements keep their relative positions on later layouts
+        if (actor.getElementCount() != actorModel.count) {
+            actor.populate(actorModel.count);
+        }
+    }
+
+    @Override
+    public int getPreferenceForModel(BaseModel model) {
+        if (model.getClass() == SpriteFieldActorModel.class) {
+            return HANDLER_PREFERENCE_FOR_MODEL_EXACT_MATCH;
+        }
+
+        if (model instanceof SpriteFieldActorModel) {
+            return HANDLER_PREFERENCE_FOR_MODEL_SUPERCLASS_MATCH;
+        }
+
+        return HANDLER_PREFERENCE_FOR_MODEL_NO_MATCH;
+    }
+}
@@ -30,9 +30,14 @@ import com.badlogic.gdx.scenes.scene2d.Group;
 import com.badlogic.gdx.utils.Pool;
 import com.quadbits.gdxhelper.LWPGame;
 import com.quadbits.gdxhelper.LWPStage;
+import com.quadbits.gdxhelper.actors.ControllableGroup;
 import com.quadbits.gdxhelper.actors.ScreenDimActor;
+import com.quadbits.gdxhelper.utils.MemoryTrimmable;
 import com.quadbits.gdxhelper.utils.NonContinuousRendering;
+import com.quadbits.gdxhelper.utils.ParticleBudget;
 import com.quadbits.gdxhelper.utils.TextureAtlasProxy;
+import com.quadbits.gdxhelper.utils.TextureMemoryTracker;
+import com.quadbits.gdxhelper.utils.TextureUploadQueue;
 
 import java.util.ArrayList;
 import java.util.concurrent.ScheduledFuture;
@@ -51,6 +56,8 @@ public abstract class LWPScreen implements Screen, InputProcessor, GestureDetect
     // Assets
     protected float assetsSize;
     protected String textureAtlasResString;
+    protected String pendingTextureAtlasResString;
+    protected boolean asyncAssetLoading;
     protected float assetsScaleAbsolute;
     protected float assetsScaleRelative;
 
@@ -84,6 +91,8 @@ public abstract class LWPScreen implements Screen, InputProcessor, GestureDetect
 
     // Stage
     protected ScreenDimActor screenDimActor;
+    protected boolean stageTrimmed;
+    protected boolean paused;
 
     // Shaders
     protected ShaderProgram etc1Shader;
@@ -107,11 +116,23 @@ public abstract class LWPScreen implements Screen, InputProcessor, GestureDetect
     @Inject
     protected Pool<ScreenDimActor> screenDimActorPool;
 
+    @Inject
+    protected TextureMemoryTracker textureMemoryTracker;
+
+    @Inject
+    protected TextureUploadQueue textureUploadQueue;
+
+    @Inject
+    protected ParticleBudget particleBudget;
+
     // Constants
-    public static final long MIN_SLEEP_TIME = 500;
+    // Sleep times below this switch to continuous rendering. Kept low enough for slow
+    // animations (e.g. 2-5 fps) to be drawn on demand, only when their frames change
+    public static final long MIN_SLEEP_TIME = 100;
     public static final float DEFAULT_FLING_DAMP_FACTOR = 0.95f;
     public static final float DEFAULT_FLING_MIN_VELOCITY = 30;
     public static final float DEFAULT_MAX_DELTA_TIME_MILLIS = Float.MAX_VALUE;
+    public static final String TEXTURE_ATLAS_OWNER_PREFIX = "atlas:";
 
     public static interface ScrollChangeListener {
         public void scrollChanged(float scroll);
@@ -150,6 +171,14 @@ public abstract class LWPScreen implements Screen, InputProcessor, GestureDetect
         etc1Shader = null;
         etc1aShader = null;
         defaultShader = DefaultShader.NONE;
+
+        // Memory trimming
+        stageTrimmed = false;
+        paused = false;
+
+        // Assets
+        pendingTextureAtlasResString = null;
+        asyncAssetLoading = false;
     }
 
     @Override
@@ -174,16 +203,31 @@ public abstract class LWPScreen implements Screen, InputProcessor, GestureDetect
         if (assetsScaleAbsolute != this.assetsScaleAbsolute) {
             this.assetsScaleAbsolute = assetsScaleAbsolute;
             assetsSize = getAssetsSizeFromScale();
-            assetsScaleRelative = assetsScaleAbsolute / assetsSize;
             String textureAtlasResString = getTextureAtlasResStringFromScale();
-            if (!textureAtlasResString.equals(this.textureAtlasResString)) {
-                loadAssets(textureAtlasResString);
-                this.textureAtlasResString = textureAtlasResString;
+
+            // Fall back to lower density atlases if the chosen one does not fit in the texture
+            // memory budget
+            while (!fitsInTextureMemoryBudget(textureAtlasResString)) {
+                float lowerAssetsSize = getLowerAssetsSize(assetsSize);
+                if (lowerAssetsSize <= 0) {
+                    break;
+                }
+                assetsSize = lowerAssetsSize;
+                textureAtlasResString = getTextureAtlasResStringFromSize(assetsSize);
+            }
+
+            assetsScaleRelative = assetsScaleAbsolute / assetsSize;
+            if (asyncAssetLoading && !textureAtlasResString.equals(this.textureAtlasResString)) {
+                // The current stage is kept until the new atlas is loaded
+                requestAssets(textureAtlasResString);
+            } else {
+                cancelPendingAssets();
+                if (!textureAtlasResString.equals(this.textureAtlasResString)) {
+                    loadAssets(textureAtlasResString);
+                    this.textureAtlasResString = textureAtlasResString;
+                }
+                rebuildStage();
             }
-            clearStage();
-            createStage();
-            scaleActors(this.assetsScaleAbsolute, this.assetsScaleRelative);
-            layoutActors();
         }
 
     }
@@ -247,6 +291,53 @@ public abstract class LWPScreen implements Screen, InputProcessor, GestureDetect
         return textureAtlasResString;
     }
 
+    protected String getTextureAtlasResStringFromSize(float assetsSize) {
+        if (assetsSize == LWPGame.XXXHDPI_SCALE) {
+            return getTextureAtlasResStringXXXHDPI();
+        } else if (assetsSize == LWPGame.XXHDPI_SCALE) {
+            return getTextureAtlasResStringXXHDPI();
+        } else if (assetsSize == LWPGame.XHDPI_SCALE) {
+            return getTextureAtlasResStringXHDPI();
+        } else if (assetsSize == LWPGame.HDPI_SCALE) {
+            return getTextureAtlasResStringHDPI();
+        }
+        return getTextureAtlasResStringMDPI();
+    }
+
+    /**
+     * Returns the assets size of the density bucket immediately below the given one,
+     * or 0 if there is no lower bucket.
+     */
+    protected float getLowerAssetsSize(float assetsSize) {
+        if (assetsSize > LWPGame.XXHDPI_SCALE) {
+            return LWPGame.XXHDPI_SCALE;
+        } else if (assetsSize > LWPGame.XHDPI_SCALE) {
+            return LWPGame.XHDPI_SCALE;
+        } else if (assetsSize > LWPGame.HDPI_SCALE) {
+            return LWPGame.HDPI_SCALE;
+        } else if (assetsSize > LWPGame.MDPI_SCALE) {
+            return LWPGame.MDPI_SCALE;
+        }
+        return 0;
+    }
+
+    /**
+     * Checks whether a texture atlas can be loaded without exceeding the texture memory budget,
+     * taking into account that the currently loaded atlas (if any) would be unloaded first.
+     */
+    protected boolean fitsInTextureMemoryBudget(String textureAtlasResString) {
+        if (textureAtlasResString.equals(this.textureAtlasResString)) {
+            return true;
+        }
+
+        long atlasBytes = TextureMemoryTracker
+                .estimateAtlasBytes(Gdx.files.internal(textureAtlasResString));
+        long releasedBytes = this.textureAtlasResString == null ? 0 : textureMemoryTracker
+                .getOwnerBytes(TEXTURE_ATLAS_OWNER_PREFIX + this.textureAtlasResString);
+
+        return textureMemoryTracker.fitsInBudget(atlasBytes - releasedBytes);
+    }
+
     protected abstract String getTextureAtlasResStringXXXHDPI();
 
     protected abstract String getTextureAtlasResStringXXHDPI();
@@ -258,21 +349,133 @@ public abstract class LWPScreen implements Screen, InputProcessor, GestureDetect
     protected abstract String getTextureAtlasResStringMDPI();
 
     protected void loadAssets(String textureAtlasResString) {
+        unloadAssets();
+        assetManager.load(textureAtlasResString, TextureAtlas.class);
+        assetManager.finishLoading();
+        setTextureAtlas(textureAtlasResString);
+    }
+
+    protected void unloadAssets() {
         if (this.textureAtlasResString != null) {
             assetManager.unload(this.textureAtlasResString);
+            textureMemoryTracker
+                    .untrackOwner(TEXTURE_ATLAS_OWNER_PREFIX + this.textureAtlasResString);
         }
+    }
+
+    protected void setTextureAtlas(String textureAtlasResString) {
+        TextureAtlas textureAtlas = assetManager.get(textureAtlasResString, TextureAtlas.class);
+        textureAtlasProxy.set(textureAtlas);
+        textureMemoryTracker
+                .trackAtlas(textureAtlas, TEXTURE_ATLAS_OWNER_PREFIX + textureAtlasResString);
+    }
+
+    /**
+     * Starts loading a texture atlas asynchronously. The asset manager is updated on every
+     * frame, within the time budget of the texture upload queue, and the stage is rebuilt when
+     * the atlas is ready.
+     */
+    protected void requestAssets(String textureAtlasResString) {
+        if (textureAtlasResString.equals(pendingTextureAtlasResString)) {
+            return;
+        }
+        cancelPendingAssets();
         assetManager.load(textureAtlasResString, TextureAtlas.class);
-        assetManager.finishLoading();
-        textureAtlasProxy.set(assetManager.get(textureAtlasResString, TextureAtlas.class));
+        pendingTextureAtlasResString = textureAtlasResString;
+        Gdx.graphics.requestRendering();
+    }
+
+    protected void cancelPendingAssets() {
+        if (pendingTextureAtlasResString != null) {
+            assetManager.unload(pendingTextureAtlasResString);
+            pendingTextureAtlasResString = null;
+        }
+    }
+
+    protected void updatePendingAssets() {
+        if (!assetManager.update((int) textureUploadQueue.getMaxMillisPerFrame())) {
+            Gdx.graphics.requestRendering();
+            return;
+        }
+
+        String textureAtlasResString = pendingTextureAtlasResString;
+        pendingTextureAtlasResString = null;
+        unloadAssets();
+        setTextureAtlas(textureAtlasResString);
+        this.textureAtlasResString = textureAtlasResString;
+        rebuildStage();
     }
 
     public void clearStage() {
         if (screenDimActor != null) {
             screenDimActor.free();
+            screenDimActor = null;
         }
         stage.clear();
     }
 
+    protected void rebuildStage() {
+        clearStage();
+        createStage();
+        scaleActors(assetsScaleAbsolute, assetsScaleRelative);
+        layoutActors();
+        stageTrimmed = false;
+    }
+
+    /**
+     * Releases memory in tiers, depending on the trim level: texture atlases of other density
+     * buckets ({@link MemoryTrimmable#TRIM_MEMORY_RUNNING_LOW}), caches of the {@link
+     * MemoryTrimmable} actors of the stage (each actor decides what to release, depending on the
+     * level and its visibility) and, if the screen is paused, the whole stage ({@link
+     * MemoryTrimmable#TRIM_MEMORY_BACKGROUND}). The stage is rebuilt on the next render.
+     * <p/>
+     * Subclasses holding other caches should override this method to release them too (the
+     * particle effects are cached per game, and released by {@link
+     * com.quadbits.gdxhelper.LWPGame#trimMemory(int)}).
+     */
+    public void trimMemory(int level) {
+        if (level >= MemoryTrimmable.TRIM_MEMORY_RUNNING_LOW) {
+            unloadOtherTextureAtlases();
+        }
+
+        trimMemoryFromGroup(stage.getRoot(), level, !paused);
+
+        if (level >= MemoryTrimmable.TRIM_MEMORY_BACKGROUND && paused && !stageTrimmed &&
+                textureAtlasResString != null) {
+            clearStage();
+            stageTrimmed = true;
+        }
+    }
+
+    /**
+     * Unloads the texture atlases of the density buckets not currently in use, in case they were
+     * loaded by subclasses (e.g., for a preview).
+     */
+    protected void unloadOtherTextureAtlases() {
+        String[] textureAtlasResStrings = {getTextureAtlasResStringXXXHDPI(),
+                getTextureAtlasResStringXXHDPI(), getTextureAtlasResStringXHDPI(),
+                getTextureAtlasResStringHDPI(), getTextureAtlasResStringMDPI()};
+        for (String resString : textureAtlasResStrings) {
+            if (resString == null || resString.equals(textureAtlasResString) ||
+                    !assetManager.isLoaded(resString)) {
+                continue;
+            }
+            assetManager.unload(resString);
+            textureMemoryTracker.untrackOwner(TEXTURE_ATLAS_OWNER_PREFIX + resString);
+        }
+    }
+
+    private void trimMemoryFromGroup(Group group, int level, boolean visible) {
+        for (Actor actor : group.getChildren()) {
+            boolean actorVisible = visible && actor.isVisible();
+            if (actor instanceof Group) {
+                trimMemoryFromGroup((Group) actor, level, actorVisible);
+            } else if (actor instanceof MemoryTrimmable) {
+                ((MemoryTrimmable) actor).trimMemory(level, actorVisible);
+            }
+        }
+    }
+
     protected void createStage() {
         // A screen-dim actor for dimming the whole scene
         screenDimActor = screenDimActorPool.obtain();
@@ -292,8 +495,16 @@ public abstract class LWPScreen implements Screen, InputProcessor, GestureDetect
 
     @Override
     public void render(float deltaTime) {
-        Gdx.gl.glClearColor(0, 0, 0, 1);
-        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        // Create the textures queued for upload, within the per-frame budget
+        textureUploadQueue.process();
+        if (pendingTextureAtlasResString != null) {
+            updatePendingAssets();
+        }
+
+        // Rebuild the stage if it was released under memory pressure
+        if (stageTrimmed) {
+            rebuildStage();
+        }
 
         // Clear pending tasks
         stpe.remove((Runnable) lastRunnable);
@@ -310,7 +521,14 @@ public abstract class LWPScreen implements Screen, InputProcessor, GestureDetect
 
         // Stage: update and draw
         stage.act(deltaTime);
+
+        // No need to clear the color buffer if an opaque actor covers the whole screen
+        if (!stage.cullOccludedActors()) {
+            Gdx.gl.glClearColor(0, 0, 0, 1);
+            Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        }
         stage.draw();
+        particleBudget.endFrame();
 
         //Gdx.app.log("LWPScreen", String.format("Assets size = %s, scale = %f",
         //        LWPGame.scaleToString(assetsSize), assetsScaleRelative));
@@ -396,7 +614,14 @@ public abstract class LWPScreen implements Screen, InputProcessor, GestureDetect
         this.continuousRendering = continuousRendering;
     }
 
-    private long getMaxSleepTimeFromGroup(Group group) {
+    /**
+     * Calculates the max. sleep time of the actors in a tree. Groups with controllers also
+     * report the max. sleep time of their own controllers (e.g., controllers driving the
+     * children of the group, or setting the group's tint).
+     *
+     * @return the max. sleep time, in milliseconds
+     */
+    public static long getMaxSleepTimeFromGroup(Group group) {
         long maxSleepTimeMillis = Long.MAX_VALUE;
         for (Actor actor : group.getChildren()) {
             if (!(actor instanceof NonContinuousRendering || actor instanceof Group)) {
@@ -406,6 +631,10 @@ public abstract class LWPScreen implements Screen, InputProcessor, GestureDetect
             long actorMaxSleepTime;
             if (actor instanceof Group) {
                 actorMaxSleepTime = getMaxSleepTimeFromGroup((Group) actor);
+                if (actor instanceof ControllableGroup) {
+                    actorMaxSleepTime = Math.min(actorMaxSleepTime,
+                            ((ControllableGroup) actor).getMaxSleepTime());
+                }
             } else {
                 actorMaxSleepTime = ((NonContinuousRendering) actor).getMaxSleepTime();
             }
@@ -424,18 +653,20 @@ public abstract class LWPScreen implements Screen, InputProcessor, GestureDetect
 
     @Override
     public void pause() {
-
+        paused = true;
     }
 
     @Override
     public void resume() {
-
+        paused = false;
     }
 
     @Override
     public void dispose() {
+        cancelPendingAssets();
         if (textureAtlasResString != null) {
             assetManager.unload(textureAtlasResString);
+            textureMemoryTracker.untrackOwner(TEXTURE_ATLAS_OWNER_PREFIX + textureAtlasResString);
         }
 
         stpe.shutdown();
@@ -567,11 +798,23 @@ public abstract class LWPScreen implements Screen, InputProcessor, GestureDetect
         return stage;
     }
 
+    /**
+     * @return the particle budget of this screen, which exposes its use as metrics
+     */
+    public ParticleBudget getParticleBudget() {
+        return particleBudget;
+    }
+
     public void setDim(float dim) {
-        screenDimActor.setAlpha(dim);
+        if (screenDimActor != null) {
+            screenDimActor.setAlpha(dim);
+        }
     }
 
     public float getDim() {
+        if (screenDimActor == null) {
+            return game.getDim();
+        }
         return screenDimActor.getAlpha();
     }
 
@@ -703,6 +946,19 @@ public abstract class LWPScreen implements Screen, InputProcessor, GestureDetect
         return flingVelocityY;
     }
 
+    public boolean isAsyncAssetLoading() {
+        return asyncAssetLoading;
+    }
+
+    /**
+     * Enables loading texture atlases asynchronously when the density bucket changes (e.g., on
+     * rotation), spreading the upload of their pages over several frames. The current stage (or
+     * an empty one, at startup) is shown until the new atlas is ready.
+     */
+    public void setAsyncAssetLoading(boolean asyncAssetLoading) {
+        this.asyncAssetLoading = asyncAssetLoading;
+    }
+
     public float getMaxDeltaTime() {
         return maxDeltaTime;
     }
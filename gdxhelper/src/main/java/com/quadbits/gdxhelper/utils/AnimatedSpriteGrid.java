@@ -16,24 +16,34 @@
 package com.quadbits.gdxhelper.utils;
 
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
 import com.badlogic.gdx.utils.Pool;
 
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 import javax.inject.Inject;
 
 /**
- *
+ * A set of animation sequences, one per state. States are interned to dense int ids when their
+ * first frame is added, so that the animation of the current state is found without hashing;
+ * callers that switch states often can also use {@link #getStateId(Object)} and {@link
+ * #setStateById(int)}.
+ * <p/>
+ * The playback state (current state, frame and time) is kept in a {@link Cursor}. The methods
+ * without a cursor argument use the grid's own cursor; the ones with a cursor argument allow
+ * several actors to play the same animations, each one with its own cursor, so that the frames
+ * are only built once (see {@link com.quadbits.gdxhelper.actors.AnimatedSpriteActor#setClip}).
  */
 public class AnimatedSpriteGrid implements Pool.Poolable {
     protected Pool<AnimatedSpriteGrid> animatedSpriteGridPool;
-    protected HashMap<Object, AnimationSequence> animations;
-    protected Object state;
-    protected int activeFrameIndex;
-    protected Frame activeFrame;
-    protected float accumulatedAnimTime;
-    protected boolean showEachFrameAtLeastOnce;
+    protected ObjectIntMap<Object> stateIds;
+    protected Array<Object> states;
+    protected final Set<Object> stateSet;
+    protected final Set<Object> stateSetView;
+    protected Array<AnimationSequence> animations;
+    protected final Cursor cursor;
 
     @Inject
     protected Pool<AnimationSequence> animationSequencePool;
@@ -43,26 +53,25 @@ public class AnimatedSpriteGrid implements Pool.Poolable {
 
     @Inject
     public AnimatedSpriteGrid() {
-        animations = new HashMap<Object, AnimationSequence>();
-        init();
-    }
-
-    protected void init() {
-        state = null;
-        activeFrame = null;
-        activeFrameIndex = -1;
-        accumulatedAnimTime = 0;
-        showEachFrameAtLeastOnce = false;
+        stateIds = new ObjectIntMap<Object>();
+        states = new Array<Object>();
+        stateSet = new LinkedHashSet<Object>();
+        stateSetView = Collections.unmodifiableSet(stateSet);
+        animations = new Array<AnimationSequence>();
+        cursor = new Cursor();
     }
 
     @Override
     public void reset() {
-        for (AnimationSequence animation : animations.values()) {
+        for (AnimationSequence animation : animations) {
             animation.free();
         }
         animations.clear();
+        states.clear();
+        stateSet.clear();
+        stateIds.clear();
 
-        init();
+        cursor.reset();
     }
 
     public void free() {
@@ -85,134 +94,245 @@ public class AnimatedSpriteGrid implements Pool.Poolable {
 
     public int addFrame(Object state, Frame frame) {
         // Get the animation sequence associated to the state
-        AnimationSequence animation = animations.get(state);
+        int id = stateIds.get(state, -1);
 
         // If there is no animation yet, create it and associate it with the state
-        if (animation == null) {
-            animation = animationSequencePool.obtain();
-            animations.put(state, animation);
+        if (id == -1) {
+            id = animations.size;
+            animations.add(animationSequencePool.obtain());
+            states.add(state);
+            stateSet.add(state);
+            stateIds.put(state, id);
         }
 
         // Add the given sprite to the array and Return the index of the sprite in the array
-        return animation.addFrame(frame);
+        return animations.get(id).addFrame(frame);
+    }
+
+    public Cursor getCursor() {
+        return cursor;
     }
 
     public Object getState() {
-        return state;
+        return cursor.state;
+    }
+
+    /**
+     * @return the id of the current state, or -1 if no state has been set
+     */
+    public int getStateId() {
+        return cursor.stateId;
+    }
+
+    /**
+     * @return the id of the given state, or -1 if the state has no frames
+     */
+    public int getStateId(Object state) {
+        return stateIds.get(state, -1);
+    }
+
+    public int getStateCount() {
+        return states.size;
     }
 
     public void setState(Object state) {
-        setActiveFrame(state, 0);
-        setAccumulatedAnimTime(0);
+        setStateById(cursor, getStateId(state));
+    }
+
+    public void setStateById(int stateId) {
+        setStateById(cursor, stateId);
+    }
+
+    public void setStateById(Cursor cursor, int stateId) {
+        setActiveFrameById(cursor, stateId, 0);
+        cursor.accumulatedAnimTime = 0;
     }
 
     public void setActiveFrame(Object state, int index) {
-        activeFrame = animations.get(state).getFrame(index);
-        this.state = state;
-        activeFrameIndex = index;
+        setActiveFrameById(cursor, getStateId(state), index);
+    }
+
+    public void setActiveFrameById(int stateId, int index) {
+        setActiveFrameById(cursor, stateId, index);
+    }
+
+    public void setActiveFrameById(Cursor cursor, int stateId, int index) {
+        cursor.activeFrame = animations.get(stateId).getFrame(index);
+        cursor.stateId = stateId;
+        cursor.state = states.get(stateId);
+        cursor.activeFrameIndex = index;
     }
 
     public Frame getActiveFrame() {
-        return activeFrame;
+        return cursor.activeFrame;
     }
 
     public int getActiveFrameIndex() {
-        return activeFrameIndex;
+        return cursor.activeFrameIndex;
     }
 
     public AnimationSequence getAnimationSequence(Object state) {
-        return animations.get(state);
+        int id = getStateId(state);
+        return id == -1 ? null : animations.get(id);
+    }
+
+    public AnimationSequence getAnimationSequenceById(int stateId) {
+        return animations.get(stateId);
     }
 
     public Frame getFrame(Object state, int index) {
-        return animations.get(state).getFrame(index);
+        return getAnimationSequence(state).getFrame(index);
     }
 
+    /**
+     * @return a read-only view of the states, in the order of their ids
+     * @see #getStates()
+     */
     public Set<Object> getAllStates() {
-        return animations.keySet();
+        return stateSetView;
+    }
+
+    /**
+     * Allocation-free alternative to {@link #getAllStates()}, for iterating the states by id.
+     *
+     * @return the states, indexed by their ids (must not be modified)
+     */
+    public Array<Object> getStates() {
+        return states;
     }
 
     public float getAccumulatedAnimTime() {
-        return accumulatedAnimTime;
+        return cursor.accumulatedAnimTime;
     }
 
     public void setAccumulatedAnimTime(float accumulatedAnimTime) {
-        this.accumulatedAnimTime = accumulatedAnimTime;
+        cursor.accumulatedAnimTime = accumulatedAnimTime;
     }
 
     public Frame calculateCurrentAnimationFrame(float deltaSeconds) {
+        return calculateCurrentAnimationFrame(cursor, deltaSeconds);
+    }
+
+    public Frame calculateCurrentAnimationFrame(Cursor cursor, float deltaSeconds) {
+        // Nothing to do if no state has been set or the animation has finished
+        if (cursor.stateId == -1 || cursor.activeFrameIndex == -1) {
+            return cursor.activeFrame;
+        }
+
         // Get the animation corresponding to the current state
-        AnimationSequence animation = getAnimationSequence(getState());
+        AnimationSequence animation = animations.get(cursor.stateId);
 
         // If the accumulated anim. time is 0, it means that the first frame has not been shown yet
         boolean currentFrameHasBeenShown = true;
-        if (accumulatedAnimTime == 0) {
+        if (cursor.accumulatedAnimTime == 0) {
             currentFrameHasBeenShown = false;
         }
 
         // Add the delta time
-        accumulatedAnimTime += deltaSeconds;
+        cursor.accumulatedAnimTime += deltaSeconds;
 
         // If looping is enabled, perform a modulo operation to go back again
         if (animation.isLoopAnimation()) {
-            accumulatedAnimTime = accumulatedAnimTime % animation.getDuration();
+            cursor.accumulatedAnimTime = cursor.accumulatedAnimTime % animation.getDuration();
         }
 
         // Search for the frame corresponding to the amount of time passed
-        boolean animationFinished = true;
-        for (int i = activeFrameIndex; i < animation.getSize(); ) {
-            Frame frame = animation.getFrame(i);
-
-            // If the current frame corresponds to the time passed, return it
-            float frameEndTime = frame.getEndTimeFromAnimStart();
-            float frameDuration = frame.getDuration();
-            if (frameEndTime == -1 || (accumulatedAnimTime <= frameEndTime &&
-                    accumulatedAnimTime >= frameEndTime - frameDuration)) {
-                activeFrameIndex = i;
-                activeFrame = frame;
-                animationFinished = false;
-                break;
-            }
-
-            // The current frame does not correspond to the time passed,
-            // but it has not been shown and each frame should be drawn at least once: return it
-            else if (showEachFrameAtLeastOnce && !currentFrameHasBeenShown) {
-                activeFrameIndex = i;
-                activeFrame = frame;
-                animationFinished = false;
-                break;
-            }
-
-            // The next frame has not been shown
-            currentFrameHasBeenShown = false;
-
-            // If in loop mode, ensure i goes back again to the begin
-            if (animation.isLoopAnimation() && i == animation.getSize() - 1) {
-                i = 0;
+        int activeFrameIndex = cursor.activeFrameIndex;
+        int index = animation.findFrameIndex(cursor.accumulatedAnimTime);
+
+        // If the time passed corresponds to another frame, but each frame should be drawn at
+        // least once: stay in the current frame if it has not been shown, or else advance to
+        // the next one
+        if (cursor.showEachFrameAtLeastOnce && index != activeFrameIndex) {
+            if (!currentFrameHasBeenShown) {
+                index = activeFrameIndex;
+            } else if (activeFrameIndex < animation.getSize() - 1) {
+                index = activeFrameIndex + 1;
             } else {
-                i++;
+                index = animation.isLoopAnimation() ? 0 : -1;
             }
         }
 
-        if (animationFinished) {
-            activeFrameIndex = -1;
-            activeFrame = null;
+        if (index == -1) {
+            cursor.activeFrameIndex = -1;
+            cursor.activeFrame = null;
+        } else {
+            cursor.activeFrameIndex = index;
+            cursor.activeFrame = animation.getFrame(index);
         }
 
-        return activeFrame;
+        return cursor.activeFrame;
     }
 
     public boolean isShowEachFrameAtLeastOnce() {
-        return showEachFrameAtLeastOnce;
+        return cursor.showEachFrameAtLeastOnce;
     }
 
     public void setShowEachFrameAtLeastOnce(boolean showEachFrameAtLeastOnce) {
-        this.showEachFrameAtLeastOnce = showEachFrameAtLeastOnce;
+        cursor.showEachFrameAtLeastOnce = showEachFrameAtLeastOnce;
+    }
+
+    /**
+     * The playback state of an animated sprite grid: current state, frame and animation time.
+     */
+    public static class Cursor {
+        protected Object state;
+        protected int stateId;
+        protected int activeFrameIndex;
+        protected Frame activeFrame;
+        protected float accumulatedAnimTime;
+        protected boolean showEachFrameAtLeastOnce;
+
+        public Cursor() {
+            reset();
+        }
+
+        public void reset() {
+            state = null;
+            stateId = -1;
+            activeFrame = null;
+            activeFrameIndex = -1;
+            accumulatedAnimTime = 0;
+            showEachFrameAtLeastOnce = false;
+        }
+
+        public Object getState() {
+            return state;
+        }
+
+        public int getStateId() {
+            return stateId;
+        }
+
+        public int getActiveFrameIndex() {
+            return activeFrameIndex;
+        }
+
+        public Frame getActiveFrame() {
+            return activeFrame;
+        }
+
+        public float getAccumulatedAnimTime() {
+            return accumulatedAnimTime;
+        }
+
+        public void setAccumulatedAnimTime(float accumulatedAnimTime) {
+            this.accumulatedAnimTime = accumulatedAnimTime;
+        }
+
+        public boolean isShowEachFrameAtLeastOnce() {
+            return showEachFrameAtLeastOnce;
+        }
+
+        public void setShowEachFrameAtLeastOnce(boolean showEachFrameAtLeastOnce) {
+            this.showEachFrameAtLeastOnce = showEachFrameAtLeastOnce;
+        }
     }
 
     public static class AnimationSequence implements Pool.Poolable {
         protected Pool<AnimationSequence> animationSequencePool;
         protected Array<Frame> frames;
+        protected float[] endTimes;
         protected boolean loopAnimation;
         protected boolean flipX;
         protected boolean flipY;
@@ -223,6 +343,7 @@ public class AnimatedSpriteGrid implements Pool.Poolable {
         @Inject
         public AnimationSequence() {
             frames = new Array<Frame>();
+            endTimes = new float[8];
             init();
         }
 
@@ -266,10 +387,37 @@ public class AnimatedSpriteGrid implements Pool.Poolable {
                     previousFrame.getEndTimeFromAnimStart() + frame.duration;
             frame.setEndTimeFromAnimStart(endTimeFromAnimStart);
 
+            if (frames.size == endTimes.length) {
+                float[] newEndTimes = new float[endTimes.length * 2];
+                System.arraycopy(endTimes, 0, newEndTimes, 0, endTimes.length);
+                endTimes = newEndTimes;
+            }
+            endTimes[frames.size] = endTimeFromAnimStart;
+
             frames.add(frame);
             return frames.size - 1;
         }
 
+        /**
+         * Binary searches the frame shown at a given time since the animation start.
+         *
+         * @return the index of the first frame ending at or after 'time', or -1 if the animation
+         * has finished by then
+         */
+        public int findFrameIndex(float time) {
+            int low = 0;
+            int high = frames.size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (endTimes[mid] < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low < frames.size ? low : -1;
+        }
+
         public Frame getFrame(int index) {
             return frames.get(index);
         }
@@ -290,7 +438,7 @@ public class AnimatedSpriteGrid implements Pool.Poolable {
             if (frames.size == 0) {
                 return 0;
             }
-            return frames.get(frames.size - 1).getEndTimeFromAnimStart();
+            return endTimes[frames.size - 1];
         }
 
         public boolean isFlipX() {
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Places rectangles (e.g., clouds) inside an area following a two-dimensional Halton sequence
+ * (bases 2 and 3), read from precomputed tables. Rectangles are kept horizontally inside the
+ * area, and may overflow it vertically.
+ * <p/>
+ * A coverage grid keeps track of how many placed rectangles cover each cell of the area. With
+ * the {@link OverlapPolicy#AVOID} policy, up to a number of consecutive points of the sequence
+ * are tried for each rectangle, and the one overlapping the least with the rectangles already
+ * covering the area is chosen; with {@link OverlapPolicy#ALLOW}, the next point of the sequence
+ * is always used.
+ */
+public class CloudPlacer {
+    public enum OverlapPolicy {
+        ALLOW, AVOID
+    }
+
+    protected static final HaltonTable haltonTableX = new HaltonTable(2, 1024);
+    protected static final HaltonTable haltonTableY = new HaltonTable(3, 1024);
+
+    protected OverlapPolicy overlapPolicy;
+    protected int candidateCount;
+    protected int nCols;
+    protected int nRows;
+    protected int[] coverage;
+    protected float width;
+    protected float height;
+    protected float cellWidth;
+    protected float cellHeight;
+    protected int index;
+
+    public static final int DEFAULT_CANDIDATE_COUNT = 8;
+    public static final int DEFAULT_COVERAGE_DIVISIONS = 16;
+
+    public CloudPlacer() {
+        overlapPolicy = OverlapPolicy.AVOID;
+        candidateCount = DEFAULT_CANDIDATE_COUNT;
+        setCoverageDivisions(DEFAULT_COVERAGE_DIVISIONS, DEFAULT_COVERAGE_DIVISIONS);
+    }
+
+    /**
+     * Starts placing rectangles in an empty area.
+     *
+     * @param startIndex
+     *         the first index of the Halton sequence to use
+     */
+    public void begin(float width, float height, int startIndex) {
+        this.width = width;
+        this.height = height;
+        cellWidth = width > 0 ? width / nCols : 1;
+        cellHeight = height > 0 ? height / nRows : 1;
+        index = startIndex;
+        for (int cell = 0; cell < coverage.length; cell++) {
+            coverage[cell] = 0;
+        }
+    }
+
+    /**
+     * Marks the area of a rectangle that is not being placed (e.g., a cloud that stays where it
+     * is) as covered.
+     */
+    public void addCovered(float x, float y, float rectWidth, float rectHeight) {
+        int minCol = getCol(x);
+        int maxCol = getCol(x + rectWidth);
+        int minRow = getRow(y);
+        int maxRow = getRow(y + rectHeight);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                coverage[row * nCols + col]++;
+            }
+        }
+    }
+
+    /**
+     * Places a rectangle, and marks its area as covered. The points of the sequence tried
+     * before the chosen one are skipped.
+     *
+     * @param out
+     *         where the position (bottom-left corner) of the rectangle is stored
+     *
+     * @return out
+     */
+    public Vector2 place(float rectWidth, float rectHeight, Vector2 out) {
+        int tries = overlapPolicy == OverlapPolicy.AVOID ? candidateCount : 1;
+        int bestOverlap = Integer.MAX_VALUE;
+        int bestIndex = index;
+        for (int i = index; i < index + tries; i++) {
+            float x = getX(i, rectWidth);
+            float y = haltonTableY.get(i) * height;
+            int overlap = tries > 1 ? getOverlap(x, y, rectWidth, rectHeight) : 0;
+            if (overlap < bestOverlap) {
+                bestOverlap = overlap;
+                bestIndex = i;
+                if (overlap == 0) {
+                    break;
+                }
+            }
+        }
+
+        out.set(getX(bestIndex, rectWidth), haltonTableY.get(bestIndex) * height);
+        index = bestIndex + 1;
+        addCovered(out.x, out.y, rectWidth, rectHeight);
+        return out;
+    }
+
+    protected float getX(int i, float rectWidth) {
+        float x = haltonTableX.get(i) * width;
+        return x - Math.max(0, x + rectWidth - width);
+    }
+
+    /**
+     * @return the sum, for every cell covered by a rectangle, of the number of rectangles
+     * already covering it
+     */
+    public int getOverlap(float x, float y, float rectWidth, float rectHeight) {
+        int overlap = 0;
+        int minCol = getCol(x);
+        int maxCol = getCol(x + rectWidth);
+        int minRow = getRow(y);
+        int maxRow = getRow(y + rectHeight);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                overlap += coverage[row * nCols + col];
+            }
+        }
+        return overlap;
+    }
+
+    /**
+     * @return the fraction [0, 1] of cells of the area covered by at least one rectangle
+     */
+    public float getCoveredFraction() {
+        int covered = 0;
+        for (int cell = 0; cell < coverage.length; cell++) {
+            if (coverage[cell] > 0) {
+                covered++;
+            }
+        }
+        return (float) covered / coverage.length;
+    }
+
+    protected int getCol(float px) {
+        int col = (int) Math.floor(px / cellWidth);
+        return col < 0 ? 0 : (col >= nCols ? nCols - 1 : col);
+    }
+
+    protected int getRow(float py) {
+        int row = (int) Math.floor(py / cellHeight);
+        return row < 0 ? 0 : (row >= nRows ? nRows - 1 : row);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public OverlapPolicy getOverlapPolicy() {
+        return overlapPolicy;
+    }
+
+    public void setOverlapPolicy(OverlapPolicy overlapPolicy) {
+        this.overlapPolicy = overlapPolicy;
+    }
+
+    public int getCandidateCount() {
+        return candidateCount;
+    }
+
+    public void setCandidateCount(int candidateCount) {
+        if (candidateCount <= 0) {
+            throw new IllegalArgumentException(
+                    "candidateCount must be > 0, provided = " + candidateCount);
+        }
+        this.candidateCount = candidateCount;
+    }
+
+    /**
+     * Sets the resolution of the coverage grid, clearing it.
+     */
+    public void setCoverageDivisions(int nCols, int nRows) {
+        if (nCols <= 0 || nRows <= 0) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid coverage grid size: %dx%d", nCols, nRows));
+        }
+        this.nCols = nCols;
+        this.nRows = nRows;
+        coverage = new int[nCols * nRows];
+        begin(width, height, index);
+    }
+}
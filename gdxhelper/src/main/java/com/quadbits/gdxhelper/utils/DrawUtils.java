@@ -15,7 +15,12 @@
  */
 package com.quadbits.gdxhelper.utils;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector3;
 
 /**
  *
@@ -63,12 +68,53 @@ public class DrawUtils {
         public float getHeight();
 
         public void setPosition(float x, float y);
+
+        /**
+         * Calculates the bounds of what {@link #drawSprite(Batch, float)} draws, relative to
+         * the current position (i.e., taking into account rotation or contents overflowing the
+         * size), so that tiles outside the viewport can be culled.
+         *
+         * @param bounds
+         *         output rectangle
+         */
+        public void getDrawBounds(Rectangle bounds);
+    }
+
+    private static final Matrix4 tmpMatrix = new Matrix4();
+    private static final Vector3 tmpVector = new Vector3();
+    private static final Rectangle tmpDrawBounds = new Rectangle();
+    private static final Rectangle tmpViewportBounds = new Rectangle();
+
+    /**
+     * Draws the tiles of a drawable covering the given ranges. Only tiles intersecting the
+     * current viewport (as given by the projection and transform matrices of the batch) are
+     * drawn.
+     *
+     * @return the number of tiles culled
+     */
+    public static int drawTileableSprite(Batch batch, float parentAlpha,
+                                         BatchDrawableSprite drawable, boolean tileableX,
+                                         boolean tileableY, float minTiledX, float maxTiledX,
+                                         float minTiledY, float maxTiledY) {
+        Rectangle viewport = getViewportBounds(batch, tmpViewportBounds) ? tmpViewportBounds : null;
+        return drawTileableSprite(batch, parentAlpha, drawable, tileableX, tileableY, minTiledX,
+                maxTiledX, minTiledY, maxTiledY, viewport);
     }
 
-    public static void drawTileableSprite(Batch batch, float parentAlpha,
-                                          BatchDrawableSprite drawable, boolean tileableX,
-                                          boolean tileableY, float minTiledX, float maxTiledX,
-                                          float minTiledY, float maxTiledY) {
+    /**
+     * Draws the tiles of a drawable covering the given ranges. Only tiles intersecting the
+     * given viewport are drawn.
+     *
+     * @param viewport
+     *         the viewport in the batch's coordinates (see {@link #getViewportBounds(Batch,
+     *         Rectangle)}), or null to draw all the tiles
+     *
+     * @return the number of tiles culled
+     */
+    public static int drawTileableSprite(Batch batch, float parentAlpha,
+                                         BatchDrawableSprite drawable, boolean tileableX,
+                                         boolean tileableY, float minTiledX, float maxTiledX,
+                                         float minTiledY, float maxTiledY, Rectangle viewport) {
         // Check values
         if (!tileableX) {
             minTiledX = 0;
@@ -89,35 +135,179 @@ public class DrawUtils {
         int maxI = tileableX ? (int) Math.ceil((maxTiledX - minTiledX) / width) : 0;
         int maxJ = tileableY ? (int) Math.ceil((maxTiledY - minTiledY) / height) : 0;
 
+        // Position of the first tile
+        float firstTiledX = oldX;
+        float firstTiledY = oldY;
+        if (tileableX) {
+            float offsetX = oldX % width;
+            firstTiledX = minTiledX + (offsetX > 0 ? offsetX - width : offsetX);
+        }
+        if (tileableY) {
+            float offsetY = oldY % height;
+            firstTiledY = minTiledY + (offsetY > 0 ? offsetY - height : offsetY);
+        }
+
+        // Intersect the tile ranges with the viewport: the draw bounds of tile i start at
+        // firstTiledX + i * width + drawBounds.x, and must overlap the viewport strictly (as in
+        // Rectangle.overlaps)
+        int minI = 0;
+        int minJ = 0;
+        int lastI = maxI;
+        int lastJ = maxJ;
+        if (viewport != null) {
+            Rectangle drawBounds = tmpDrawBounds;
+            drawable.getDrawBounds(drawBounds);
+            if (tileableX) {
+                float left = viewport.x - drawBounds.x - firstTiledX;
+                minI = Math.max(minI, (int) Math.floor((left - drawBounds.width) / width) + 1);
+                lastI = Math.min(lastI, (int) Math.ceil((left + viewport.width) / width) - 1);
+            } else if (firstTiledX + drawBounds.x > viewport.x + viewport.width ||
+                    firstTiledX + drawBounds.x + drawBounds.width < viewport.x) {
+                lastI = -1;
+            }
+            if (tileableY) {
+                float bottom = viewport.y - drawBounds.y - firstTiledY;
+                minJ = Math.max(minJ, (int) Math.floor((bottom - drawBounds.height) / height) + 1);
+                lastJ = Math.min(lastJ, (int) Math.ceil((bottom + viewport.height) / height) - 1);
+            } else if (firstTiledY + drawBounds.y > viewport.y + viewport.height ||
+                    firstTiledY + drawBounds.y + drawBounds.height < viewport.y) {
+                lastJ = -1;
+            }
+        }
+
         // Draw tiles
-        for (int i = 0; i <= maxI; i++) {
-            for (int j = 0; j <= maxJ; j++) {
-                float tiledX = oldX;
-                float tiledY = oldY;
-                if (tileableX) {
-                    float offsetX = oldX % width;
-                    if (offsetX > 0) {
-                        tiledX = offsetX + (i - 1) * width;
-                    } else {
-                        tiledX = offsetX + i * width;
-                    }
-                }
-                if (tileableY) {
-                    float offsetY = oldY % height;
-                    if (offsetY > 0) {
-                        tiledY = offsetY + (j - 1) * height;
-                    } else {
-                        tiledY = offsetY + j * height;
-                    }
-                }
-
-                drawable.setPosition(minTiledX + tiledX, minTiledY + tiledY);
+        int drawnTiles = 0;
+        for (int i = minI; i <= lastI; i++) {
+            for (int j = minJ; j <= lastJ; j++) {
+                float tiledX = tileableX ? firstTiledX + i * width : oldX;
+                float tiledY = tileableY ? firstTiledY + j * height : oldY;
+                drawable.setPosition(tiledX, tiledY);
                 drawable.drawSprite(batch, parentAlpha);
+                drawnTiles++;
             }
         }
 
         // Restore old position
         drawable.setPosition(oldX, oldY);
+
+        return (maxI + 1) * (maxJ + 1) - drawnTiles;
+    }
+
+    /**
+     * Calculates the axis-aligned bounds of the viewport in the current coordinate system of a
+     * batch, i.e., transforming the corners of the viewport by the inverse of the projection
+     * and transform matrices (which takes into account rotated or scaled groups).
+     *
+     * @return false if the bounds cannot be calculated (e.g., a group is scaled by 0)
+     */
+    public static boolean getViewportBounds(Batch batch, Rectangle bounds) {
+        Matrix4 matrix = tmpMatrix.set(batch.getProjectionMatrix())
+                .mul(batch.getTransformMatrix());
+        if (matrix.det() == 0) {
+            return false;
+        }
+        matrix.inv();
+
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for (int corner = 0; corner < 4; corner++) {
+            tmpVector.set(corner == 0 || corner == 3 ? -1 : 1, corner < 2 ? -1 : 1, 0);
+            tmpVector.prj(matrix);
+            minX = Math.min(minX, tmpVector.x);
+            minY = Math.min(minY, tmpVector.y);
+            maxX = Math.max(maxX, tmpVector.x);
+            maxY = Math.max(maxY, tmpVector.y);
+        }
+        bounds.set(minX, minY, maxX - minX, maxY - minY);
+        return true;
+    }
+
+    /**
+     * Calculates how many screen pixels a unit of the current coordinate system of a batch
+     * covers, i.e., the scale applied by the projection and transform matrices (which takes
+     * into account scaled groups, viewport scaling and camera zoom).
+     *
+     * @see #getPixelScale(Matrix4, Matrix4, float, float)
+     */
+    public static float getPixelScale(Batch batch) {
+        return getPixelScale(batch.getProjectionMatrix(), batch.getTransformMatrix(),
+                Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+    }
+
+    /**
+     * @param screenWidth
+     *         width in pixels of the area the normalized device coordinates are mapped to
+     * @param screenHeight
+     *         height in pixels of the area the normalized device coordinates are mapped to
+     *
+     * @return the largest of the horizontal and vertical scales, in pixels per unit
+     */
+    public static float getPixelScale(Matrix4 projection, Matrix4 transform, float screenWidth,
+                                      float screenHeight) {
+        // Only the 2D linear part of projection * transform is needed, i.e., the images of the
+        // unit vectors of both axes in normalized device coordinates
+        float[] p = projection.val;
+        float[] t = transform.val;
+        float m00 = p[Matrix4.M00] * t[Matrix4.M00] + p[Matrix4.M01] * t[Matrix4.M10] +
+                p[Matrix4.M02] * t[Matrix4.M20];
+        float m10 = p[Matrix4.M10] * t[Matrix4.M00] + p[Matrix4.M11] * t[Matrix4.M10] +
+                p[Matrix4.M12] * t[Matrix4.M20];
+        float m01 = p[Matrix4.M00] * t[Matrix4.M01] + p[Matrix4.M01] * t[Matrix4.M11] +
+                p[Matrix4.M02] * t[Matrix4.M21];
+        float m11 = p[Matrix4.M10] * t[Matrix4.M01] + p[Matrix4.M11] * t[Matrix4.M11] +
+                p[Matrix4.M12] * t[Matrix4.M21];
+
+        // Length in pixels of those vectors
+        float halfWidth = 0.5f * screenWidth;
+        float halfHeight = 0.5f * screenHeight;
+        float scaleX = (float) Math.hypot(m00 * halfWidth, m10 * halfHeight);
+        float scaleY = (float) Math.hypot(m01 * halfWidth, m11 * halfHeight);
+        return Math.max(scaleX, scaleY);
+    }
+
+    /**
+     * Calculates the axis-aligned bounds of a rectangle, given in the local coordinates of an
+     * actor-like object, in the coordinates of its parent. The local coordinates are scaled and
+     * rotated around the origin, and then translated by the position.
+     *
+     * @param local
+     *         the rectangle in local coordinates (may be the same object as 'bounds')
+     * @param bounds
+     *         output rectangle
+     */
+    public static void transformBounds(Rectangle local, float x, float y, float originX,
+                                       float originY, float scaleX, float scaleY, float rotation,
+                                       Rectangle bounds) {
+        float localX = local.x;
+        float localY = local.y;
+        float localX2 = local.x + local.width;
+        float localY2 = local.y + local.height;
+
+        // Fast path: no scale, no rotation
+        if (rotation == 0 && scaleX == 1 && scaleY == 1) {
+            bounds.set(x + localX, y + localY, localX2 - localX, localY2 - localY);
+            return;
+        }
+
+        float cos = rotation == 0 ? 1 : MathUtils.cosDeg(rotation);
+        float sin = rotation == 0 ? 0 : MathUtils.sinDeg(rotation);
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for (int corner = 0; corner < 4; corner++) {
+            float cornerX = ((corner == 0 || corner == 3 ? localX : localX2) - originX) * scaleX;
+            float cornerY = ((corner < 2 ? localY : localY2) - originY) * scaleY;
+            float transformedX = x + originX + cos * cornerX - sin * cornerY;
+            float transformedY = y + originY + sin * cornerX + cos * cornerY;
+            minX = Math.min(minX, transformedX);
+            minY = Math.min(minY, transformedY);
+            maxX = Math.max(maxX, transformedX);
+            maxY = Math.max(maxY, transformedY);
+        }
+        bounds.set(minX, minY, maxX - minX, maxY - minY);
     }
 
     /**
@@ -134,11 +324,11 @@ public class DrawUtils {
     public static float haltonSequence(int index, int base) {
         float result = 0;
         float fraction = 1.f / (float) base;
-        float i = (float) index;
+        int i = index;
 
         while (i > 0) {
             result += fraction * (i % base);
-            i = (float) Math.floor(i / base);
+            i /= base;
             fraction /= base;
         }
 
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+/**
+ * A precomputed table of the first elements of a Halton sequence (see
+ * {@link DrawUtils#haltonSequence(int, int)}). Indices beyond the size of the table wrap around.
+ */
+public class HaltonTable {
+    protected final int base;
+    protected final float[] values;
+
+    public HaltonTable(int base, int size) {
+        if (base < 2) {
+            throw new IllegalArgumentException("base must be >= 2, provided = " + base);
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be > 0, provided = " + size);
+        }
+
+        this.base = base;
+        values = new float[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = DrawUtils.haltonSequence(i, base);
+        }
+    }
+
+    public float get(int index) {
+        int i = index % values.length;
+        return values[i < 0 ? i + values.length : i];
+    }
+
+    public int getBase() {
+        return base;
+    }
+
+    public int getSize() {
+        return values.length;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+/**
+ * Implemented by objects holding caches that can be released under memory pressure and
+ * recreated lazily when they are needed again. Trim levels mirror the values of Android's
+ * ComponentCallbacks2, so that they can be forwarded as received.
+ */
+public interface MemoryTrimmable {
+    public static final int TRIM_MEMORY_RUNNING_MODERATE = 5;
+    public static final int TRIM_MEMORY_RUNNING_LOW = 10;
+    public static final int TRIM_MEMORY_RUNNING_CRITICAL = 15;
+    public static final int TRIM_MEMORY_UI_HIDDEN = 20;
+    public static final int TRIM_MEMORY_BACKGROUND = 40;
+    public static final int TRIM_MEMORY_MODERATE = 60;
+    public static final int TRIM_MEMORY_COMPLETE = 80;
+
+    /**
+     * Releases the caches that are not needed at the given trim level.
+     *
+     * @param level
+     *         one of the TRIM_MEMORY_* levels; higher levels mean higher memory pressure
+     * @param visible
+     *         whether the object is currently visible on screen
+     */
+    public void trimMemory(int level, boolean visible);
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Group;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.SnapshotArray;
+import com.quadbits.gdxhelper.actors.Cullable;
+import com.quadbits.gdxhelper.actors.Occluder;
+
+/**
+ * Hides the actors of a tree that are completely covered by opaque actors drawn after them.
+ * <p/>
+ * The tree is visited in reverse drawing order, collecting the opaque rectangles of visible
+ * {@link Occluder}s (in the root's coordinates). A {@link Cullable} actor (or group) whose
+ * bounds are contained in one of the rectangles collected so far is hidden until {@link
+ * #restore()} is called. Only whole actors are culled, against single rectangles (not unions),
+ * and groups that are rotated or scaled are neither visited nor used as occluders, so the test
+ * is conservative. At most {@link #MAX_OCCLUDERS} rectangles are kept.
+ */
+public class OcclusionCuller {
+    protected final Array<Rectangle> occluders;
+    protected int occluderCount;
+    protected final Array<Actor> occludedActors;
+    protected final Rectangle bounds;
+    protected final Rectangle viewportBounds;
+    protected boolean viewportCovered;
+
+    public static final int MAX_OCCLUDERS = 16;
+
+    public OcclusionCuller() {
+        occluders = new Array<Rectangle>();
+        occludedActors = new Array<Actor>();
+        bounds = new Rectangle();
+        viewportBounds = new Rectangle();
+    }
+
+    /**
+     * Hides the occluded actors of a tree. Actors hidden by a previous call are restored first.
+     *
+     * @param viewport
+     *         the viewport, in the root's coordinates, or null if unknown
+     *
+     * @return true if the viewport is completely covered by a single opaque actor (e.g., the
+     * color buffer does not need to be cleared)
+     */
+    public boolean cull(Group root, Rectangle viewport) {
+        restore();
+        occluderCount = 0;
+        viewportCovered = false;
+        if (viewport != null) {
+            viewportBounds.set(viewport);
+        }
+
+        cullChildren(root, 0, 0, root.getColor().a, viewport != null);
+        return viewportCovered;
+    }
+
+    protected void cullChildren(Group group, float offsetX, float offsetY, float alpha,
+                                boolean checkViewport) {
+        SnapshotArray<Actor> children = group.getChildren();
+        Actor[] actors = children.begin();
+        for (int i = children.size - 1; i >= 0; i--) {
+            Actor child = actors[i];
+            if (!child.isVisible()) {
+                continue;
+            }
+
+            // Covered by the actors drawn after it?
+            if (child instanceof Cullable && ((Cullable) child).getCullingBounds(bounds)) {
+                bounds.x += offsetX;
+                bounds.y += offsetY;
+                if (isOccluded(bounds)) {
+                    child.setVisible(false);
+                    occludedActors.add(child);
+                    continue;
+                }
+            }
+
+            float childAlpha = alpha * child.getColor().a;
+
+            // Groups: visit children, unless the group is rotated or scaled
+            if (child instanceof Group) {
+                Group childGroup = (Group) child;
+                if (!childGroup.isTransform() || (childGroup.getRotation() == 0 &&
+                        childGroup.getScaleX() == 1 && childGroup.getScaleY() == 1)) {
+                    cullChildren(childGroup, offsetX + child.getX(), offsetY + child.getY(),
+                            childAlpha, checkViewport);
+                }
+            }
+
+            // Opaque actors occlude everything drawn before them
+            else if (child instanceof Occluder && childAlpha >= 1 &&
+                    ((Occluder) child).getOpaqueBounds(bounds)) {
+                bounds.x += offsetX;
+                bounds.y += offsetY;
+                addOccluder(bounds);
+                if (checkViewport && contains(bounds, viewportBounds)) {
+                    viewportCovered = true;
+                }
+            }
+        }
+        children.end();
+    }
+
+    protected boolean isOccluded(Rectangle rectangle) {
+        for (int i = 0; i < occluderCount; i++) {
+            if (contains(occluders.get(i), rectangle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected void addOccluder(Rectangle rectangle) {
+        if (rectangle.width <= 0 || rectangle.height <= 0 || isOccluded(rectangle) ||
+                occluderCount == MAX_OCCLUDERS) {
+            return;
+        }
+
+        if (occluderCount == occluders.size) {
+            occluders.add(new Rectangle());
+        }
+        occluders.get(occluderCount++).set(rectangle);
+    }
+
+    protected static boolean contains(Rectangle outer, Rectangle inner) {
+        return inner.x >= outer.x && inner.y >= outer.y &&
+                inner.x + inner.width <= outer.x + outer.width &&
+                inner.y + inner.height <= outer.y + outer.height;
+    }
+
+    /**
+     * Shows the actors hidden by the last call to {@link #cull(Group, Rectangle)}.
+     */
+    public void restore() {
+        for (Actor actor : occludedActors) {
+            actor.setVisible(true);
+        }
+        occludedActors.clear();
+    }
+
+    /**
+     * @return the number of actors hidden by the last call to {@link #cull(Group, Rectangle)}
+     */
+    public int getOccludedActorCount() {
+        return occludedActors.size;
+    }
+
+    public int getOccluderCount() {
+        return occluderCount;
+    }
+}
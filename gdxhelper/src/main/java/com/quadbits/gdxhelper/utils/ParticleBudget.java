@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.quadbits.gdxhelper.screens.PerGameScreen;
+
+import javax.inject.Inject;
+
+/**
+ * A per-screen budget for particle effects. Clients (effects) register with a priority, report
+ * the time they spend updating and drawing their particles, and are told the fraction of their
+ * emission they may use.
+ * <p/>
+ * Once per frame ({@link #endFrame()}), the load is measured as the largest of the live
+ * particle count and the (smoothed) particle time, relative to their budgets. While the load is
+ * over budget, a pressure value grows; when it is comfortably under budget, the pressure
+ * decays. The pressure is distributed by priority: the clients with the lowest priority are
+ * scaled down first (down to {@link #getMinEmissionScale()}), then those with the next
+ * priority, and so on.
+ */
+@PerGameScreen
+public class ParticleBudget {
+    public interface Client {
+        public int getLiveParticleCount();
+
+        public void setEmissionScale(float emissionScale);
+    }
+
+    protected final Array<Client> clients;
+    protected final IntArray priorities;
+    protected final IntArray priorityLevels; // distinct priorities, ascending
+    protected int maxLiveParticles;
+    protected float maxParticleMillis;
+    protected float minEmissionScale;
+    protected float pressure;
+    protected float pressureIncrement;
+    protected float pressureDecrement;
+    protected float underBudgetLoad;
+
+    // Metrics
+    protected int liveParticleCount;
+    protected long frameParticleNanos;
+    protected float particleMillis;
+    protected float load;
+
+    public static final int DEFAULT_MAX_LIVE_PARTICLES = 2000;
+    public static final float DEFAULT_MAX_PARTICLE_MILLIS = 4;
+    public static final float DEFAULT_MIN_EMISSION_SCALE = 0.1f;
+    public static final float DEFAULT_PRESSURE_INCREMENT = 0.05f;
+    public static final float DEFAULT_PRESSURE_DECREMENT = 0.01f;
+    public static final float DEFAULT_UNDER_BUDGET_LOAD = 0.75f;
+    public static final float PARTICLE_MILLIS_SMOOTHING = 0.1f;
+
+    @Inject
+    public ParticleBudget() {
+        clients = new Array<Client>();
+        priorities = new IntArray();
+        priorityLevels = new IntArray();
+        maxLiveParticles = DEFAULT_MAX_LIVE_PARTICLES;
+        maxParticleMillis = DEFAULT_MAX_PARTICLE_MILLIS;
+        minEmissionScale = DEFAULT_MIN_EMISSION_SCALE;
+        pressureIncrement = DEFAULT_PRESSURE_INCREMENT;
+        pressureDecrement = DEFAULT_PRESSURE_DECREMENT;
+        underBudgetLoad = DEFAULT_UNDER_BUDGET_LOAD;
+        pressure = 0;
+        liveParticleCount = 0;
+        frameParticleNanos = 0;
+        particleMillis = 0;
+        load = 0;
+    }
+
+    /**
+     * Registers a client, or updates its priority if it is already registered. Higher
+     * priorities are scaled down later.
+     */
+    public void register(Client client, int priority) {
+        int index = clients.indexOf(client, true);
+        if (index == -1) {
+            clients.add(client);
+            priorities.add(priority);
+        } else {
+            priorities.set(index, priority);
+        }
+        updatePriorityLevels();
+        client.setEmissionScale(getEmissionScale(priority));
+    }
+
+    public void unregister(Client client) {
+        int index = clients.indexOf(client, true);
+        if (index != -1) {
+            clients.removeIndex(index);
+            priorities.removeIndex(index);
+            updatePriorityLevels();
+        }
+    }
+
+    protected void updatePriorityLevels() {
+        priorityLevels.clear();
+        for (int i = 0; i < priorities.size; i++) {
+            if (!priorityLevels.contains(priorities.get(i))) {
+                priorityLevels.add(priorities.get(i));
+            }
+        }
+        priorityLevels.sort();
+    }
+
+    /**
+     * Adds time spent by a client simulating or drawing its particles during this frame.
+     */
+    public void addParticleNanos(long nanos) {
+        frameParticleNanos += nanos;
+    }
+
+    /**
+     * Measures the load of the frame that has just been rendered, updates the pressure and the
+     * emission scales of the clients.
+     */
+    public void endFrame() {
+        liveParticleCount = 0;
+        for (Client client : clients) {
+            liveParticleCount += client.getLiveParticleCount();
+        }
+        particleMillis += (frameParticleNanos / 1000000f - particleMillis) *
+                PARTICLE_MILLIS_SMOOTHING;
+        frameParticleNanos = 0;
+
+        load = Math.max((float) liveParticleCount / maxLiveParticles,
+                particleMillis / maxParticleMillis);
+        if (load > 1) {
+            pressure = Math.min(1, pressure + pressureIncrement);
+        } else if (load < underBudgetLoad) {
+            pressure = Math.max(0, pressure - pressureDecrement);
+        }
+
+        for (int i = 0; i < clients.size; i++) {
+            clients.get(i).setEmissionScale(getEmissionScale(priorities.get(i)));
+        }
+    }
+
+    /**
+     * Calculates the emission scale of a client with the given priority under the current
+     * pressure. The pressure range [0, 1] is split evenly among the distinct priorities of the
+     * registered clients, starting from the lowest one.
+     */
+    public float getEmissionScale(int priority) {
+        if (pressure == 0) {
+            return 1;
+        }
+
+        // Rank of the priority among the distinct priorities
+        int rank = 0;
+        while (rank < priorityLevels.size && priorityLevels.get(rank) < priority) {
+            rank++;
+        }
+
+        float levelPressure = pressure * Math.max(1, priorityLevels.size) - rank;
+        if (levelPressure <= 0) {
+            return 1;
+        }
+        if (levelPressure >= 1) {
+            return minEmissionScale;
+        }
+        return 1 - levelPressure * (1 - minEmissionScale);
+    }
+
+    public int getClientCount() {
+        return clients.size;
+    }
+
+    public int getLiveParticleCount() {
+        return liveParticleCount;
+    }
+
+    /**
+     * @return the smoothed time spent on particles per frame, in milliseconds
+     */
+    public float getParticleMillis() {
+        return particleMillis;
+    }
+
+    /**
+     * @return the use of the budget in the last frame (1 = fully used)
+     */
+    public float getLoad() {
+        return load;
+    }
+
+    /**
+     * @return how much emissions are being scaled down, in [0, 1]
+     */
+    public float getPressure() {
+        return pressure;
+    }
+
+    public int getMaxLiveParticles() {
+        return maxLiveParticles;
+    }
+
+    public void setMaxLiveParticles(int maxLiveParticles) {
+        this.maxLiveParticles = maxLiveParticles;
+    }
+
+    public float getMaxParticleMillis() {
+        return maxParticleMillis;
+    }
+
+    public void setMaxParticleMillis(float maxParticleMillis) {
+        this.maxParticleMillis = maxParticleMillis;
+    }
+
+    public float getMinEmissionScale() {
+        return minEmissionScale;
+    }
+
+    public void setMinEmissionScale(float minEmissionScale) {
+        this.minEmissionScale = minEmissionScale;
+    }
+
+    public void setPressureIncrement(float pressureIncrement) {
+        this.pressureIncrement = pressureIncrement;
+    }
+
+    public void setPressureDecrement(float pressureDecrement) {
+        this.pressureDecrement = pressureDecrement;
+    }
+
+    public void setUnderBudgetLoad(float underBudgetLoad) {
+        this.underBudgetLoad = underBudgetLoad;
+    }
+}
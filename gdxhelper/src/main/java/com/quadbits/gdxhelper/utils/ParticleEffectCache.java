@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.Disposable;
+import com.quadbits.gdxhelper.PerGame;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import javax.inject.Inject;
+
+/**
+ * Keeps the particle effect prototypes (and the pools of effects copied from them) for the
+ * lifetime of the game, so that effect files are parsed only once, no matter how many times the
+ * stage is rebuilt (e.g., on every rotation).
+ * <p/>
+ * Prototypes are bound to the regions of the current texture atlas of the {@link
+ * TextureAtlasProxy}. If the atlas changes, their images are looked up again in the new atlas
+ * (without parsing the effect files again), and the free effects bound to the old one are
+ * dropped.
+ * <p/>
+ * The number of prototypes is bounded: when the bound is exceeded, the least recently used
+ * prototypes without effects in use are disposed.
+ */
+@PerGame
+public class ParticleEffectCache implements Disposable, MemoryTrimmable {
+    protected final LinkedHashMap<String, Entry> entries;
+    protected int maxPrototypes;
+    protected int maxFreeEffects;
+    protected int loadCount;
+
+    @Inject
+    protected TextureAtlasProxy textureAtlasProxy;
+
+    public static final int DEFAULT_MAX_PROTOTYPES = 16;
+    public static final int DEFAULT_MAX_FREE_EFFECTS = 70;
+
+    @Inject
+    public ParticleEffectCache() {
+        // Access order, so that iteration starts from the least recently used entry
+        entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+        maxPrototypes = DEFAULT_MAX_PROTOTYPES;
+        maxFreeEffects = DEFAULT_MAX_FREE_EFFECTS;
+        loadCount = 0;
+    }
+
+    /**
+     * Obtains an effect copied from the prototype of an effect file, loading the prototype if
+     * needed. The effect must be freed with {@link ParticleEffectPool.PooledEffect#free()}.
+     *
+     * @param atlasPrefix
+     *         the prefix of the names of the effect's images in the atlas, or null
+     */
+    public ParticleEffectPool.PooledEffect obtain(String effectFile, String atlasPrefix) {
+        return getPool(effectFile, atlasPrefix).obtain();
+    }
+
+    /**
+     * Makes sure that there are at least count effects available for an effect file (in use or
+     * free), so that obtaining them later does not need to copy the prototype.
+     */
+    public void prewarm(String effectFile, String atlasPrefix, int count) {
+        CachedEffectPool pool = getPool(effectFile, atlasPrefix);
+        int missing = Math.min(count - pool.inUse, maxFreeEffects) - pool.getFree();
+        if (missing <= 0) {
+            return;
+        }
+
+        ParticleEffectPool.PooledEffect[] effects = new ParticleEffectPool.PooledEffect[missing];
+        for (int i = 0; i < missing; i++) {
+            effects[i] = pool.obtain();
+        }
+        for (ParticleEffectPool.PooledEffect effect : effects) {
+            effect.free();
+        }
+    }
+
+    protected CachedEffectPool getPool(String effectFile, String atlasPrefix) {
+        String key = atlasPrefix == null ? effectFile : effectFile + '#' + atlasPrefix;
+        TextureAtlas atlas = textureAtlasProxy.get();
+        Entry entry = entries.get(key);
+
+        if (entry == null) {
+            ParticleEffect prototype = new ParticleEffect();
+            if (atlasPrefix == null) {
+                prototype.load(Gdx.files.internal(effectFile), atlas);
+            } else {
+                prototype.load(Gdx.files.internal(effectFile), atlas, atlasPrefix);
+            }
+            loadCount++;
+
+            // Make room for the new prototype
+            evictLeastRecentlyUsed(maxPrototypes - 1);
+            entry = new Entry(prototype, new CachedEffectPool(prototype, maxFreeEffects));
+            entry.atlas = atlas;
+            entry.atlasPrefix = atlasPrefix;
+            entries.put(key, entry);
+        }
+
+        // Bind the prototype to the current atlas
+        else if (entry.atlas != atlas) {
+            if (entry.atlasPrefix == null) {
+                entry.prototype.loadEmitterImages(atlas);
+            } else {
+                entry.prototype.loadEmitterImages(atlas, entry.atlasPrefix);
+            }
+            entry.atlas = atlas;
+            entry.pool.clearFreeObjects();
+        }
+
+        return entry.pool;
+    }
+
+    protected void evictLeastRecentlyUsed(int maxEntries) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.pool.inUse > 0) {
+                continue;
+            }
+            entry.dispose();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Drops the free effects from {@link MemoryTrimmable#TRIM_MEMORY_RUNNING_LOW} on, and also
+     * the prototypes without effects in use from {@link MemoryTrimmable#TRIM_MEMORY_BACKGROUND}
+     * on.
+     */
+    @Override
+    public void trimMemory(int level, boolean visible) {
+        if (level < MemoryTrimmable.TRIM_MEMORY_RUNNING_LOW) {
+            return;
+        }
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            entry.pool.clearFreeObjects();
+            if (level >= MemoryTrimmable.TRIM_MEMORY_BACKGROUND && entry.pool.inUse == 0) {
+                entry.dispose();
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        for (Entry entry : entries.values()) {
+            entry.dispose();
+        }
+        entries.clear();
+    }
+
+    public int getPrototypeCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of effect files parsed since the game started
+     */
+    public int getLoadCount() {
+        return loadCount;
+    }
+
+    public int getMaxPrototypes() {
+        return maxPrototypes;
+    }
+
+    public void setMaxPrototypes(int maxPrototypes) {
+        if (maxPrototypes <= 0) {
+            throw new IllegalArgumentException(
+                    "maxPrototypes must be > 0, provided = " + maxPrototypes);
+        }
+        this.maxPrototypes = maxPrototypes;
+        evictLeastRecentlyUsed(maxPrototypes);
+    }
+
+    protected static class Entry {
+        final ParticleEffect prototype;
+        final CachedEffectPool pool;
+        TextureAtlas atlas;
+        String atlasPrefix;
+
+        Entry(ParticleEffect prototype, CachedEffectPool pool) {
+            this.prototype = prototype;
+            this.pool = pool;
+        }
+
+        void dispose() {
+            pool.clearFreeObjects();
+            prototype.dispose();
+        }
+    }
+
+    /**
+     * A pool of effects that keeps track of how many of them are in use.
+     */
+    protected static class CachedEffectPool extends ParticleEffectPool {
+        int inUse;
+
+        CachedEffectPool(ParticleEffect prototype, int maxFreeEffects) {
+            super(prototype, 1, maxFreeEffects);
+            inUse = 0;
+        }
+
+        @Override
+        public PooledEffect obtain() {
+            inUse++;
+            return super.obtain();
+        }
+
+        @Override
+        public void free(PooledEffect effect) {
+            inUse--;
+            super.free(effect);
+        }
+
+        void clearFreeObjects() {
+            inUse -= PoolRegistry.clearFreeObjects(this);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Keeps track of the per-game pools, so that their free lists can be released under memory
+ * pressure. Objects are created again by the pools as soon as they are needed.
+ */
+public class PoolRegistry {
+    protected Array<Pool<?>> pools;
+
+    public PoolRegistry() {
+        pools = new Array<Pool<?>>();
+    }
+
+    public <T> Pool<T> register(Pool<T> pool) {
+        pools.add(pool);
+        return pool;
+    }
+
+    public void unregister(Pool<?> pool) {
+        pools.removeValue(pool, true);
+    }
+
+    /**
+     * Empties the free lists of all the registered pools, disposing the free objects that hold
+     * native resources.
+     *
+     * @return the number of objects released
+     */
+    public int clearFreeObjects() {
+        int released = 0;
+        for (Pool<?> pool : pools) {
+            released += clearFreeObjects(pool);
+        }
+        return released;
+    }
+
+    public static int clearFreeObjects(Pool<?> pool) {
+        // Free objects are not reset when obtained, so they can be drained and dropped
+        int free = pool.getFree();
+        for (int i = 0; i < free; i++) {
+            Object object = pool.obtain();
+            if (object instanceof Disposable) {
+                ((Disposable) object).dispose();
+            }
+        }
+        return free;
+    }
+
+    public int getFreeObjectCount() {
+        int free = 0;
+        for (Pool<?> pool : pools) {
+            free += pool.getFree();
+        }
+        return free;
+    }
+
+    public int getPoolCount() {
+        return pools.size;
+    }
+}
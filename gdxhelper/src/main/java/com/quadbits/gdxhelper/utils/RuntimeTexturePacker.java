@@ -0,0 +1,646 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.quadbits.gdxhelper.LWPGame;
+import com.quadbits.gdxhelper.PerGame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+
+import javax.inject.Inject;
+
+/**
+ * Packs pixmaps generated or loaded at runtime into shared texture pages, so that the sprites
+ * using them can be drawn in the same batch without switching textures.
+ * <p/>
+ * Pixmaps are copied into a page (keeping a padding between them) and the returned {@link
+ * TextureRegion} points to the page texture. Insertion is incremental: only the sub-rectangle of
+ * the new pixels is uploaded to the GPU, and pages do not keep a copy of their pixels in CPU
+ * memory. Regions that are no longer needed can be removed; the space they used is reclaimed
+ * by {@link #compact()}, which reads the pages back from the GPU and re-packs all live regions
+ * into as few pages as possible. Regions returned by this class are updated in place when
+ * pages are compacted, so callers can keep references to them.
+ * <p/>
+ * Pages are managed textures: when the GL context is lost, each page is rebuilt from the {@link
+ * PixmapSource}s of its regions, which are asked for their pixels again. Regions packed from a
+ * plain pixmap have no source and are left transparent after a context loss, so they should be
+ * packed again on resume.
+ * <p/>
+ * The packer also hosts the game's {@link WhiteTexel} in its first page (restored from its own
+ * source), so that untextured geometry is batched together with the packed sprites.
+ * <p/>
+ * The packer is created on demand, when injected for the first time, and it is disposed along
+ * with the game only if it was created. All the methods of this class must be called from the
+ * GL thread.
+ */
+@PerGame
+public class RuntimeTexturePacker implements Disposable {
+    protected int pageWidth;
+    protected int pageHeight;
+    protected int padding;
+    protected Pixmap.Format pageFormat;
+    protected Texture.TextureFilter minFilter;
+    protected Texture.TextureFilter magFilter;
+    protected boolean hostWhiteTexel;
+    protected Array<Page> pages;
+    protected HashMap<String, Entry> entries;
+    private final Rectangle tmpRectangle;
+    private final PixmapSource whiteTexelSource;
+
+    @Inject
+    protected WhiteTexel whiteTexel;
+
+    @Inject
+    protected TextureMemoryTracker textureMemoryTracker;
+
+    public static final int DEFAULT_PAGE_SIZE = 1024;
+    public static final int DEFAULT_PADDING = 2;
+    public static final String WHITE_TEXEL_NAME = "__white_texel__";
+    public static final String TEXTURE_MEMORY_OWNER = "RuntimeTexturePacker";
+
+    @Inject
+    public RuntimeTexturePacker() {
+        pageWidth = DEFAULT_PAGE_SIZE;
+        pageHeight = DEFAULT_PAGE_SIZE;
+        padding = DEFAULT_PADDING;
+        pageFormat = Pixmap.Format.RGBA8888;
+        minFilter = Texture.TextureFilter.Linear;
+        magFilter = Texture.TextureFilter.Linear;
+        hostWhiteTexel = true;
+        pages = new Array<Page>();
+        entries = new HashMap<String, Entry>();
+        tmpRectangle = new Rectangle();
+        whiteTexelSource = new PixmapSource() {
+            @Override
+            public Pixmap newPixmap() {
+                // A 3x3 white block; the center texel is used, so that linear filtering never
+                // samples the (transparent) padding around it
+                Pixmap pixmap = new Pixmap(3, 3, Pixmap.Format.RGBA8888);
+                pixmap.setColor(Color.WHITE);
+                pixmap.fill();
+                return pixmap;
+            }
+        };
+    }
+
+    @Inject
+    void registerWithGame(LWPGame game) {
+        game.registerDisposable(this);
+    }
+
+    /**
+     * Packs a pixmap into a shared page. If a region with the same name already exists,
+     * its contents are replaced. The pixmap is not disposed; callers may dispose it as soon as
+     * this method returns.
+     *
+     * @param name
+     *         the name of the region
+     * @param pixmap
+     *         the pixmap to pack
+     *
+     * @return the packed region, or null if the pixmap is too big to be packed in a page (in
+     * which case callers should fall back to a standalone texture)
+     */
+    public TextureRegion pack(String name, Pixmap pixmap) {
+        return pack(name, pixmap, null);
+    }
+
+    /**
+     * Packs the pixmap created by a source into a shared page. The source is kept along with
+     * the region and is asked for the pixels again whenever the page has to be restored after
+     * a loss of the GL context.
+     *
+     * @param name
+     *         the name of the region
+     * @param source
+     *         the source of the pixels of the region
+     *
+     * @return the packed region, or null if the pixmap is too big to be packed in a page
+     */
+    public TextureRegion pack(String name, PixmapSource source) {
+        Pixmap pixmap = source.newPixmap();
+        TextureRegion region = pack(name, pixmap, source);
+        pixmap.dispose();
+        return region;
+    }
+
+    protected TextureRegion pack(String name, Pixmap pixmap, PixmapSource source) {
+        int width = pixmap.getWidth();
+        int height = pixmap.getHeight();
+        if (!fits(width, height)) {
+            return null;
+        }
+
+        if (hostWhiteTexel && !WHITE_TEXEL_NAME.equals(name) &&
+                !entries.containsKey(WHITE_TEXEL_NAME)) {
+            packWhiteTexel();
+        }
+
+        // Replace an existing region in place when possible
+        Entry entry = entries.get(name);
+        if (entry != null) {
+            if (entry.width == width && entry.height == height) {
+                entry.source = source;
+                entry.page.write(pixmap, entry.x, entry.y);
+                return entry.region;
+            }
+            remove(name);
+        }
+
+        // Find a page with room for the pixmap; create a new one if there is none
+        Page page = null;
+        for (Page candidate : pages) {
+            if (candidate.allocator.allocate(width, height, tmpRectangle)) {
+                page = candidate;
+                break;
+            }
+        }
+        if (page == null) {
+            page = newPage();
+            page.allocator.allocate(width, height, tmpRectangle);
+        }
+
+        // Copy the pixels and create the region
+        if (entry == null) {
+            entry = new Entry();
+            entry.region = new TextureRegion();
+        }
+        entry.page = page;
+        entry.x = (int) tmpRectangle.x;
+        entry.y = (int) tmpRectangle.y;
+        entry.width = width;
+        entry.height = height;
+        entry.source = source;
+        page.liveArea += (long) width * height;
+        page.write(pixmap, entry.x, entry.y);
+        entry.updateRegion();
+        entries.put(name, entry);
+
+        return entry.region;
+    }
+
+    /**
+     * @return the region packed with the given name, or null if there is no such region
+     */
+    public TextureRegion get(String name) {
+        Entry entry = entries.get(name);
+        return entry == null ? null : entry.region;
+    }
+
+    public boolean contains(String name) {
+        return entries.containsKey(name);
+    }
+
+    /**
+     * Removes a region. Its space in the page is not reused until {@link #compact()} is called.
+     * Pages left without any region are disposed immediately.
+     */
+    public void remove(String name) {
+        Entry entry = entries.remove(name);
+        if (entry == null) {
+            return;
+        }
+
+        Page page = entry.page;
+        page.liveArea -= (long) entry.width * entry.height;
+        entry.region.setTexture(null);
+        if (WHITE_TEXEL_NAME.equals(name) && whiteTexel != null) {
+            whiteTexel.dispose();
+        }
+        if (page.liveArea <= 0) {
+            pages.removeValue(page, true);
+            disposePage(page);
+        }
+    }
+
+    /**
+     * Re-packs all live regions into as few pages as possible, reclaiming the space of removed
+     * regions. Regions are sorted by decreasing height before being packed, which usually
+     * results in a denser packing than the incremental one.
+     */
+    public void compact() {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        ArrayList<Entry> sortedEntries = new ArrayList<Entry>(entries.values());
+        Collections.sort(sortedEntries, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry e1, Entry e2) {
+                return e2.height - e1.height;
+            }
+        });
+
+        // Pages only live in GPU memory, so their pixels are read back for re-packing
+        Array<Page> oldPages = pages;
+        HashMap<Page, Pixmap> oldPixmaps = new HashMap<Page, Pixmap>();
+        for (Page page : oldPages) {
+            oldPixmaps.put(page, readPixels(page.texture));
+        }
+
+        pages = new Array<Page>();
+        Array<Pixmap> newPixmaps = new Array<Pixmap>();
+        Pixmap.Blending oldBlending = Pixmap.getBlending();
+        Pixmap.setBlending(Pixmap.Blending.None);
+        for (Entry entry : sortedEntries) {
+            Page page = null;
+            for (Page candidate : pages) {
+                if (candidate.allocator.allocate(entry.width, entry.height, tmpRectangle)) {
+                    page = candidate;
+                    break;
+                }
+            }
+            if (page == null) {
+                page = new Page(newAllocator());
+                pages.add(page);
+                newPixmaps.add(newPagePixmap(page));
+                page.allocator.allocate(entry.width, entry.height, tmpRectangle);
+            }
+
+            Pixmap pixmap = newPixmaps.get(pages.indexOf(page, true));
+            pixmap.drawPixmap(oldPixmaps.get(entry.page), (int) tmpRectangle.x,
+                    (int) tmpRectangle.y, entry.x, entry.y, entry.width, entry.height);
+            page.liveArea += (long) entry.width * entry.height;
+            entry.page = page;
+            entry.x = (int) tmpRectangle.x;
+            entry.y = (int) tmpRectangle.y;
+        }
+        Pixmap.setBlending(oldBlending);
+
+        for (Pixmap pixmap : oldPixmaps.values()) {
+            pixmap.dispose();
+        }
+
+        // Upload the new pages (which take ownership of the pixmaps), and point the regions to
+        // them
+        for (int i = 0; i < pages.size; i++) {
+            Page page = pages.get(i);
+            page.upload(new PageTextureData(page, newPixmaps.get(i)), minFilter, magFilter);
+            trackPage(page);
+        }
+        for (Entry entry : sortedEntries) {
+            entry.updateRegion();
+        }
+        updateWhiteTexel();
+
+        for (Page page : oldPages) {
+            disposePage(page);
+        }
+    }
+
+    /**
+     * @return the fraction of the pages' area covered by live regions, in [0, 1]
+     */
+    public float getOccupancy() {
+        if (pages.size == 0) {
+            return 0;
+        }
+
+        long liveArea = 0;
+        for (Page page : pages) {
+            liveArea += page.liveArea;
+        }
+        return (float) liveArea / ((long) pages.size * pageWidth * pageHeight);
+    }
+
+    public int getPageCount() {
+        return pages.size;
+    }
+
+    public Texture getPageTexture(int index) {
+        return pages.get(index).texture;
+    }
+
+    public void setTextureFilter(Texture.TextureFilter minFilter,
+                                 Texture.TextureFilter magFilter) {
+        this.minFilter = minFilter;
+        this.magFilter = magFilter;
+        for (Page page : pages) {
+            if (page.texture != null) {
+                page.texture.setFilter(minFilter, magFilter);
+            }
+        }
+    }
+
+    /**
+     * Sets the size of new pages. Already existing pages are not affected until they are
+     * compacted.
+     */
+    public void setPageSize(int pageWidth, int pageHeight) {
+        this.pageWidth = pageWidth;
+        this.pageHeight = pageHeight;
+    }
+
+    public int getPageWidth() {
+        return pageWidth;
+    }
+
+    public int getPageHeight() {
+        return pageHeight;
+    }
+
+    public int getPadding() {
+        return padding;
+    }
+
+    public void setPadding(int padding) {
+        this.padding = padding;
+    }
+
+    public boolean isHostWhiteTexel() {
+        return hostWhiteTexel;
+    }
+
+    public void setHostWhiteTexel(boolean hostWhiteTexel) {
+        this.hostWhiteTexel = hostWhiteTexel;
+    }
+
+    @Override
+    public void dispose() {
+        for (Entry entry : entries.values()) {
+            entry.region.setTexture(null);
+        }
+        entries.clear();
+        for (Page page : pages) {
+            disposePage(page);
+        }
+        pages.clear();
+
+        // The white texel lived in one of our pages; let it create its own texture again
+        if (whiteTexel != null) {
+            whiteTexel.dispose();
+        }
+    }
+
+    /**
+     * @return true if a pixmap of the given size can be packed in a page
+     */
+    public boolean fits(int width, int height) {
+        return width > 0 && height > 0 && width + 2 * padding <= pageWidth &&
+                height + 2 * padding <= pageHeight;
+    }
+
+    protected ShelfAllocator newAllocator() {
+        return new ShelfAllocator(pageWidth, pageHeight, padding);
+    }
+
+    protected Page newPage() {
+        Page page = new Page(newAllocator());
+        page.upload(new PageTextureData(page, newPagePixmap(page)), minFilter, magFilter);
+        trackPage(page);
+        pages.add(page);
+        return page;
+    }
+
+    /**
+     * @return a transparent pixmap with the size of a page, to be disposed by the caller
+     */
+    protected Pixmap newPagePixmap(Page page) {
+        Pixmap pixmap =
+                new Pixmap(page.allocator.getWidth(), page.allocator.getHeight(), pageFormat);
+        Pixmap.Blending oldBlending = Pixmap.getBlending();
+        Pixmap.setBlending(Pixmap.Blending.None);
+        pixmap.setColor(0, 0, 0, 0);
+        pixmap.fill();
+        Pixmap.setBlending(oldBlending);
+        return pixmap;
+    }
+
+    /**
+     * Reads the pixels of a texture, attaching it to a temporary frame buffer. Rows are read in
+     * the order they were uploaded, so the result has the same layout as the uploaded pixmaps.
+     *
+     * @return an RGBA8888 pixmap, to be disposed by the caller
+     */
+    protected Pixmap readPixels(Texture texture) {
+        int width = texture.getWidth();
+        int height = texture.getHeight();
+        Pixmap pixmap = new Pixmap(width, height, Pixmap.Format.RGBA8888);
+
+        GL20 gl = Gdx.gl;
+        int frameBuffer = gl.glGenFramebuffer();
+        gl.glBindFramebuffer(GL20.GL_FRAMEBUFFER, frameBuffer);
+        gl.glFramebufferTexture2D(GL20.GL_FRAMEBUFFER, GL20.GL_COLOR_ATTACHMENT0,
+                GL20.GL_TEXTURE_2D, texture.getTextureObjectHandle(), 0);
+        gl.glPixelStorei(GL20.GL_PACK_ALIGNMENT, 1);
+        gl.glReadPixels(0, 0, width, height, GL20.GL_RGBA, GL20.GL_UNSIGNED_BYTE,
+                pixmap.getPixels());
+        gl.glBindFramebuffer(GL20.GL_FRAMEBUFFER, 0);
+        gl.glDeleteFramebuffer(frameBuffer);
+
+        return pixmap;
+    }
+
+    protected void trackPage(Page page) {
+        if (textureMemoryTracker != null) {
+            textureMemoryTracker.track(page.texture, TEXTURE_MEMORY_OWNER);
+        }
+    }
+
+    protected void disposePage(Page page) {
+        if (textureMemoryTracker != null && page.texture != null) {
+            textureMemoryTracker.untrack(page.texture);
+        }
+        page.dispose();
+    }
+
+    protected void packWhiteTexel() {
+        pack(WHITE_TEXEL_NAME, whiteTexelSource);
+        updateWhiteTexel();
+    }
+
+    protected void updateWhiteTexel() {
+        Entry entry = entries.get(WHITE_TEXEL_NAME);
+        if (entry == null || whiteTexel == null) {
+            return;
+        }
+        whiteTexel.setRegion(entry.page.texture, entry.x + 1, entry.y + 1, 1, 1);
+    }
+
+    /**
+     * Creates the pixels of a packed region, both when it is packed and when its page is
+     * restored after a loss of the GL context.
+     */
+    public interface PixmapSource {
+        /**
+         * @return a new pixmap, which is disposed by the packer
+         */
+        Pixmap newPixmap();
+    }
+
+    /**
+     * The data of a page texture. It is managed, so that libGDX reloads it when the GL context
+     * is restored: the page is then rebuilt from the sources of the regions it contains.
+     */
+    protected class PageTextureData implements TextureData {
+        final Page page;
+        final Pixmap.Format format;
+        Pixmap pixmap;
+
+        /**
+         * @param pixmap
+         *         the initial contents of the page, consumed by the first upload
+         */
+        PageTextureData(Page page, Pixmap pixmap) {
+            this.page = page;
+            this.format = pixmap.getFormat();
+            this.pixmap = pixmap;
+        }
+
+        @Override
+        public TextureDataType getType() {
+            return TextureDataType.Pixmap;
+        }
+
+        @Override
+        public boolean isPrepared() {
+            return pixmap != null;
+        }
+
+        @Override
+        public void prepare() {
+            if (pixmap != null) {
+                return;
+            }
+
+            pixmap = newPagePixmap(page);
+            Pixmap.Blending oldBlending = Pixmap.getBlending();
+            Pixmap.setBlending(Pixmap.Blending.None);
+            for (Entry entry : entries.values()) {
+                if (entry.page != page || entry.source == null) {
+                    continue;
+                }
+                Pixmap source = entry.source.newPixmap();
+                pixmap.drawPixmap(source, entry.x, entry.y, 0, 0, entry.width, entry.height);
+                source.dispose();
+            }
+            Pixmap.setBlending(oldBlending);
+        }
+
+        @Override
+        public Pixmap consumePixmap() {
+            Pixmap consumed = pixmap;
+            pixmap = null;
+            return consumed;
+        }
+
+        @Override
+        public boolean disposePixmap() {
+            return true;
+        }
+
+        @Override
+        public void consumeCustomData(int target) {
+            throw new UnsupportedOperationException("page data is not custom data");
+        }
+
+        @Override
+        public int getWidth() {
+            return page.allocator.getWidth();
+        }
+
+        @Override
+        public int getHeight() {
+            return page.allocator.getHeight();
+        }
+
+        @Override
+        public Pixmap.Format getFormat() {
+            return format;
+        }
+
+        @Override
+        public boolean useMipMaps() {
+            return false;
+        }
+
+        @Override
+        public boolean isManaged() {
+            return true;
+        }
+    }
+
+    protected static class Page implements Disposable {
+        final ShelfAllocator allocator;
+        Texture texture;
+        long liveArea;
+
+        Page(ShelfAllocator allocator) {
+            this.allocator = allocator;
+            texture = null;
+            liveArea = 0;
+        }
+
+        void upload(TextureData data, Texture.TextureFilter minFilter,
+                    Texture.TextureFilter magFilter) {
+            texture = new Texture(data);
+            texture.setFilter(minFilter, magFilter);
+        }
+
+        void write(Pixmap source, int x, int y) {
+            // Upload only the new pixels (glTexSubImage2D); the sub-image must have the
+            // page's format
+            Pixmap.Format format = texture.getTextureData().getFormat();
+            if (source.getFormat() == format) {
+                texture.draw(source, x, y);
+            } else {
+                Pixmap.Blending oldBlending = Pixmap.getBlending();
+                Pixmap.setBlending(Pixmap.Blending.None);
+                Pixmap converted = new Pixmap(source.getWidth(), source.getHeight(), format);
+                converted.drawPixmap(source, 0, 0);
+                texture.draw(converted, x, y);
+                converted.dispose();
+                Pixmap.setBlending(oldBlending);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (texture != null) {
+                texture.dispose();
+                texture = null;
+            }
+        }
+    }
+
+    protected static class Entry {
+        Page page;
+        int x;
+        int y;
+        int width;
+        int height;
+        PixmapSource source;
+        TextureRegion region;
+
+        void updateRegion() {
+            region.setTexture(page.texture);
+            region.setRegion(x, y, width, height);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Allocates rectangles inside a fixed-size area (e.g., a texture page) using a shelf (row)
+ * strategy: rectangles are placed from left to right in horizontal shelves, and a new shelf is
+ * opened on top of the previous one when no existing shelf can hold a rectangle. Among the
+ * shelves that can hold a rectangle, the one that wastes less height is chosen.
+ * <p/>
+ * A padding is kept between rectangles and around the borders of the area. Freeing single
+ * rectangles is not supported; callers are expected to keep track of unused space and rebuild
+ * the allocator when needed (see {@link #getUsedArea()}).
+ */
+public class ShelfAllocator {
+    protected final int width;
+    protected final int height;
+    protected final int padding;
+    protected final Array<Shelf> shelves;
+    protected int nextShelfY;
+    protected long usedArea;
+
+    public ShelfAllocator(int width, int height, int padding) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid allocator size: %dx%d", width, height));
+        }
+        if (padding < 0) {
+            throw new IllegalArgumentException("padding must be >= 0, provided = " + padding);
+        }
+
+        this.width = width;
+        this.height = height;
+        this.padding = padding;
+        shelves = new Array<Shelf>();
+        clear();
+    }
+
+    public void clear() {
+        shelves.clear();
+        nextShelfY = padding;
+        usedArea = 0;
+    }
+
+    /**
+     * Checks whether a rectangle of the given size could ever be allocated in an empty area of
+     * this allocator's size.
+     */
+    public boolean fits(int rectWidth, int rectHeight) {
+        return rectWidth > 0 && rectHeight > 0 && rectWidth + 2 * padding <= width &&
+                rectHeight + 2 * padding <= height;
+    }
+
+    /**
+     * Allocates a rectangle of the given size.
+     *
+     * @param rectWidth
+     *         the width of the rectangle
+     * @param rectHeight
+     *         the height of the rectangle
+     * @param out
+     *         a rectangle where the allocated position and size are stored
+     *
+     * @return true if the rectangle could be allocated, false if there is no room left
+     */
+    public boolean allocate(int rectWidth, int rectHeight, Rectangle out) {
+        if (!fits(rectWidth, rectHeight)) {
+            return false;
+        }
+
+        // Look for the existing shelf that wastes less height
+        Shelf bestShelf = null;
+        for (Shelf shelf : shelves) {
+            if (shelf.height < rectHeight || shelf.nextX + rectWidth + padding > width) {
+                continue;
+            }
+            if (bestShelf == null || shelf.height < bestShelf.height) {
+                bestShelf = shelf;
+            }
+        }
+
+        // Open a new shelf if needed. Shelves much taller than the rectangle are not reused,
+        // unless there is no room left for a new one
+        if (bestShelf == null || bestShelf.height > 2 * rectHeight) {
+            if (nextShelfY + rectHeight + padding <= height) {
+                bestShelf = new Shelf(nextShelfY, rectHeight, padding);
+                shelves.add(bestShelf);
+                nextShelfY += rectHeight + padding;
+            }
+        }
+
+        if (bestShelf == null) {
+            return false;
+        }
+
+        out.set(bestShelf.nextX, bestShelf.y, rectWidth, rectHeight);
+        bestShelf.nextX += rectWidth + padding;
+        usedArea += (long) rectWidth * rectHeight;
+        return true;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getPadding() {
+        return padding;
+    }
+
+    /**
+     * @return the sum of the areas of all the rectangles allocated since the last clear
+     */
+    public long getUsedArea() {
+        return usedArea;
+    }
+
+    protected static class Shelf {
+        final int y;
+        final int height;
+        int nextX;
+
+        Shelf(int y, int height, int padding) {
+            this.y = y;
+            this.height = height;
+            this.nextX = padding;
+        }
+    }
+}
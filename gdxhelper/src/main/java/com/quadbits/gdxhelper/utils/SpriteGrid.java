@@ -18,20 +18,34 @@ package com.quadbits.gdxhelper.utils;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Batch;
-import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Pool;
 
 import javax.inject.Inject;
 
 /**
- *
+ * A sprite made of a grid of texture regions. Cells are drawn from a packed vertex buffer, which
+ * is only updated when the transform, color or flip of the grid change, and which is submitted
+ * with one {@link Batch#draw(Texture, float[], int, int)} call per texture page.
+ * <p/>
+ * Changes are tracked separately for the geometry (size and scale, which require the cell
+ * layout to be recomputed), the transform (position, origin, rotation and flip) and the color.
+ * Setters only bump the corresponding version when the value actually changes, so callers can
+ * push their state every frame at a low cost.
+ * <p/>
+ * The regions and cell sizes are held by a {@link SpriteGridTemplate}, shared by all the sprite
+ * grids with the same texture. When the template has level-of-detail variants, the smallest one
+ * with enough resolution for the current size on screen is drawn (see {@link
+ * #setLodEnabled(boolean)}).
  */
 public class SpriteGrid implements Pool.Poolable, DrawUtils.BatchDrawableSprite {
     protected Pool<SpriteGrid> spriteGridPool;
-    protected Array<Sprite> spriteGrid;
+    protected SpriteGridTemplate template;
+    protected SpriteGridTemplate lodTemplate;
+    protected boolean lodEnabled;
+    protected float lodPixelScale;
     protected int nCols;
     protected int nRows;
     protected float originalWidth;
@@ -47,6 +61,7 @@ public class SpriteGrid implements Pool.Poolable, DrawUtils.BatchDrawableSprite
     protected float rotation;
     protected boolean tileableX;
     protected boolean tileableY;
+    protected int culledTileCount;
     protected float minTiledX;
     protected float maxTiledX;
     protected float minTiledY;
@@ -54,25 +69,49 @@ public class SpriteGrid implements Pool.Poolable, DrawUtils.BatchDrawableSprite
     protected boolean flipX;
     protected boolean flipY;
     protected Color color;
-    protected boolean dirty;
+    protected int geometryVersion;
+    protected int transformVersion;
+    protected int colorVersion;
+
+    // Vertex cache; cells are sorted by texture, so that each texture page is drawn at once
+    protected int verticesTransformVersion;
+    protected float[] vertices;
+    protected float[] localPositions;
+    protected boolean cellsDirty;
+    protected boolean positionsDirty;
+    protected boolean colorsDirty;
+    protected float verticesX;
+    protected float verticesY;
+    protected float verticesOriginX;
+    protected float verticesOriginY;
+    protected float verticesRotation;
+    protected boolean verticesFlipX;
+    protected boolean verticesFlipY;
+    protected float verticesColor;
 
     @Inject
     TextureAtlasProxy textureAtlasProxy;
 
     public static final int NCOLS_MAX = 1024;
     public static final int NROWS_MAX = 1024;
+    public static final int VERTEX_SIZE = 5;
+    public static final int CELL_SIZE = 4 * VERTEX_SIZE;
 
     @Inject
     public SpriteGrid() {
         spriteGridPool = null;
-        spriteGrid = new Array<Sprite>();
         color = new Color();
+        vertices = new float[0];
+        localPositions = new float[0];
         reset();
     }
 
     @Override
     public void reset() {
-        spriteGrid.clear();
+        template = null;
+        lodTemplate = null;
+        lodEnabled = true;
+        lodPixelScale = 1;
         nCols = nRows = 0;
         originalWidth = originalHeight = 0;
         x = y = 0;
@@ -81,10 +120,14 @@ public class SpriteGrid implements Pool.Poolable, DrawUtils.BatchDrawableSprite
         originX = originY = 0;
         rotation = 0;
         tileableX = tileableY = false;
+        culledTileCount = 0;
         minTiledX = maxTiledX = minTiledY = maxTiledY = 0;
         flipX = flipY = false;
         color.set(1, 1, 1, 1);
-        dirty = false;
+        geometryVersion++;
+        transformVersion++;
+        colorVersion++;
+        cellsDirty = true;
     }
 
     public void setPool(Pool<SpriteGrid> spriteGridPool) {
@@ -96,162 +139,291 @@ public class SpriteGrid implements Pool.Poolable, DrawUtils.BatchDrawableSprite
     }
 
     public void setTexture(String textureName) {
-        TextureRegion textureRegion = textureAtlasProxy.get().findRegion(textureName);
-
-        // One single texture
-        if (textureRegion != null) {
-            nRows = 1;
-            nCols = 1;
-            spriteGrid.add(new Sprite(textureRegion));
-        }
-
-        // A grid of textures
-        else {
-            // Initialize nCols and nRows to a reasonably high value; these values will be adjusted
-            // as the actual number of rows and columns is obtained by reading textures from the
-            // atlas.
-            nRows = NROWS_MAX;
-            nCols = NCOLS_MAX;
-            for (int i = 0; i < nRows; i++) {
-                for (int j = 0; j < nCols; j++) {
-                    String textureCellName = String.format("%s-%d-%d", textureName, i, j);
-                    textureRegion = textureAtlasProxy.get().findRegion(textureCellName);
-                    if (textureRegion == null) {
-                        if (i == 0) {
-                            nCols = j;
-                        }
-                        if (j == 0) {
-                            nRows = i;
-                        }
-                        break;
-                    }
-                    spriteGrid.add(new Sprite(textureRegion));
-                }
-            }
-        }
+        SpriteGridTemplate template = textureAtlasProxy.getGridTemplate(textureName);
 
-        // Check if we have really loaded an image
-        if (nRows == 0 || nCols == 0) {
+        // Check if we have really found an image
+        if (template == null || template.getCellCount() == 0) {
             throw new IllegalArgumentException(
                     String.format("Texture '%s' not found in texture atlas", textureName));
         }
 
-        // Calculate original width
-        originalWidth = 0;
-        for (int j = 0; j < nCols; j++) {
-            originalWidth += getSprite(0, j).getRegionWidth();
-        }
+        setTemplate(template);
+    }
 
-        // Calculate original height
-        originalHeight = 0;
-        for (int i = 0; i < nRows; i++) {
-            originalHeight += getSprite(i, 0).getRegionHeight();
-        }
+    /**
+     * Uses a single texture region as the only cell of this grid. Useful for regions that do not
+     * come from the texture atlas, such as the ones created by a {@link RuntimeTexturePacker}.
+     *
+     * @param textureRegion
+     *         the texture region
+     */
+    public void setTexture(TextureRegion textureRegion) {
+        setTemplate(new SpriteGridTemplate(textureRegion));
+    }
+
+    /**
+     * Uses a (possibly shared) template as the contents of this grid. The size of the grid is
+     * reset to the original size of the template.
+     */
+    public void setTemplate(SpriteGridTemplate template) {
+        this.template = template;
+        lodTemplate = template;
+        nRows = template.getRows();
+        nCols = template.getCols();
+        originalWidth = template.getOriginalWidth();
+        originalHeight = template.getOriginalHeight();
 
         // Set current width/height to the original values
-        setSize(originalWidth, originalHeight);
+        width = originalWidth;
+        height = originalHeight;
+        geometryChanged();
+
+        // Allocate the vertex cache, for the variant with most cells
+        int nCells = 0;
+        for (int k = 0; k < template.getLodCount(); k++) {
+            nCells = Math.max(nCells, template.getLod(k).getCellCount());
+        }
+        if (localPositions.length < nCells * 8) {
+            localPositions = new float[nCells * 8];
+            vertices = new float[nCells * CELL_SIZE];
+        }
     }
 
-    protected Sprite getSprite(int i, int j) {
-        return spriteGrid.get(i * nCols + j);
+    public boolean isLodEnabled() {
+        return lodEnabled;
     }
 
-    public void setTextureFilter(Texture.TextureFilter minFilter, Texture.TextureFilter maxFilter) {
-        for (Sprite sprite : spriteGrid) {
-            sprite.getTexture().setFilter(minFilter, maxFilter);
+    /**
+     * Enables or disables the selection of level-of-detail variants (enabled by default). When
+     * disabled, the full resolution texture is always drawn.
+     */
+    public void setLodEnabled(boolean lodEnabled) {
+        if (this.lodEnabled == lodEnabled) {
+            return;
         }
+        this.lodEnabled = lodEnabled;
+        cellsDirty = true;
     }
 
-    private void adjustSpriteCellsPositionsAndSizes() {
-        float widthScale = width / originalWidth;
-        float heightScale = height / originalHeight;
-        int offsetY = 0;
-        for (int i = 0; i < nRows; i++) {
-            int offsetX = 0;
-            for (int j = 0; j < nCols; j++) {
-                Sprite spriteCell = getSprite(i, j);
-                int spriteCellWidth = (int) (widthScale * spriteCell.getRegionWidth());
-                int spriteCellHeight = (int) (heightScale * spriteCell.getRegionHeight());
-                spriteCell.setPosition(offsetX, offsetY);
-                spriteCell.setSize(spriteCellWidth, spriteCellHeight);
-                offsetX += spriteCell.getWidth();
-            }
-            offsetY += getSprite(i, 0).getHeight();
+    /**
+     * @return the template variant currently drawn
+     */
+    public SpriteGridTemplate getLodTemplate() {
+        return lodTemplate;
+    }
+
+    private void selectLodTemplate() {
+        SpriteGridTemplate selected = template;
+        if (lodEnabled && template.lods != null && originalWidth > 0 && originalHeight > 0) {
+            float scale = Math.max(Math.abs(width) / originalWidth,
+                    Math.abs(height) / originalHeight) * lodPixelScale;
+            selected = template.selectLod(scale);
+        }
+        if (selected != lodTemplate) {
+            lodTemplate = selected;
+            cellsDirty = true;
         }
+    }
 
-        dirty = false;
+    public SpriteGridTemplate getTemplate() {
+        return template;
     }
 
-    public void draw(Batch batch, float parentAlpha) {
-        if (dirty) {
-            adjustSpriteCellsPositionsAndSizes();
+    public void setTextureFilter(Texture.TextureFilter minFilter, Texture.TextureFilter maxFilter) {
+        if (template == null) {
+            return;
+        }
+        for (int l = 0; l < template.getLodCount(); l++) {
+            SpriteGridTemplate lod = template.getLod(l);
+            for (int k = 0; k < lod.getPageCount(); k++) {
+                lod.getPageTexture(k).setFilter(minFilter, maxFilter);
+            }
         }
+    }
 
+    public void draw(Batch batch, float parentAlpha) {
         // Special case: not tileable
         if (!tileableX && !tileableY) {
+            culledTileCount = 0;
             drawSprite(batch, parentAlpha);
         }
 
         // General case: tileable in at least one dimension
         else {
-            DrawUtils.drawTileableSprite(batch, parentAlpha, this, tileableX, tileableY, minTiledX,
-                    maxTiledX, minTiledY, maxTiledY);
+            culledTileCount = DrawUtils.drawTileableSprite(batch, parentAlpha, this, tileableX,
+                    tileableY, minTiledX, maxTiledX, minTiledY, maxTiledY);
         }
     }
 
+    @Override
+    public void getDrawBounds(Rectangle bounds) {
+        // Bounds of the grid rotated around its origin
+        bounds.set(0, 0, width, height);
+        DrawUtils.transformBounds(bounds, 0, 0, originX, originY, 1, 1, rotation, bounds);
+    }
+
     public void drawSprite(Batch batch, float parentAlpha) {
+        if (template == null) {
+            return;
+        }
+
+        // The variant to draw depends on the size on screen: the size, which is part of the
+        // geometry, and the scale of the batch (parent groups, viewport scaling and camera zoom)
+        float pixelScale = lodPixelScale;
+        if (lodEnabled && template.lods != null) {
+            pixelScale = DrawUtils.getPixelScale(batch);
+        }
+        if (cellsDirty || pixelScale != lodPixelScale) {
+            lodPixelScale = pixelScale;
+            selectLodTemplate();
+        }
+
+        // Update only the parts of the vertex cache that have changed. A pure translation only
+        // requires the positions to be offset.
+        if (cellsDirty || transformVersion != verticesTransformVersion) {
+            if (cellsDirty || originX != verticesOriginX || originY != verticesOriginY ||
+                    rotation != verticesRotation || flipX != verticesFlipX ||
+                    flipY != verticesFlipY) {
+                updateLocalPositionsAndUVs();
+            }
+            if (positionsDirty || x != verticesX || y != verticesY) {
+                updatePositions();
+            }
+            verticesTransformVersion = transformVersion;
+        }
+        float colorBits = Color.toFloatBits(color.r, color.g, color.b, color.a * parentAlpha);
+        if (colorsDirty || colorBits != verticesColor) {
+            updateColors(colorBits);
+        }
+
+        // One draw call per texture page
+        int offset = 0;
+        for (int k = 0; k < lodTemplate.getPageCount(); k++) {
+            int count = lodTemplate.getPageCellCount(k) * CELL_SIZE;
+            batch.draw(lodTemplate.getPageTexture(k), vertices, offset, count);
+            offset += count;
+        }
+    }
+
+    /**
+     * Lays out the cells for the current size, and computes their corners relative to the grid
+     * position (taking into account the flip, origin and rotation of the grid), along with their
+     * texture coordinates. Cells are written in the drawing order of the template.
+     */
+    private void updateLocalPositionsAndUVs() {
+        final SpriteGridTemplate template = lodTemplate;
+        final boolean rotated = rotation != 0;
         final float cos = MathUtils.cosDeg(rotation);
         final float sin = MathUtils.sinDeg(rotation);
-        final float alpha = color.a * parentAlpha;
+        final float widthScale = width / template.originalWidth;
+        final float heightScale = height / template.originalHeight;
+        final int[] cellWidths = template.cellWidths;
+        final int[] cellHeights = template.cellHeights;
+        final int nRows = template.nRows;
+        final int nCols = template.nCols;
+        int offsetY = 0;
         for (int i = 0; i < nRows; i++) {
+            int offsetX = 0;
             for (int j = 0; j < nCols; j++) {
-                // get the sprite
-                int row = i;
-                int col = j;
-                if (flipX) {
-                    col = nCols - 1 - j;
-                }
-                if (flipY) {
-                    row = nRows - 1 - i;
-                }
-                Sprite spriteCell = getSprite(row, col);
-
-                // save old position
-                float oldSpriteCellX = spriteCell.getX();
-                float oldSpriteCellY = spriteCell.getY();
-                float spriteCellX = MathUtils.floor(oldSpriteCellX);
-                float spriteCellY = MathUtils.floor(oldSpriteCellY);
+                int c = i * nCols + j;
+                int k = template.cellSlots[c];
+                TextureRegion region = template.regions[c];
+
+                // Cell bounds in grid space
+                int cellWidth = (int) (widthScale * cellWidths[c]);
+                int cellHeight = (int) (heightScale * cellHeights[c]);
+                float cellX = offsetX;
+                float cellY = offsetY;
                 if (flipX) {
-                    spriteCellX = width - (spriteCellX + spriteCell.getWidth());
+                    cellX = width - (cellX + cellWidth);
                 }
                 if (flipY) {
-                    spriteCellY = height - (spriteCellY + spriteCell.getHeight());
+                    cellY = height - (cellY + cellHeight);
                 }
-
-                // set rotation and position
-                if (rotation != 0) {
-                    spriteCell.setOrigin(originX, originY);
-                    spriteCell.setRotation(rotation);
-                    spriteCell.setPosition(x + cos * spriteCellX - sin * spriteCellY,
-                            y + sin * spriteCellX + cos * spriteCellY);
+                float cellX2 = cellX + cellWidth;
+                float cellY2 = cellY + cellHeight;
+                offsetX += cellWidth;
+
+                // Corners in the order expected by the batch: BL, TL, TR, BR
+                int p = k * 8;
+                if (rotated) {
+                    float localX = cellX - originX;
+                    float localY = cellY - originY;
+                    float localX2 = cellX2 - originX;
+                    float localY2 = cellY2 - originY;
+                    localPositions[p] = originX + cos * localX - sin * localY;
+                    localPositions[p + 1] = originY + sin * localX + cos * localY;
+                    localPositions[p + 2] = originX + cos * localX - sin * localY2;
+                    localPositions[p + 3] = originY + sin * localX + cos * localY2;
+                    localPositions[p + 4] = originX + cos * localX2 - sin * localY2;
+                    localPositions[p + 5] = originY + sin * localX2 + cos * localY2;
+                    localPositions[p + 6] = originX + cos * localX2 - sin * localY;
+                    localPositions[p + 7] = originY + sin * localX2 + cos * localY;
                 } else {
-                    spriteCell.setPosition(x + spriteCellX, y + spriteCellY);
+                    localPositions[p] = cellX;
+                    localPositions[p + 1] = cellY;
+                    localPositions[p + 2] = cellX;
+                    localPositions[p + 3] = cellY2;
+                    localPositions[p + 4] = cellX2;
+                    localPositions[p + 5] = cellY2;
+                    localPositions[p + 6] = cellX2;
+                    localPositions[p + 7] = cellY;
                 }
-                spriteCell.setColor(color);
-                // set alpha *after* color; otherwise, alpha is overwritten by the color's alpha
-                spriteCell.setAlpha(alpha);
-
-                // set flip
-                spriteCell.setFlip(flipX, flipY);
 
-                // draw the sprite
-                spriteCell.draw(batch);
+                // Texture coordinates
+                float u = flipX ? region.getU2() : region.getU();
+                float u2 = flipX ? region.getU() : region.getU2();
+                float v = flipY ? region.getV2() : region.getV();
+                float v2 = flipY ? region.getV() : region.getV2();
+                int offset = k * CELL_SIZE;
+                vertices[offset + 3] = u;
+                vertices[offset + 4] = v2;
+                vertices[offset + VERTEX_SIZE + 3] = u;
+                vertices[offset + VERTEX_SIZE + 4] = v;
+                vertices[offset + 2 * VERTEX_SIZE + 3] = u2;
+                vertices[offset + 2 * VERTEX_SIZE + 4] = v;
+                vertices[offset + 3 * VERTEX_SIZE + 3] = u2;
+                vertices[offset + 3 * VERTEX_SIZE + 4] = v2;
+            }
+            offsetY += (int) (heightScale * cellHeights[i * nCols]);
+        }
 
-                // restore position and rotation
-                spriteCell.setPosition(oldSpriteCellX, oldSpriteCellY);
-                spriteCell.setRotation(0);
+        verticesOriginX = originX;
+        verticesOriginY = originY;
+        verticesRotation = rotation;
+        verticesFlipX = flipX;
+        verticesFlipY = flipY;
+        if (cellsDirty) {
+            colorsDirty = true;
+        }
+        cellsDirty = false;
+        positionsDirty = true;
+    }
+
+    private void updatePositions() {
+        int nCells = lodTemplate.getCellCount();
+        for (int k = 0; k < nCells; k++) {
+            int p = k * 8;
+            int offset = k * CELL_SIZE;
+            for (int corner = 0; corner < 4; corner++, p += 2, offset += VERTEX_SIZE) {
+                vertices[offset] = x + localPositions[p];
+                vertices[offset + 1] = y + localPositions[p + 1];
             }
         }
+
+        verticesX = x;
+        verticesY = y;
+        positionsDirty = false;
+    }
+
+    private void updateColors(float colorBits) {
+        int nVertices = lodTemplate.getCellCount() * 4;
+        for (int i = 0, offset = 2; i < nVertices; i++, offset += VERTEX_SIZE) {
+            vertices[offset] = colorBits;
+        }
+
+        verticesColor = colorBits;
+        colorsDirty = false;
     }
 
     public float getOriginalWidth() {
@@ -262,13 +434,27 @@ public class SpriteGrid implements Pool.Poolable, DrawUtils.BatchDrawableSprite
         return originalHeight;
     }
 
+    public int getGeometryVersion() {
+        return geometryVersion;
+    }
+
+    public int getTransformVersion() {
+        return transformVersion;
+    }
+
+    public int getColorVersion() {
+        return colorVersion;
+    }
+
     public float getX() {
         return x;
     }
 
     public void setX(float x) {
-        this.x = x;
-        dirty = true;
+        if (this.x != x) {
+            this.x = x;
+            transformVersion++;
+        }
     }
 
     public float getY() {
@@ -276,14 +462,18 @@ public class SpriteGrid implements Pool.Poolable, DrawUtils.BatchDrawableSprite
     }
 
     public void setY(float y) {
-        this.y = y;
-        dirty = true;
+        if (this.y != y) {
+            this.y = y;
+            transformVersion++;
+        }
     }
 
     public void setPosition(float x, float y) {
-        this.x = x;
-        this.y = y;
-        dirty = true;
+        if (this.x != x || this.y != y) {
+            this.x = x;
+            this.y = y;
+            transformVersion++;
+        }
     }
 
     public float getWidth() {
@@ -291,8 +481,10 @@ public class SpriteGrid implements Pool.Poolable, DrawUtils.BatchDrawableSprite
     }
 
     public void setWidth(float width) {
-        this.width = width;
-        dirty = true;
+        if (this.width != width) {
+            this.width = width;
+            geometryChanged();
+        }
     }
 
     public float getHeight() {
@@ -300,14 +492,23 @@ public class SpriteGrid implements Pool.Poolable, DrawUtils.BatchDrawableSprite
     }
 
     public void setHeight(float height) {
-        this.height = height;
-        dirty = true;
+        if (this.height != height) {
+            this.height = height;
+            geometryChanged();
+        }
     }
 
     public void setSize(float width, float height) {
-        this.width = width;
-        this.height = height;
-        dirty = true;
+        if (this.width != width || this.height != height) {
+            this.width = width;
+            this.height = height;
+            geometryChanged();
+        }
+    }
+
+    protected void geometryChanged() {
+        cellsDirty = true;
+        geometryVersion++;
     }
 
     public void scaleBy(float scale) {
@@ -325,7 +526,6 @@ public class SpriteGrid implements Pool.Poolable, DrawUtils.BatchDrawableSprite
     public void setScaleX(float scaleX) {
         this.scaleX = scaleX;
         setWidth(originalWidth * scaleX);
-        dirty = true;
     }
 
     public float getScaleY() {
@@ -335,14 +535,12 @@ public class SpriteGrid implements Pool.Poolable, DrawUtils.BatchDrawableSprite
     public void setScaleY(float scaleY) {
         this.scaleY = scaleY;
         setHeight(originalHeight * scaleY);
-        dirty = true;
     }
 
     public void setScale(float scaleX, float scaleY) {
         this.scaleX = scaleX;
         this.scaleY = scaleY;
         setSize(originalWidth * scaleX, originalHeight * scaleY);
-        dirty = true;
     }
 
     public float getOriginX() {
@@ -350,7 +548,10 @@ public class SpriteGrid implements Pool.Poolable, DrawUtils.BatchDrawableSprite
     }
 
     public void setOriginX(float originX) {
-        this.originX = originX;
+        if (this.originX != originX) {
+            this.originX = originX;
+            transformVersion++;
+        }
     }
 
     public float getOriginY() {
@@ -358,12 +559,18 @@ public class SpriteGrid implements Pool.Poolable, DrawUtils.BatchDrawableSprite
     }
 
     public void setOriginY(float originY) {
-        this.originY = originY;
+        if (this.originY != originY) {
+            this.originY = originY;
+            transformVersion++;
+        }
     }
 
     public void setOrigin(float originX, float originY) {
-        this.originX = originX;
-        this.originY = originY;
+        if (this.originX != originX || this.originY != originY) {
+            this.originX = originX;
+            this.originY = originY;
+            transformVersion++;
+        }
     }
 
     public float getRotation() {
@@ -371,7 +578,10 @@ public class SpriteGrid implements Pool.Poolable, DrawUtils.BatchDrawableSprite
     }
 
     public void setRotation(float rotation) {
-        this.rotation = rotation;
+        if (this.rotation != rotation) {
+            this.rotation = rotation;
+            transformVersion++;
+        }
     }
 
     public boolean isTileableX() {
@@ -390,12 +600,22 @@ public class SpriteGrid implements Pool.Poolable, DrawUtils.BatchDrawableSprite
         this.tileableY = isTileableY;
     }
 
+    /**
+     * @return the number of tiles culled in the last draw (0 if not tileable)
+     */
+    public int getCulledTileCount() {
+        return culledTileCount;
+    }
+
     public boolean isFlipX() {
         return flipX;
     }
 
     public void setFlipX(boolean flipX) {
-        this.flipX = flipX;
+        if (this.flipX != flipX) {
+            this.flipX = flipX;
+            transformVersion++;
+        }
     }
 
     public boolean isFlipY() {
@@ -403,15 +623,31 @@ public class SpriteGrid implements Pool.Poolable, DrawUtils.BatchDrawableSprite
     }
 
     public void setFlipY(boolean flipY) {
-        this.flipY = flipY;
+        if (this.flipY != flipY) {
+            this.flipY = flipY;
+            transformVersion++;
+        }
     }
 
     public Color getColor() {
         return color;
     }
 
+    /**
+     * Copies the given color (the grid does not keep a reference to it).
+     */
     public void setColor(Color color) {
-        this.color = color;
+        if (!this.color.equals(color)) {
+            this.color.set(color);
+            colorVersion++;
+        }
+    }
+
+    public void setColor(float r, float g, float b, float a) {
+        if (color.r != r || color.g != g || color.b != b || color.a != a) {
+            color.set(r, g, b, a);
+            colorVersion++;
+        }
     }
 
     public float getMinTiledX() {
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * The immutable part of a {@link SpriteGrid}: its regions, cell sizes, original size and the
+ * order in which cells are drawn (grouped by texture page). Templates are shared by all the
+ * sprite grids using the same texture (see {@link TextureAtlasProxy#getGridTemplate(String)}),
+ * so that sprite grids only hold their own transform and color.
+ * <p/>
+ * A template may have level-of-detail variants: downscaled copies of the same texture, drawn
+ * instead of the full resolution one when the sprite grid is drawn small enough (see {@link
+ * #selectLod(float)}).
+ */
+public class SpriteGridTemplate {
+    final int nRows;
+    final int nCols;
+    final TextureRegion[] regions;
+    final int[] cellWidths;
+    final int[] cellHeights;
+    final int originalWidth;
+    final int originalHeight;
+    final int[] cellSlots;
+    final Texture[] pageTextures;
+    final int[] pageCellCounts;
+    final int[] pageSlotOffsets;
+    final float[] slotBounds;
+    final float[] slotUVs;
+    final float lodScale;
+    SpriteGridTemplate[] lods;
+
+    public SpriteGridTemplate(TextureRegion region) {
+        this(1, 1, new TextureRegion[]{region}, 1);
+    }
+
+    /**
+     * @param regions
+     *         the regions of the cells, in row-major order
+     * @param lodScale
+     *         the scale of these regions relative to the full resolution texture (1 for the full
+     *         resolution texture itself, 0.5 for a half resolution variant...)
+     */
+    public SpriteGridTemplate(int nRows, int nCols, TextureRegion[] regions, float lodScale) {
+        this.nRows = nRows;
+        this.lodScale = lodScale;
+        this.lods = null;
+        this.nCols = nCols;
+        this.regions = regions;
+
+        int nCells = nRows * nCols;
+        cellWidths = new int[nCells];
+        cellHeights = new int[nCells];
+        for (int c = 0; c < nCells; c++) {
+            cellWidths[c] = regions[c].getRegionWidth();
+            cellHeights[c] = regions[c].getRegionHeight();
+        }
+
+        // The original size is given by the first row and the first column
+        int width = 0;
+        for (int j = 0; j < nCols; j++) {
+            width += cellWidths[j];
+        }
+        int height = 0;
+        for (int i = 0; i < nRows; i++) {
+            height += cellHeights[i * nCols];
+        }
+        originalWidth = width;
+        originalHeight = height;
+
+        // Sort the cells by texture, so that each texture page can be drawn at once
+        cellSlots = new int[nCells];
+        Array<Texture> textures = new Array<Texture>();
+        Array<Integer> counts = new Array<Integer>();
+        int slot = 0;
+        for (int c = 0; c < nCells; c++) {
+            Texture texture = regions[c].getTexture();
+            if (textures.contains(texture, true)) {
+                continue;
+            }
+            int count = 0;
+            for (int d = c; d < nCells; d++) {
+                if (regions[d].getTexture() == texture) {
+                    cellSlots[d] = slot++;
+                    count++;
+                }
+            }
+            textures.add(texture);
+            counts.add(count);
+        }
+        pageTextures = textures.toArray(Texture.class);
+        pageCellCounts = new int[counts.size];
+        pageSlotOffsets = new int[counts.size];
+        for (int k = 0; k < counts.size; k++) {
+            pageCellCounts[k] = counts.get(k);
+            pageSlotOffsets[k] = k == 0 ? 0 : pageSlotOffsets[k - 1] + pageCellCounts[k - 1];
+        }
+
+        // Bounds of the cells, relative to the original size, and texture coordinates, in
+        // drawing order
+        slotBounds = new float[nCells * 4];
+        slotUVs = new float[nCells * 4];
+        float widthScale = originalWidth > 0 ? 1f / originalWidth : 0;
+        float heightScale = originalHeight > 0 ? 1f / originalHeight : 0;
+        int offsetY = 0;
+        for (int i = 0; i < nRows; i++) {
+            int offsetX = 0;
+            for (int j = 0; j < nCols; j++) {
+                int c = i * nCols + j;
+                int p = cellSlots[c] * 4;
+                slotBounds[p] = offsetX * widthScale;
+                slotBounds[p + 1] = offsetY * heightScale;
+                slotBounds[p + 2] = (offsetX + cellWidths[c]) * widthScale;
+                slotBounds[p + 3] = (offsetY + cellHeights[c]) * heightScale;
+                slotUVs[p] = regions[c].getU();
+                slotUVs[p + 1] = regions[c].getV();
+                slotUVs[p + 2] = regions[c].getU2();
+                slotUVs[p + 3] = regions[c].getV2();
+                offsetX += cellWidths[c];
+            }
+            offsetY += cellHeights[i * nCols];
+        }
+    }
+
+    /**
+     * Writes the vertices of the cells of a texture page, for an unrotated grid with the given
+     * bounds, in the format expected by {@link
+     * com.badlogic.gdx.graphics.g2d.Batch#draw(Texture, float[], int, int)}. This allows
+     * drawing many grids sharing this template without a {@link SpriteGrid} per grid.
+     *
+     * @return the offset after the last vertex written; the array must have room for {@link
+     * #getPageCellCount(int)} * {@link SpriteGrid#CELL_SIZE} floats from 'offset'
+     */
+    public int writeVertices(int page, float[] vertices, int offset, float x, float y,
+                             float width, float height, boolean flipX, boolean flipY,
+                             float colorBits) {
+        int firstSlot = pageSlotOffsets[page];
+        int lastSlot = firstSlot + pageCellCounts[page];
+        for (int slot = firstSlot; slot < lastSlot; slot++) {
+            int p = slot * 4;
+            float fx = flipX ? 1 - slotBounds[p + 2] : slotBounds[p];
+            float fy = flipY ? 1 - slotBounds[p + 3] : slotBounds[p + 1];
+            float fx2 = flipX ? 1 - slotBounds[p] : slotBounds[p + 2];
+            float fy2 = flipY ? 1 - slotBounds[p + 1] : slotBounds[p + 3];
+            float x1 = x + fx * width;
+            float y1 = y + fy * height;
+            float x2 = x + fx2 * width;
+            float y2 = y + fy2 * height;
+            float u = flipX ? slotUVs[p + 2] : slotUVs[p];
+            float u2 = flipX ? slotUVs[p] : slotUVs[p + 2];
+            float v = flipY ? slotUVs[p + 3] : slotUVs[p + 1];
+            float v2 = flipY ? slotUVs[p + 1] : slotUVs[p + 3];
+
+            // Corners in the order expected by the batch: BL, TL, TR, BR
+            vertices[offset++] = x1;
+            vertices[offset++] = y1;
+            vertices[offset++] = colorBits;
+            vertices[offset++] = u;
+            vertices[offset++] = v2;
+            vertices[offset++] = x1;
+            vertices[offset++] = y2;
+            vertices[offset++] = colorBits;
+            vertices[offset++] = u;
+            vertices[offset++] = v;
+            vertices[offset++] = x2;
+            vertices[offset++] = y2;
+            vertices[offset++] = colorBits;
+            vertices[offset++] = u2;
+            vertices[offset++] = v;
+            vertices[offset++] = x2;
+            vertices[offset++] = y1;
+            vertices[offset++] = colorBits;
+            vertices[offset++] = u2;
+            vertices[offset++] = v2;
+        }
+        return offset;
+    }
+
+    /**
+     * Returns the variant to draw when the grid is drawn at 'scale' times its original size, in
+     * screen pixels (see {@link DrawUtils#getPixelScale}): the smallest variant whose resolution
+     * is enough for that scale, or the full resolution template if none is.
+     */
+    public SpriteGridTemplate selectLod(float scale) {
+        if (lods == null) {
+            return this;
+        }
+        for (SpriteGridTemplate lod : lods) {
+            if (lod.lodScale >= scale) {
+                return lod;
+            }
+        }
+        return lods[lods.length - 1];
+    }
+
+    /**
+     * @return the number of level-of-detail variants, including the full resolution one
+     */
+    public int getLodCount() {
+        return lods == null ? 1 : lods.length;
+    }
+
+    /**
+     * @return the variants sorted by increasing scale; the last one is the full resolution one
+     */
+    public SpriteGridTemplate getLod(int index) {
+        return lods == null ? this : lods[index];
+    }
+
+    public float getLodScale() {
+        return lodScale;
+    }
+
+    public int getRows() {
+        return nRows;
+    }
+
+    public int getCols() {
+        return nCols;
+    }
+
+    public int getCellCount() {
+        return regions.length;
+    }
+
+    public TextureRegion getRegion(int i, int j) {
+        return regions[i * nCols + j];
+    }
+
+    public int getOriginalWidth() {
+        return originalWidth;
+    }
+
+    public int getOriginalHeight() {
+        return originalHeight;
+    }
+
+    public int getPageCount() {
+        return pageTextures.length;
+    }
+
+    public Texture getPageTexture(int page) {
+        return pageTextures[page];
+    }
+
+    public int getPageCellCount(int page) {
+        return pageCellCounts[page];
+    }
+}
@@ -16,19 +16,50 @@
 package com.quadbits.gdxhelper.utils;
 
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongMap;
 import com.quadbits.gdxhelper.PerGame;
 
+import java.util.Comparator;
+import java.util.HashMap;
+
 import javax.inject.Inject;
 
 /**
- *
+ * Holds the texture atlas currently in use, along with two indices built when the atlas is set:
+ * a hash index of region names (so that lookups do not scan all the regions, as {@link
+ * TextureAtlas#findRegion(String)} does) and an index of the grids of regions named
+ * "name-row-col", so that a whole grid can be resolved with a single lookup. It also caches the
+ * {@link SpriteGridTemplate}s shared by the sprite grids using the same texture.
+ * <p/>
+ * Regions (or grids) named "name@scale", e.g. "cloud@0.5", are level-of-detail variants of
+ * "name" downscaled by 'scale', and are attached to the template of "name".
  */
 @PerGame
 public class TextureAtlasProxy {
     TextureAtlas textureAtlas;
+    final HashMap<String, TextureAtlas.AtlasRegion> regionsByName;
+    final HashMap<String, Grid> gridsByName;
+    final HashMap<String, SpriteGridTemplate> templatesByName;
+    final HashMap<String, Array<String>> lodNamesByName;
+
+    public static final char LOD_SEPARATOR = '@';
+
+    private static final Comparator<SpriteGridTemplate> LOD_SCALE_COMPARATOR =
+            new Comparator<SpriteGridTemplate>() {
+                @Override
+                public int compare(SpriteGridTemplate lhs, SpriteGridTemplate rhs) {
+                    return Float.compare(lhs.lodScale, rhs.lodScale);
+                }
+            };
 
     @Inject
     public TextureAtlasProxy() {
+        regionsByName = new HashMap<String, TextureAtlas.AtlasRegion>();
+        gridsByName = new HashMap<String, Grid>();
+        templatesByName = new HashMap<String, SpriteGridTemplate>();
+        lodNamesByName = new HashMap<String, Array<String>>();
     }
 
     public TextureAtlas get() {
@@ -37,5 +68,277 @@ public class TextureAtlasProxy {
 
     public void set(TextureAtlas textureAtlas) {
         this.textureAtlas = textureAtlas;
+        buildIndices();
+    }
+
+    /**
+     * Same as {@link TextureAtlas#findRegion(String)}, but using the hash index.
+     *
+     * @return the first region with the given name, or null if there is none
+     */
+    public TextureAtlas.AtlasRegion findRegion(String name) {
+        return regionsByName.get(name);
+    }
+
+    /**
+     * @return the grid of regions named "name-row-col", or null if the atlas has no region named
+     * "name-0-0"
+     */
+    public Grid findGrid(String name) {
+        return gridsByName.get(name);
+    }
+
+    /**
+     * Returns the sprite grid template for a texture name: either a single region with that
+     * name, or a grid of regions named "name-row-col". Templates are created on first use and
+     * shared until the atlas changes.
+     *
+     * @return the template, or null if the atlas has no such texture
+     */
+    public SpriteGridTemplate getGridTemplate(String name) {
+        SpriteGridTemplate template = templatesByName.get(name);
+        if (template != null) {
+            return template;
+        }
+
+        template = createGridTemplate(name, 1);
+        if (template == null) {
+            return null;
+        }
+
+        // Level-of-detail variants, sorted by increasing scale
+        Array<String> lodNames = lodNamesByName.get(name);
+        if (lodNames != null) {
+            Array<SpriteGridTemplate> lods = new Array<SpriteGridTemplate>();
+            for (String lodName : lodNames) {
+                float lodScale = parseLodScale(lodName, name.length());
+                SpriteGridTemplate lod = createGridTemplate(lodName, lodScale);
+                if (lod != null && lod.getCellCount() > 0) {
+                    lods.add(lod);
+                }
+            }
+            if (lods.size > 0) {
+                lods.sort(LOD_SCALE_COMPARATOR);
+                lods.add(template);
+                template.lods = lods.toArray(SpriteGridTemplate.class);
+            }
+        }
+
+        templatesByName.put(name, template);
+        return template;
+    }
+
+    protected SpriteGridTemplate createGridTemplate(String name, float lodScale) {
+        SpriteGridTemplate template;
+        TextureRegion region = findRegion(name);
+        if (region != null) {
+            template = new SpriteGridTemplate(1, 1, new TextureRegion[]{region}, lodScale);
+        } else {
+            Grid grid = findGrid(name);
+            if (grid == null) {
+                return null;
+            }
+
+            // Only complete rows are used
+            int nCols = Math.min(grid.getCols(), SpriteGrid.NCOLS_MAX);
+            int nRows = 0;
+            int maxRows = Math.min(grid.getRows(), SpriteGrid.NROWS_MAX);
+            while (nRows < maxRows && isCompleteRow(grid, nRows, nCols)) {
+                nRows++;
+            }
+            TextureRegion[] regions = new TextureRegion[nRows * nCols];
+            for (int i = 0; i < nRows; i++) {
+                for (int j = 0; j < nCols; j++) {
+                    regions[i * nCols + j] = grid.getCell(i, j);
+                }
+            }
+            template = new SpriteGridTemplate(nRows, nCols, regions, lodScale);
+        }
+        return template;
+    }
+
+    private static boolean isCompleteRow(Grid grid, int row, int nCols) {
+        for (int j = 0; j < nCols; j++) {
+            if (grid.getCell(row, j) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected void buildIndices() {
+        regionsByName.clear();
+        gridsByName.clear();
+        templatesByName.clear();
+        lodNamesByName.clear();
+        if (textureAtlas == null) {
+            return;
+        }
+
+        // Region names, keeping the first region for duplicate names (as findRegion() does)
+        HashMap<String, LongMap<TextureAtlas.AtlasRegion>> cellsByName =
+                new HashMap<String, LongMap<TextureAtlas.AtlasRegion>>();
+        for (TextureAtlas.AtlasRegion region : textureAtlas.getRegions()) {
+            if (regionsByName.containsKey(region.name)) {
+                continue;
+            }
+            regionsByName.put(region.name, region);
+
+            // Grid cells
+            int colSeparator = region.name.lastIndexOf('-');
+            if (colSeparator <= 0) {
+                continue;
+            }
+            int rowSeparator = region.name.lastIndexOf('-', colSeparator - 1);
+            if (rowSeparator <= 0) {
+                continue;
+            }
+            int row = parseIndex(region.name, rowSeparator + 1, colSeparator);
+            int col = parseIndex(region.name, colSeparator + 1, region.name.length());
+            if (row < 0 || col < 0) {
+                continue;
+            }
+
+            String gridName = region.name.substring(0, rowSeparator);
+            LongMap<TextureAtlas.AtlasRegion> cells = cellsByName.get(gridName);
+            if (cells == null) {
+                cells = new LongMap<TextureAtlas.AtlasRegion>();
+                cellsByName.put(gridName, cells);
+            }
+            cells.put(cellKey(row, col), region);
+        }
+
+        for (String gridName : cellsByName.keySet()) {
+            Grid grid = Grid.create(cellsByName.get(gridName));
+            if (grid != null) {
+                gridsByName.put(gridName, grid);
+            }
+        }
+
+        // Level-of-detail variants, either single regions or grids
+        indexLods(regionsByName.keySet());
+        indexLods(gridsByName.keySet());
+    }
+
+    private void indexLods(Iterable<String> names) {
+        for (String name : names) {
+            int separator = name.lastIndexOf(LOD_SEPARATOR);
+            if (separator <= 0 || parseLodScale(name, separator) <= 0) {
+                continue;
+            }
+
+            String baseName = name.substring(0, separator);
+            Array<String> lodNames = lodNamesByName.get(baseName);
+            if (lodNames == null) {
+                lodNames = new Array<String>();
+                lodNamesByName.put(baseName, lodNames);
+            }
+            if (!lodNames.contains(name, false)) {
+                lodNames.add(name);
+            }
+        }
+    }
+
+    /**
+     * Parses the scale of a level-of-detail variant name, "name@scale".
+     *
+     * @param separator
+     *         the position of the {@link #LOD_SEPARATOR} in the name
+     *
+     * @return the scale, or -1 if it is not a number in the range (0, 1)
+     */
+    static float parseLodScale(String name, int separator) {
+        if (separator < 0 || separator >= name.length() ||
+                name.charAt(separator) != LOD_SEPARATOR) {
+            return -1;
+        }
+
+        float scale;
+        try {
+            scale = Float.parseFloat(name.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        return scale > 0 && scale < 1 ? scale : -1;
+    }
+
+    /**
+     * Parses a non-negative index written as "%d" would write it (no sign, no leading zeros).
+     *
+     * @return the index, or -1 if the substring is not such an index
+     */
+    static int parseIndex(String string, int start, int end) {
+        int length = end - start;
+        if (length <= 0 || length > 9 || (length > 1 && string.charAt(start) == '0')) {
+            return -1;
+        }
+
+        int index = 0;
+        for (int i = start; i < end; i++) {
+            char c = string.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            index = index * 10 + (c - '0');
+        }
+        return index;
+    }
+
+    static long cellKey(int row, int col) {
+        return ((long) row << 32) | col;
+    }
+
+    /**
+     * A grid of regions named "name-row-col". The number of columns is the number of
+     * consecutive cells in the first row, and the number of rows the number of consecutive
+     * cells in the first column; cells missing inside these bounds are null.
+     */
+    public static class Grid {
+        final int nRows;
+        final int nCols;
+        final TextureRegion[] cells;
+
+        Grid(int nRows, int nCols) {
+            this.nRows = nRows;
+            this.nCols = nCols;
+            cells = new TextureRegion[nRows * nCols];
+        }
+
+        static Grid create(LongMap<? extends TextureRegion> cellMap) {
+            int nCols = 0;
+            while (cellMap.containsKey(cellKey(0, nCols))) {
+                nCols++;
+            }
+            int nRows = 0;
+            while (cellMap.containsKey(cellKey(nRows, 0))) {
+                nRows++;
+            }
+            if (nRows == 0 || nCols == 0) {
+                return null;
+            }
+
+            Grid grid = new Grid(nRows, nCols);
+            for (int i = 0; i < nRows; i++) {
+                for (int j = 0; j < nCols; j++) {
+                    grid.cells[i * nCols + j] = cellMap.get(cellKey(i, j));
+                }
+            }
+            return grid;
+        }
+
+        public int getRows() {
+            return nRows;
+        }
+
+        public int getCols() {
+            return nCols;
+        }
+
+        /**
+         * @return the region at the given cell, or null if the atlas has no such region
+         */
+        public TextureRegion getCell(int row, int col) {
+            return cells[row * nCols + col];
+        }
     }
 }
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.glutils.ETC1TextureData;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.quadbits.gdxhelper.PerGame;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+/**
+ * Keeps an estimate of the texture memory used by the game, per texture (or atlas page) and per
+ * owner (e.g., "atlas:hdpi.atlas" or "SkyActor"), and allows enforcing a memory budget:
+ * before uploading a texture, callers can check whether it fits in the budget with {@link
+ * #fitsInBudget(long)}, and choose a cheaper alternative if it does not (a lower density atlas,
+ * a lower resolution texture...).
+ * <p/>
+ * Sizes are estimates of the memory used by the GPU, based on the size and format of the
+ * textures; drivers may use more memory (e.g., due to alignment or padding).
+ * <p/>
+ * Memory is attributed to the owner that uploads a texture, not to the actors drawing it: the
+ * owners in this library are the texture atlases (one per resolution), {@link
+ * com.quadbits.gdxhelper.actors.SkyActor} and {@link RuntimeTexturePacker}. Actors built from
+ * scene models only draw regions of the atlas, so their memory is accounted for under the atlas
+ * and is not broken down per scene-model id.
+ */
+@PerGame
+public class TextureMemoryTracker {
+    protected HashMap<Object, Record> records;
+    protected HashMap<String, Long> bytesPerOwner;
+    protected long totalBytes;
+    protected long peakBytes;
+    protected long budgetBytes;
+
+    public static final long NO_BUDGET = Long.MAX_VALUE;
+
+    @Inject
+    public TextureMemoryTracker() {
+        records = new HashMap<Object, Record>();
+        bytesPerOwner = new HashMap<String, Long>();
+        totalBytes = 0;
+        peakBytes = 0;
+        budgetBytes = NO_BUDGET;
+    }
+
+    public void track(Texture texture, String owner) {
+        track(texture, estimateBytes(texture), owner);
+    }
+
+    /**
+     * Tracks all the page textures of an atlas, on behalf of the same owner.
+     */
+    public void trackAtlas(TextureAtlas textureAtlas, String owner) {
+        for (Texture texture : textureAtlas.getTextures()) {
+            track(texture, owner);
+        }
+    }
+
+    protected void track(Object key, long bytes, String owner) {
+        // Tracking the same texture twice replaces the previous record
+        untrack(key);
+
+        records.put(key, new Record(owner, bytes));
+        Long ownerBytes = bytesPerOwner.get(owner);
+        bytesPerOwner.put(owner, (ownerBytes == null ? 0 : ownerBytes) + bytes);
+        totalBytes += bytes;
+        if (totalBytes > peakBytes) {
+            peakBytes = totalBytes;
+        }
+    }
+
+    public void untrack(Object key) {
+        Record record = records.remove(key);
+        if (record == null) {
+            return;
+        }
+
+        long ownerBytes = bytesPerOwner.get(record.owner) - record.bytes;
+        if (ownerBytes <= 0) {
+            bytesPerOwner.remove(record.owner);
+        } else {
+            bytesPerOwner.put(record.owner, ownerBytes);
+        }
+        totalBytes -= record.bytes;
+    }
+
+    public void untrackOwner(String owner) {
+        Object[] keys = records.keySet().toArray();
+        for (Object key : keys) {
+            if (records.get(key).owner.equals(owner)) {
+                untrack(key);
+            }
+        }
+    }
+
+    /**
+     * @return true if 'bytes' more bytes can be uploaded without exceeding the budget. Negative
+     * values (i.e., uploads that will be preceded by the release of other textures) are allowed.
+     */
+    public boolean fitsInBudget(long bytes) {
+        if (budgetBytes == NO_BUDGET) {
+            return true;
+        }
+        return totalBytes + bytes <= budgetBytes;
+    }
+
+    public long getRemainingBudget() {
+        if (budgetBytes == NO_BUDGET) {
+            return NO_BUDGET;
+        }
+        return budgetBytes - totalBytes;
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    /**
+     * Sets the maximum amount of texture memory the game should use, in bytes. Use {@link
+     * #NO_BUDGET} to disable budget enforcement.
+     */
+    public void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getPeakBytes() {
+        return peakBytes;
+    }
+
+    public int getTextureCount() {
+        return records.size();
+    }
+
+    public long getBytes(Object key) {
+        Record record = records.get(key);
+        return record == null ? 0 : record.bytes;
+    }
+
+    public long getOwnerBytes(String owner) {
+        Long ownerBytes = bytesPerOwner.get(owner);
+        return ownerBytes == null ? 0 : ownerBytes;
+    }
+
+    public Map<String, Long> getBytesPerOwner() {
+        return Collections.unmodifiableMap(bytesPerOwner);
+    }
+
+    public static long estimateBytes(Texture texture) {
+        TextureData textureData = texture.getTextureData();
+        if (textureData instanceof ETC1TextureData) {
+            return estimateETC1Bytes(texture.getWidth(), texture.getHeight(),
+                    textureData.useMipMaps());
+        }
+        return estimateBytes(texture.getWidth(), texture.getHeight(), textureData.getFormat(),
+                textureData.useMipMaps());
+    }
+
+    public static long estimateBytes(int width, int height, Pixmap.Format format,
+                                     boolean useMipMaps) {
+        long bytes = (long) width * height * getBytesPerPixel(format);
+        return useMipMaps ? bytes * 4 / 3 : bytes;
+    }
+
+    public static long estimateETC1Bytes(int width, int height, boolean useMipMaps) {
+        // ETC1 uses 4 bits per pixel
+        long bytes = (long) width * height / 2;
+        return useMipMaps ? bytes * 4 / 3 : bytes;
+    }
+
+    public static int getBytesPerPixel(Pixmap.Format format) {
+        if (format == null) {
+            return 4;
+        }
+
+        switch (format) {
+            case Alpha:
+            case Intensity:
+                return 1;
+            case LuminanceAlpha:
+            case RGB565:
+            case RGBA4444:
+                return 2;
+            default:
+                // RGB888 textures are usually stored with 4 bytes per pixel by GPUs
+                return 4;
+        }
+    }
+
+    /**
+     * Estimates the memory needed by the pages of an atlas, without loading its textures. Only
+     * the atlas description file is read.
+     *
+     * @param atlasFile
+     *         the atlas description file
+     *
+     * @return the estimated size in bytes, or 0 if the size could not be estimated (e.g., the
+     * atlas file does not declare the size of its pages)
+     */
+    public static long estimateAtlasBytes(FileHandle atlasFile) {
+        TextureAtlas.TextureAtlasData atlasData;
+        try {
+            atlasData = new TextureAtlas.TextureAtlasData(atlasFile, atlasFile.parent(), false);
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error(TextureMemoryTracker.class.getSimpleName(), e.getMessage());
+            return 0;
+        }
+
+        long bytes = 0;
+        for (TextureAtlas.TextureAtlasData.Page page : atlasData.getPages()) {
+            int width = (int) page.width;
+            int height = (int) page.height;
+            if (page.textureFile.extension().equalsIgnoreCase("etc1")) {
+                bytes += estimateETC1Bytes(width, height, page.useMipMaps);
+            } else {
+                bytes += estimateBytes(width, height, page.format, page.useMipMaps);
+            }
+        }
+
+        return bytes;
+    }
+
+    protected static class Record {
+        final String owner;
+        final long bytes;
+
+        Record(String owner, long bytes) {
+            this.owner = owner;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.quadbits.gdxhelper.PerGame;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.inject.Inject;
+
+/**
+ * Spreads the creation of textures over several frames. Pixmaps can be queued from any thread
+ * (e.g., once decoded or generated in a background thread); textures are created from them in
+ * the GL thread by {@link #process()}, which is called once per frame by the screen and stops as
+ * soon as the per-frame byte or time budget is exhausted. At least one texture is created per
+ * frame, so that pixmaps bigger than the budget are eventually uploaded.
+ * <p/>
+ * While a request is pending, its requester should draw a placeholder (e.g., the {@link
+ * WhiteTexel}, or nothing at all).
+ */
+@PerGame
+public class TextureUploadQueue implements Disposable {
+    protected final ConcurrentLinkedQueue<Request> pendingRequests;
+    protected long maxBytesPerFrame;
+    protected long maxNanosPerFrame;
+
+    @Inject
+    protected TextureMemoryTracker textureMemoryTracker;
+
+    public static final long DEFAULT_MAX_BYTES_PER_FRAME = 1024 * 1024;
+    public static final long DEFAULT_MAX_MILLIS_PER_FRAME = 4;
+
+    public static interface Listener {
+        /**
+         * Called in the GL thread when the texture of a request has been created. The listener
+         * owns the texture from then on.
+         */
+        public void textureUploaded(Request request, Texture texture);
+    }
+
+    public static class Request {
+        final Pixmap pixmap;
+        final String owner;
+        final Listener listener;
+        final Texture.TextureFilter minFilter;
+        final Texture.TextureFilter magFilter;
+        volatile boolean cancelled;
+        volatile boolean done;
+
+        Request(Pixmap pixmap, String owner, Listener listener,
+                Texture.TextureFilter minFilter, Texture.TextureFilter magFilter) {
+            this.pixmap = pixmap;
+            this.owner = owner;
+            this.listener = listener;
+            this.minFilter = minFilter;
+            this.magFilter = magFilter;
+            cancelled = false;
+            done = false;
+        }
+
+        public boolean isPending() {
+            return !cancelled && !done;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+    }
+
+    @Inject
+    public TextureUploadQueue() {
+        pendingRequests = new ConcurrentLinkedQueue<Request>();
+        maxBytesPerFrame = DEFAULT_MAX_BYTES_PER_FRAME;
+        maxNanosPerFrame = DEFAULT_MAX_MILLIS_PER_FRAME * 1000000L;
+    }
+
+    public Request upload(Pixmap pixmap, String owner, Listener listener) {
+        return upload(pixmap, owner, listener, Texture.TextureFilter.Nearest,
+                Texture.TextureFilter.Nearest);
+    }
+
+    /**
+     * Queues a pixmap to be uploaded as a texture. This method can be called from any thread.
+     * The queue takes ownership of the pixmap, and disposes it once uploaded (or cancelled).
+     *
+     * @param pixmap
+     *         the pixmap to upload
+     * @param owner
+     *         the owner the texture is tracked under in the {@link TextureMemoryTracker}
+     * @param listener
+     *         notified in the GL thread when the texture is ready
+     *
+     * @return the request, which can be used to cancel the upload
+     */
+    public Request upload(Pixmap pixmap, String owner, Listener listener,
+                          Texture.TextureFilter minFilter, Texture.TextureFilter magFilter) {
+        Request request = new Request(pixmap, owner, listener, minFilter, magFilter);
+        pendingRequests.add(request);
+
+        // Make sure there is a frame to process the request in
+        if (Gdx.graphics != null) {
+            Gdx.graphics.requestRendering();
+        }
+
+        return request;
+    }
+
+    /**
+     * Cancels a pending request. Its pixmap is disposed the next time the queue is processed.
+     * This method can be called from any thread.
+     */
+    public void cancel(Request request) {
+        if (request != null) {
+            request.cancelled = true;
+        }
+    }
+
+    /**
+     * Creates textures for the pending requests until the per-frame budget is exhausted. Must
+     * be called from the GL thread.
+     *
+     * @return the number of textures created
+     */
+    public int process() {
+        long startTime = TimeUtils.nanoTime();
+        long uploadedBytes = 0;
+        int uploadedCount = 0;
+
+        Request request;
+        while ((request = pendingRequests.peek()) != null) {
+            if (request.cancelled) {
+                pendingRequests.poll();
+                request.pixmap.dispose();
+                continue;
+            }
+
+            long requestBytes = TextureMemoryTracker
+                    .estimateBytes(request.pixmap.getWidth(), request.pixmap.getHeight(),
+                            request.pixmap.getFormat(), false);
+            if (uploadedCount > 0 && (uploadedBytes + requestBytes > maxBytesPerFrame ||
+                    TimeUtils.nanoTime() - startTime > maxNanosPerFrame)) {
+                break;
+            }
+            pendingRequests.poll();
+
+            Texture texture = new Texture(request.pixmap);
+            texture.setFilter(request.minFilter, request.magFilter);
+            request.pixmap.dispose();
+            textureMemoryTracker.track(texture, request.owner);
+            request.done = true;
+            request.listener.textureUploaded(request, texture);
+
+            uploadedBytes += requestBytes;
+            uploadedCount++;
+        }
+
+        // Keep rendering until the queue is empty
+        if (!pendingRequests.isEmpty()) {
+            Gdx.graphics.requestRendering();
+        }
+
+        return uploadedCount;
+    }
+
+    public boolean isEmpty() {
+        return pendingRequests.isEmpty();
+    }
+
+    public int getPendingCount() {
+        return pendingRequests.size();
+    }
+
+    public long getMaxBytesPerFrame() {
+        return maxBytesPerFrame;
+    }
+
+    public void setMaxBytesPerFrame(long maxBytesPerFrame) {
+        this.maxBytesPerFrame = maxBytesPerFrame;
+    }
+
+    public long getMaxMillisPerFrame() {
+        return maxNanosPerFrame / 1000000L;
+    }
+
+    public void setMaxMillisPerFrame(long maxMillisPerFrame) {
+        this.maxNanosPerFrame = maxMillisPerFrame * 1000000L;
+    }
+
+    @Override
+    public void dispose() {
+        Request request;
+        while ((request = pendingRequests.poll()) != null) {
+            request.cancelled = true;
+            request.pixmap.dispose();
+        }
+    }
+}
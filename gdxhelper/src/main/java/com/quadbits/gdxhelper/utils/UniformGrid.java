@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * A uniform-grid spatial index of axis-aligned rectangles (items), identified by the order in
+ * which they are added. The grid covers a fixed area split into equally sized cells; items
+ * falling (partially) outside that area are stored in the border cells, so every item is always
+ * found by a query intersecting it.
+ * <p/>
+ * The index is built in bulk: {@link #clear(float, float, float, float, int, int)}, a number of
+ * {@link #add(float, float, float, float)} calls, and {@link #build()}. Cells are stored as
+ * ranges of a single array of item indices, so queries do not allocate.
+ */
+public class UniformGrid {
+    protected float x;
+    protected float y;
+    protected float cellWidth;
+    protected float cellHeight;
+    protected int nCols;
+    protected int nRows;
+
+    protected int itemCount;
+    protected int[] itemCells; // minCol, minRow, maxCol, maxRow for each item
+    protected int[] cellStarts;
+    protected int[] cellItems;
+    protected int[] itemStamps;
+    protected int stamp;
+    protected boolean built;
+
+    public UniformGrid() {
+        itemCells = new int[0];
+        cellStarts = new int[1];
+        cellItems = new int[0];
+        itemStamps = new int[0];
+        clear(0, 0, 1, 1, 1, 1);
+    }
+
+    /**
+     * Removes all the items, and sets the area covered by the grid.
+     */
+    public void clear(float x, float y, float width, float height, int nCols, int nRows) {
+        if (nCols <= 0 || nRows <= 0) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid grid size: %dx%d", nCols, nRows));
+        }
+
+        this.x = x;
+        this.y = y;
+        this.nCols = nCols;
+        this.nRows = nRows;
+        cellWidth = width > 0 ? width / nCols : 1;
+        cellHeight = height > 0 ? height / nRows : 1;
+        itemCount = 0;
+        built = false;
+    }
+
+    /**
+     * Adds an item to the grid. The grid must be built again before querying it.
+     *
+     * @return the index of the item
+     */
+    public int add(float itemX, float itemY, float itemWidth, float itemHeight) {
+        int offset = itemCount * 4;
+        if (offset + 4 > itemCells.length) {
+            int[] newItemCells = new int[Math.max(16, itemCells.length * 2)];
+            System.arraycopy(itemCells, 0, newItemCells, 0, offset);
+            itemCells = newItemCells;
+        }
+
+        itemCells[offset] = getCol(itemX);
+        itemCells[offset + 1] = getRow(itemY);
+        itemCells[offset + 2] = getCol(itemX + itemWidth);
+        itemCells[offset + 3] = getRow(itemY + itemHeight);
+        built = false;
+        return itemCount++;
+    }
+
+    /**
+     * Sorts the items added so far into their cells.
+     */
+    public void build() {
+        int nCells = nCols * nRows;
+        if (cellStarts.length < nCells + 1) {
+            cellStarts = new int[nCells + 1];
+        }
+        for (int cell = 0; cell <= nCells; cell++) {
+            cellStarts[cell] = 0;
+        }
+
+        // Count the items of each cell (shifted by one, so they become the starts below)
+        int nEntries = 0;
+        for (int item = 0; item < itemCount; item++) {
+            int offset = item * 4;
+            for (int row = itemCells[offset + 1]; row <= itemCells[offset + 3]; row++) {
+                for (int col = itemCells[offset]; col <= itemCells[offset + 2]; col++) {
+                    cellStarts[row * nCols + col + 1]++;
+                    nEntries++;
+                }
+            }
+        }
+        for (int cell = 0; cell < nCells; cell++) {
+            cellStarts[cell + 1] += cellStarts[cell];
+        }
+
+        // Fill the cells, using the starts as insertion points and restoring them afterwards
+        if (cellItems.length < nEntries) {
+            cellItems = new int[nEntries];
+        }
+        for (int item = 0; item < itemCount; item++) {
+            int offset = item * 4;
+            for (int row = itemCells[offset + 1]; row <= itemCells[offset + 3]; row++) {
+                for (int col = itemCells[offset]; col <= itemCells[offset + 2]; col++) {
+                    cellItems[cellStarts[row * nCols + col]++] = item;
+                }
+            }
+        }
+        for (int cell = nCells; cell > 0; cell--) {
+            cellStarts[cell] = cellStarts[cell - 1];
+        }
+        cellStarts[0] = 0;
+
+        if (itemStamps.length < itemCount) {
+            itemStamps = new int[itemCount];
+            stamp = 0;
+        }
+        built = true;
+    }
+
+    /**
+     * Finds the items whose cells intersect a rectangle. Items are reported once, in ascending
+     * order (i.e., in the order they were added). As cells are coarse, some reported items may
+     * not actually intersect the rectangle.
+     *
+     * @return the number of items found
+     */
+    public int query(float queryX, float queryY, float queryWidth, float queryHeight,
+                     IntArray out) {
+        if (!built) {
+            throw new IllegalStateException("The grid must be built before querying it");
+        }
+
+        out.clear();
+        if (queryWidth < 0 || queryHeight < 0) {
+            return 0;
+        }
+
+        // Stamps mark the items already reported by this query
+        stamp++;
+        if (stamp == Integer.MAX_VALUE) {
+            for (int item = 0; item < itemCount; item++) {
+                itemStamps[item] = 0;
+            }
+            stamp = 1;
+        }
+
+        int minCol = getCol(queryX);
+        int maxCol = getCol(queryX + queryWidth);
+        int minRow = getRow(queryY);
+        int maxRow = getRow(queryY + queryHeight);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                int cell = row * nCols + col;
+                for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+                    int item = cellItems[i];
+                    if (itemStamps[item] != stamp) {
+                        itemStamps[item] = stamp;
+                        out.add(item);
+                    }
+                }
+            }
+        }
+
+        // Only needed when the items come from more than one cell
+        if (minCol != maxCol || minRow != maxRow) {
+            out.sort();
+        }
+        return out.size;
+    }
+
+    protected int getCol(float px) {
+        int col = (int) Math.floor((px - x) / cellWidth);
+        return col < 0 ? 0 : (col >= nCols ? nCols - 1 : col);
+    }
+
+    protected int getRow(float py) {
+        int row = (int) Math.floor((py - y) / cellHeight);
+        return row < 0 ? 0 : (row >= nRows ? nRows - 1 : row);
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public int getCols() {
+        return nCols;
+    }
+
+    public int getRows() {
+        return nRows;
+    }
+
+    public boolean isBuilt() {
+        return built;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Disposable;
+import com.quadbits.gdxhelper.PerGame;
+
+import javax.inject.Inject;
+
+/**
+ * A single white texel shared by all the actors that need to draw untextured (flat or
+ * per-vertex colored) geometry through a {@link com.badlogic.gdx.graphics.g2d.Batch}. Using the
+ * same texel everywhere means that such actors never force the batch to switch textures.
+ * <p/>
+ * The texture is created lazily on the first call to {@link #getRegion()}, which must happen
+ * in the GL thread.
+ */
+@PerGame
+public class WhiteTexel implements Disposable {
+    protected Texture ownTexture;
+    protected TextureRegion region;
+    protected float u;
+    protected float v;
+
+    @Inject
+    public WhiteTexel() {
+        ownTexture = null;
+        region = new TextureRegion();
+    }
+
+    public TextureRegion getRegion() {
+        if (region.getTexture() == null) {
+            Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
+            pixmap.drawPixel(0, 0, Color.rgba8888(Color.WHITE));
+            ownTexture = new Texture(pixmap);
+            pixmap.dispose();
+            setRegion(ownTexture, 0, 0, 1, 1);
+        }
+
+        return region;
+    }
+
+    /**
+     * Points the white texel to an arbitrary region of a texture (e.g., a texel in a shared
+     * texture page), so that untextured geometry can be batched along with the rest of sprites
+     * in that texture. The region must be fully white and opaque.
+     */
+    public void setRegion(Texture texture, int x, int y, int width, int height) {
+        if (ownTexture != null && ownTexture != texture) {
+            ownTexture.dispose();
+            ownTexture = null;
+        }
+
+        region.setTexture(texture);
+        region.setRegion(x, y, width, height);
+
+        // Sample the center of the region to avoid bleeding from neighbouring texels
+        u = 0.5f * (region.getU() + region.getU2());
+        v = 0.5f * (region.getV() + region.getV2());
+    }
+
+    public Texture getTexture() {
+        return getRegion().getTexture();
+    }
+
+    public float getU() {
+        getRegion();
+        return u;
+    }
+
+    public float getV() {
+        getRegion();
+        return v;
+    }
+
+    @Override
+    public void dispose() {
+        if (ownTexture != null) {
+            ownTexture.dispose();
+            ownTexture = null;
+        }
+        region.setTexture(null);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.actors;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class ControllableGroupTest {
+    @Test
+    public void testChildrenBoundsAreCachedUntilInvalidated() {
+        // Arrange
+        Layer layer = new Layer();
+        TestActor actor = new TestActor(10, 20, 30, 40);
+        layer.addActor(actor);
+        Rectangle bounds = new Rectangle();
+
+        // Act
+        layer.getCullingBounds(bounds);
+        layer.getCullingBounds(bounds);
+
+        // Assert
+        Assert.assertEquals(1, actor.boundsQueries);
+        Assert.assertEquals(new Rectangle(10, 20, 30, 40), bounds);
+    }
+
+    @Test
+    public void testMovingANestedChildInvalidatesTheBoundsOfTheAncestors() {
+        // Arrange
+        Layer outer = new Layer();
+        Layer inner = new Layer();
+        inner.setPosition(100, 0);
+        outer.addActor(inner);
+        TestActor actor = new TestActor(0, 0, 10, 10);
+        inner.addActor(actor);
+        Rectangle bounds = new Rectangle();
+        outer.getCullingBounds(bounds);
+
+        // Act
+        actor.setPosition(50, 60);
+        outer.getCullingBounds(bounds);
+
+        // Assert
+        Assert.assertEquals(new Rectangle(150, 60, 10, 10), bounds);
+    }
+
+    @Test
+    public void testAddingAndRemovingChildrenInvalidatesTheBounds() {
+        // Arrange
+        Layer layer = new Layer();
+        TestActor first = new TestActor(0, 0, 10, 10);
+        TestActor second = new TestActor(90, 90, 10, 10);
+        layer.addActor(first);
+        Rectangle bounds = new Rectangle();
+        layer.getCullingBounds(bounds);
+
+        // Act
+        layer.addActor(second);
+        layer.getCullingBounds(bounds);
+        Rectangle boundsWithSecond = new Rectangle(bounds);
+        first.remove();
+        layer.getCullingBounds(bounds);
+
+        // Assert
+        Assert.assertEquals(new Rectangle(0, 0, 100, 100), boundsWithSecond);
+        Assert.assertEquals(new Rectangle(90, 90, 10, 10), bounds);
+    }
+
+    @Test
+    public void testRotatingATransformedGroupInvalidatesTheBoundsOfItsParent() {
+        // Arrange
+        Layer outer = new Layer();
+        Layer inner = new Layer();
+        inner.setTransform(true);
+        outer.addActor(inner);
+        inner.addActor(new TestActor(0, 0, 20, 10));
+        Rectangle bounds = new Rectangle();
+        outer.getCullingBounds(bounds);
+
+        // Act
+        inner.setRotation(90);
+        outer.getCullingBounds(bounds);
+
+        // Assert
+        Assert.assertEquals(-10, bounds.x, 1e-4f);
+        Assert.assertEquals(0, bounds.y, 1e-4f);
+        Assert.assertEquals(10, bounds.width, 1e-4f);
+        Assert.assertEquals(20, bounds.height, 1e-4f);
+    }
+
+    @Test
+    public void testGroupsWithNonCullableChildrenHaveUnknownBounds() {
+        // Arrange
+        Layer layer = new Layer();
+        layer.addActor(new TestActor(0, 0, 10, 10));
+        layer.addActor(new Actor());
+
+        // Act
+        boolean known = layer.getCullingBounds(new Rectangle());
+
+        // Assert
+        Assert.assertFalse(known);
+    }
+
+    private static class TestActor extends BaseActor implements Cullable {
+        int boundsQueries;
+
+        TestActor(float x, float y, float width, float height) {
+            setBounds(x, y, width, height);
+        }
+
+        @Override
+        public boolean getCullingBounds(Rectangle bounds) {
+            boundsQueries++;
+            bounds.set(getX(), getY(), getWidth(), getHeight());
+            return true;
+        }
+    }
+}
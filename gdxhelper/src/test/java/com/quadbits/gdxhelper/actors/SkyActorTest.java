@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.actors;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.math.Rectangle;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class SkyActorTest {
+    private static final float EPSILON = 1e-4f;
+
+    SkyActor actor;
+
+    @Before
+    public void setUp() {
+        actor = new SkyActor();
+        // setBounds() does not go through setSize(), which would generate the gradient
+        actor.setBounds(20, 30, 100, 200);
+    }
+
+    @Test
+    public void testDrawWithoutGradientPlacesPlaceholderOverActor() {
+        // Arrange
+        Rectangle bounds = new Rectangle();
+        actor.getCullingBounds(bounds);
+
+        // Act
+        Sprite sprite = actor.getSkySprite();
+
+        // Assert
+        Assert.assertSame(actor.placeholder, sprite);
+        float[] vertices = sprite.getVertices();
+        Assert.assertEquals(20, vertices[Batch.X1], EPSILON);
+        Assert.assertEquals(30, vertices[Batch.Y1], EPSILON);
+        Assert.assertEquals(120, vertices[Batch.X3], EPSILON);
+        Assert.assertEquals(230, vertices[Batch.Y3], EPSILON);
+        Assert.assertEquals(sprite.getBoundingRectangle(), bounds);
+    }
+
+    @Test
+    public void testPlaceholderFollowsActorMoves() {
+        // Arrange
+        actor.getSkySprite();
+        actor.setPosition(-10, 5);
+        Rectangle bounds = new Rectangle();
+        actor.getCullingBounds(bounds);
+
+        // Act
+        Sprite sprite = actor.getSkySprite();
+
+        // Assert
+        Assert.assertEquals(-10, sprite.getX(), EPSILON);
+        Assert.assertEquals(5, sprite.getY(), EPSILON);
+        Assert.assertEquals(sprite.getBoundingRectangle(), bounds);
+    }
+
+    @Test
+    public void testOpaqueBoundsCoverActorWithoutGradient() {
+        // Arrange
+        Rectangle bounds = new Rectangle();
+
+        // Act
+        boolean opaque = actor.getOpaqueBounds(bounds);
+
+        // Assert
+        Assert.assertTrue(opaque);
+        Assert.assertEquals(new Rectangle(20, 30, 100, 200), bounds);
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.actors;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class SpriteFieldActorTest {
+    private static final float EPSILON = 1e-4f;
+
+    TestSpriteFieldActor actor;
+
+    @Before
+    public void setUp() {
+        actor = new TestSpriteFieldActor();
+        actor.setSize(100, 100);
+        actor.addRegion(new TestRegion(10, 10));
+    }
+
+    @Test
+    public void testDriftWrapsAroundTheActorArea() {
+        // Arrange: half the actor's width per second to the right, and down
+        actor.setVelocityRange(0.5f, 0.5f, -0.5f, -0.5f);
+        actor.populate(1);
+        actor.elementX[0] = 90;
+        actor.elementY[0] = 10;
+
+        // Act
+        actor.act(0.5f);
+
+        // Assert
+        Assert.assertEquals(15, actor.getElementX(0), EPSILON);
+        Assert.assertEquals(85, actor.getElementY(0), EPSILON);
+    }
+
+    @Test
+    public void testDriftWithoutWrapLeavesTheActorArea() {
+        // Arrange
+        actor.setVelocityRange(0.5f, 0.5f, 0, 0);
+        actor.setWrapX(false);
+        actor.populate(1);
+        actor.elementX[0] = 90;
+
+        // Act
+        actor.act(0.5f);
+
+        // Assert
+        Assert.assertEquals(115, actor.getElementX(0), EPSILON);
+    }
+
+    @Test
+    public void testTwinklePhaseWrapsAroundACycle() {
+        // Arrange: one cycle per second
+        actor.setTwinkleSpeedRange(1, 1);
+        actor.setTwinkleAmplitude(1);
+        actor.populate(1);
+        actor.elementTwinklePhase[0] = MathUtils.PI;
+
+        // Act
+        actor.act(0.75f);
+
+        // Assert
+        Assert.assertEquals(MathUtils.PI / 2, actor.elementTwinklePhase[0], EPSILON);
+    }
+
+    @Test
+    public void testElementsAreCulledByTheirCircumscribedCircle() {
+        // Arrange: 10x10 elements, i.e., a radius of 10
+        actor.populate(3);
+        actor.elementX[0] = 50;
+        actor.elementY[0] = 50;
+        actor.elementX[1] = 105; // overlaps the viewport by its radius
+        actor.elementY[1] = 50;
+        actor.elementX[2] = 115;
+        actor.elementY[2] = 50;
+        Rectangle viewport = new Rectangle(0, 0, 100, 100);
+
+        // Act
+        actor.drawElements(null, 1, viewport);
+
+        // Assert
+        Assert.assertEquals(2, actor.getVisibleElementCount());
+        Assert.assertEquals(2 * SpriteFieldActor.ELEMENT_SIZE, actor.flushedVertices.size);
+        Assert.assertEquals(45, actor.flushedVertices.get(0), EPSILON);
+        Assert.assertEquals(100, actor.flushedVertices.get(SpriteFieldActor.ELEMENT_SIZE),
+                EPSILON);
+    }
+
+    @Test
+    public void testVerticesAreFlushedInBulkWhenTheBufferIsFull() {
+        // Arrange
+        int count = SpriteFieldActor.VERTICES_BUFFER_ELEMENTS + 10;
+        actor.populate(count);
+
+        // Act
+        actor.drawElements(null, 1, null);
+
+        // Assert
+        Assert.assertEquals(2, actor.flushSizes.size);
+        Assert.assertEquals(SpriteFieldActor.VERTICES_BUFFER_ELEMENTS *
+                SpriteFieldActor.ELEMENT_SIZE, actor.flushSizes.get(0));
+        Assert.assertEquals(10 * SpriteFieldActor.ELEMENT_SIZE, actor.flushSizes.get(1));
+        Assert.assertEquals(count, actor.getVisibleElementCount());
+    }
+
+    @Test
+    public void testVerticesOfAnUnrotatedElement() {
+        // Arrange
+        actor.setPosition(1000, 2000);
+        actor.populate(1);
+        actor.elementX[0] = 50;
+        actor.elementY[0] = 60;
+        actor.elementScale[0] = 2;
+
+        // Act
+        actor.drawElements(null, 1, null);
+
+        // Assert: bottom-left, top-left, top-right, bottom-right corners of a 20x20 quad
+        float[] expected = {1040, 2050, 1040, 2070, 1060, 2070, 1060, 2050};
+        for (int corner = 0; corner < 4; corner++) {
+            int offset = corner * SpriteFieldActor.VERTEX_SIZE;
+            Assert.assertEquals(expected[2 * corner], actor.flushedVertices.get(offset),
+                    EPSILON);
+            Assert.assertEquals(expected[2 * corner + 1], actor.flushedVertices.get(offset + 1),
+                    EPSILON);
+        }
+    }
+
+    @Test
+    public void testMaxSleepTimeWhenNoElementIsOnScreen() {
+        // Arrange
+        actor.setVelocityRange(0.1f, 0.1f, 0, 0);
+        actor.populate(1);
+        actor.elementX[0] = 50;
+        actor.elementY[0] = 50;
+
+        // Act
+        actor.act(0.1f);
+        actor.drawElements(null, 1, new Rectangle(500, 500, 100, 100));
+        long offScreenSleepTime = actor.getMaxSleepTime();
+        actor.act(0.1f);
+        actor.drawElements(null, 1, new Rectangle(0, 0, 100, 100));
+        long onScreenSleepTime = actor.getMaxSleepTime();
+        actor.act(0.1f); // culled by its group: not drawn
+        long notDrawnSleepTime = actor.getMaxSleepTime();
+
+        // Assert
+        Assert.assertEquals(500, offScreenSleepTime);
+        Assert.assertEquals(0, onScreenSleepTime);
+        Assert.assertEquals(500, notDrawnSleepTime);
+    }
+
+    @Test
+    public void testMaxSleepTimeOfAStaticField() {
+        // Arrange
+        actor.populate(1);
+
+        // Act
+        actor.drawElements(null, 1, null);
+
+        // Assert
+        Assert.assertEquals(Long.MAX_VALUE, actor.getMaxSleepTime());
+    }
+
+    private static class TestSpriteFieldActor extends SpriteFieldActor {
+        final FloatArray flushedVertices = new FloatArray();
+        final IntArray flushSizes = new IntArray();
+
+        @Override
+        protected void flushVertices(Batch batch) {
+            if (verticesOffset > 0) {
+                flushedVertices.addAll(vertices, 0, verticesOffset);
+                flushSizes.add(verticesOffset);
+            }
+            verticesOffset = 0;
+            verticesTexture = null;
+        }
+    }
+
+    private static class TestRegion extends TextureRegion {
+        private final int width;
+        private final int height;
+
+        TestRegion(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public int getRegionWidth() {
+            return width;
+        }
+
+        @Override
+        public int getRegionHeight() {
+            return height;
+        }
+    }
+}
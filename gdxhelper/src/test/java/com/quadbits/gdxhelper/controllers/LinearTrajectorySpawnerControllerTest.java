@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.controllers;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Group;
+import com.badlogic.gdx.utils.Pool;
+import com.quadbits.gdxhelper.actors.Layer;
+import com.quadbits.gdxhelper.screens.LWPScreen;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class LinearTrajectorySpawnerControllerTest {
+    @Test
+    public void testSpawnerDrivenLayerKeepsTheScreenAwakeDuringAFlight() {
+        // Arrange
+        final RandomXS128 random = new RandomXS128(42);
+        LinearTrajectoryController trajectory = new LinearTrajectoryController();
+        trajectory.random = random;
+        trajectory.setSource(0, 0);
+        trajectory.setTarget(1000, 0);
+        trajectory.setAvgSpeedMillis(0.1f); // 10 seconds per flight
+
+        LinearTrajectorySpawnerController spawner = new LinearTrajectorySpawnerController();
+        spawner.random = random;
+        spawner.linearTrajectoryControllerPool = new Pool<LinearTrajectoryController>() {
+            @Override
+            protected LinearTrajectoryController newObject() {
+                LinearTrajectoryController controller = new LinearTrajectoryController();
+                controller.random = random;
+                controller.setPool(this);
+                return controller;
+            }
+        };
+        spawner.setTrajectory(trajectory);
+        spawner.setAvgSpawnIntervalMillis(1000);
+        Actor flier = new Actor();
+        spawner.addActor(flier);
+
+        Layer layer = new Layer();
+        layer.addController(spawner);
+        Group root = new Group();
+        root.addActor(layer);
+
+        // Act
+        spawner.control(layer, 0.1f);
+        long sleepBeforeSpawn = LWPScreen.getMaxSleepTimeFromGroup(root);
+        spawner.control(layer, 1f);
+        long sleepDuringFlight = LWPScreen.getMaxSleepTimeFromGroup(root);
+
+        // Assert
+        Assert.assertEquals(900, sleepBeforeSpawn);
+        Assert.assertEquals(1, spawner.getFlightsInProgress());
+        Assert.assertSame(layer, flier.getParent());
+        Assert.assertEquals(0, sleepDuringFlight);
+    }
+
+    @Test
+    public void testLandedActorsReturnToThePool() {
+        // Arrange
+        final RandomXS128 random = new RandomXS128(42);
+        LinearTrajectoryController trajectory = new LinearTrajectoryController();
+        trajectory.setSource(0, 0);
+        trajectory.setTarget(1000, 0);
+        trajectory.setAvgSpeedMillis(1f); // 1 second per flight
+
+        LinearTrajectorySpawnerController spawner = new LinearTrajectorySpawnerController();
+        spawner.random = random;
+        spawner.linearTrajectoryControllerPool = new Pool<LinearTrajectoryController>() {
+            @Override
+            protected LinearTrajectoryController newObject() {
+                LinearTrajectoryController controller = new LinearTrajectoryController();
+                controller.random = random;
+                controller.setPool(this);
+                return controller;
+            }
+        };
+        spawner.setTrajectory(trajectory);
+        spawner.setAvgSpawnIntervalMillis(10000);
+        Actor flier = new Actor();
+        spawner.addActor(flier);
+        Layer layer = new Layer();
+
+        // Act
+        spawner.control(layer, 10f);
+        boolean flyingAfterSpawn = flier.getParent() == layer;
+        spawner.control(layer, 2f);
+
+        // Assert
+        Assert.assertTrue(flyingAfterSpawn);
+        Assert.assertEquals(0, spawner.getFlightsInProgress());
+        Assert.assertNull(flier.getParent());
+        Assert.assertEquals(1, spawner.getActorCount());
+    }
+}
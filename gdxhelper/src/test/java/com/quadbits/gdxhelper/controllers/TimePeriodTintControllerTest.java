@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.controllers;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Group;
+import com.quadbits.gdxhelper.actors.Layer;
+import com.quadbits.gdxhelper.screens.LWPScreen;
+import com.quadbits.gdxhelper.utils.TimeManager;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class TimePeriodTintControllerTest {
+    TimePeriodTintController controller;
+    Layer layer;
+    Actor child;
+    Group root;
+
+    @Before
+    public void setUp() {
+        controller = new TimePeriodTintController();
+        controller.timeManager = new TimeManager(0.3f, 0.9f);
+        controller.setMembershipFunction(new TimeManager.TimeFuzzyPeriodMembershipFunction() {
+            @Override
+            public float evaluate(TimeManager timeManager) {
+                return 1;
+            }
+        });
+        controller.setColorsSize(2);
+        controller.setColor(0, Color.RED);
+        controller.setColor(1, Color.BLUE);
+        controller.setSecondaryColorIndex(1);
+
+        layer = new Layer();
+        child = new Actor();
+        layer.addActor(child);
+        layer.addController(controller);
+        root = new Group();
+        root.addActor(layer);
+    }
+
+    @Test
+    public void testGroupTintIsSetInsteadOfTheActorColor() {
+        // Arrange
+        float delta = 0.001f;
+
+        // Act
+        controller.control(layer, 0.016f);
+
+        // Assert
+        Assert.assertEquals(1, layer.getTint().r, delta);
+        Assert.assertEquals(0, layer.getTint().g, delta);
+        Assert.assertEquals(0, layer.getTint().b, delta);
+        Assert.assertEquals(Color.WHITE, layer.getColor());
+        Assert.assertEquals(Color.WHITE, child.getColor());
+    }
+
+    @Test
+    public void testGroupTintCrossFadeKeepsTheScreenAwake() {
+        // Arrange
+        float delta = 0.001f;
+        controller.activateSecondaryPalette();
+
+        // Act
+        long sleepWhileFading = LWPScreen.getMaxSleepTimeFromGroup(root);
+        controller.control(layer, 0.5f);
+        Color halfwayTint = new Color(layer.getTint());
+        controller.control(layer, 1f);
+        long sleepAfterFading = LWPScreen.getMaxSleepTimeFromGroup(root);
+
+        // Assert
+        Assert.assertEquals(0, sleepWhileFading);
+        Assert.assertEquals(0.5f, halfwayTint.r, delta);
+        Assert.assertEquals(0.5f, halfwayTint.b, delta);
+        Assert.assertEquals(0, layer.getTint().r, delta);
+        Assert.assertEquals(1, layer.getTint().b, delta);
+        Assert.assertEquals(Long.MAX_VALUE, sleepAfterFading);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Set;
+
+/**
+ *
+ */
+public class AnimatedSpriteGridTest {
+    AnimatedSpriteGrid animatedSpriteGrid;
+
+    @Before
+    public void setUp() {
+        animatedSpriteGrid = new AnimatedSpriteGrid();
+        animatedSpriteGrid.animationSequencePool = new Pool<AnimatedSpriteGrid.AnimationSequence>() {
+            @Override
+            protected AnimatedSpriteGrid.AnimationSequence newObject() {
+                return new AnimatedSpriteGrid.AnimationSequence();
+            }
+        };
+    }
+
+    @Test
+    public void testFindFrameIndex() {
+        // Arrange
+        AnimatedSpriteGrid.AnimationSequence animation = new AnimatedSpriteGrid.AnimationSequence();
+        for (int i = 0; i < 20; i++) {
+            animation.addFrame(createFrame(0.5f));
+        }
+
+        // Assert
+        Assert.assertEquals(0, animation.findFrameIndex(0));
+        Assert.assertEquals(0, animation.findFrameIndex(0.5f));
+        Assert.assertEquals(1, animation.findFrameIndex(0.75f));
+        Assert.assertEquals(19, animation.findFrameIndex(10));
+        Assert.assertEquals(-1, animation.findFrameIndex(10.1f));
+        Assert.assertEquals(10, animation.getDuration(), 0);
+    }
+
+    @Test
+    public void testStateIds() {
+        // Arrange
+        animatedSpriteGrid.addFrame("idle", createFrame(1));
+        animatedSpriteGrid.addFrame("walk", createFrame(1));
+        animatedSpriteGrid.addFrame("idle", createFrame(1));
+
+        // Act
+        animatedSpriteGrid.setState("walk");
+
+        // Assert
+        Assert.assertEquals(2, animatedSpriteGrid.getStateCount());
+        Assert.assertEquals(0, animatedSpriteGrid.getStateId("idle"));
+        Assert.assertEquals(1, animatedSpriteGrid.getStateId("walk"));
+        Assert.assertEquals(-1, animatedSpriteGrid.getStateId("run"));
+        Assert.assertEquals(1, animatedSpriteGrid.getStateId());
+        Assert.assertEquals("walk", animatedSpriteGrid.getState());
+        Assert.assertEquals(2, animatedSpriteGrid.getAnimationSequence("idle").getSize());
+    }
+
+    @Test
+    public void testAllStates() {
+        // Arrange
+        animatedSpriteGrid.addFrame("idle", createFrame(1));
+        animatedSpriteGrid.addFrame("walk", createFrame(1));
+        animatedSpriteGrid.addFrame("idle", createFrame(1));
+
+        // Act
+        Set<Object> allStates = animatedSpriteGrid.getAllStates();
+        Array<Object> states = animatedSpriteGrid.getStates();
+
+        // Assert
+        Assert.assertEquals(2, allStates.size());
+        Assert.assertTrue(allStates.contains("idle"));
+        Assert.assertTrue(allStates.contains("walk"));
+        Assert.assertEquals(2, states.size);
+        Assert.assertEquals("idle", states.get(0));
+        Assert.assertEquals("walk", states.get(1));
+    }
+
+    @Test
+    public void testLoopAnimation() {
+        // Arrange
+        for (int i = 0; i < 4; i++) {
+            animatedSpriteGrid.addFrame("idle", createFrame(1));
+        }
+        animatedSpriteGrid.getAnimationSequence("idle").setLoopAnimation(true);
+        animatedSpriteGrid.setState("idle");
+
+        // Act & Assert
+        animatedSpriteGrid.calculateCurrentAnimationFrame(2.5f);
+        Assert.assertEquals(2, animatedSpriteGrid.getActiveFrameIndex());
+        animatedSpriteGrid.calculateCurrentAnimationFrame(2);
+        Assert.assertEquals(0, animatedSpriteGrid.getActiveFrameIndex());
+    }
+
+    @Test
+    public void testAnimationFinished() {
+        // Arrange
+        for (int i = 0; i < 4; i++) {
+            animatedSpriteGrid.addFrame("idle", createFrame(1));
+        }
+        animatedSpriteGrid.setState("idle");
+
+        // Act
+        AnimatedSpriteGrid.Frame frame = animatedSpriteGrid.calculateCurrentAnimationFrame(5);
+
+        // Assert
+        Assert.assertNull(frame);
+        Assert.assertEquals(-1, animatedSpriteGrid.getActiveFrameIndex());
+    }
+
+    @Test
+    public void testShowEachFrameAtLeastOnce() {
+        // Arrange
+        for (int i = 0; i < 4; i++) {
+            animatedSpriteGrid.addFrame("idle", createFrame(1));
+        }
+        animatedSpriteGrid.setState("idle");
+        animatedSpriteGrid.setShowEachFrameAtLeastOnce(true);
+
+        // Act & Assert: the first frame has not been shown yet
+        animatedSpriteGrid.calculateCurrentAnimationFrame(2.5f);
+        Assert.assertEquals(0, animatedSpriteGrid.getActiveFrameIndex());
+
+        // Act & Assert: frames are skipped one at a time
+        animatedSpriteGrid.calculateCurrentAnimationFrame(0.1f);
+        Assert.assertEquals(1, animatedSpriteGrid.getActiveFrameIndex());
+        animatedSpriteGrid.calculateCurrentAnimationFrame(0.1f);
+        Assert.assertEquals(2, animatedSpriteGrid.getActiveFrameIndex());
+
+        // Act & Assert: the frame corresponding to the time passed has been reached
+        animatedSpriteGrid.calculateCurrentAnimationFrame(0.1f);
+        Assert.assertEquals(2, animatedSpriteGrid.getActiveFrameIndex());
+
+        // Act & Assert: the last frame is shown before finishing
+        animatedSpriteGrid.calculateCurrentAnimationFrame(2);
+        Assert.assertEquals(3, animatedSpriteGrid.getActiveFrameIndex());
+        animatedSpriteGrid.calculateCurrentAnimationFrame(0.1f);
+        Assert.assertEquals(-1, animatedSpriteGrid.getActiveFrameIndex());
+    }
+
+    private static AnimatedSpriteGrid.Frame createFrame(float duration) {
+        AnimatedSpriteGrid.Frame frame = new AnimatedSpriteGrid.Frame();
+        frame.setDuration(duration);
+        return frame;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.math.Vector2;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class CloudPlacerTest {
+    @Test
+    public void testAllowPolicyFollowsHaltonSequence() {
+        // Arrange
+        CloudPlacer placer = new CloudPlacer();
+        placer.setOverlapPolicy(CloudPlacer.OverlapPolicy.ALLOW);
+        placer.begin(100, 50, 5);
+        Vector2 position = new Vector2();
+
+        // Act
+        placer.place(10, 10, position);
+
+        // Assert
+        Assert.assertEquals(DrawUtils.haltonSequence(5, 2) * 100, position.x, 0.001f);
+        Assert.assertEquals(DrawUtils.haltonSequence(5, 3) * 50, position.y, 0.001f);
+        Assert.assertEquals(6, placer.getIndex());
+    }
+
+    @Test
+    public void testRectanglesAreKeptHorizontallyInside() {
+        // Arrange
+        CloudPlacer placer = new CloudPlacer();
+        placer.begin(100, 100, 1);
+        Vector2 position = new Vector2();
+
+        // Act & Assert
+        for (int i = 0; i < 20; i++) {
+            placer.place(40, 10, position);
+            Assert.assertTrue(position.x >= 0);
+            Assert.assertTrue(position.x + 40 <= 100.001f);
+        }
+    }
+
+    @Test
+    public void testAvoidPolicyReducesOverlap() {
+        // Arrange
+        CloudPlacer avoiding = new CloudPlacer();
+        CloudPlacer allowing = new CloudPlacer();
+        allowing.setOverlapPolicy(CloudPlacer.OverlapPolicy.ALLOW);
+        avoiding.begin(400, 200, 7);
+        allowing.begin(400, 200, 7);
+        Vector2 position = new Vector2();
+
+        // Act
+        for (int i = 0; i < 12; i++) {
+            avoiding.place(60, 30, position);
+            allowing.place(60, 30, position);
+        }
+
+        // Assert
+        Assert.assertTrue(avoiding.getCoveredFraction() > allowing.getCoveredFraction());
+    }
+
+    @Test
+    public void testCoveredRectanglesAreAvoided() {
+        // Arrange
+        CloudPlacer placer = new CloudPlacer();
+        placer.setCoverageDivisions(2, 1);
+        placer.begin(100, 10, 1);
+        placer.addCovered(0, 0, 40, 5);
+        Vector2 position = new Vector2();
+
+        // Act
+        placer.place(10, 5, position);
+
+        // Assert
+        Assert.assertTrue(position.x >= 50);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class DrawUtilsTest {
+    private static final float EPSILON = 1e-4f;
+
+    @Test
+    public void testTransformBoundsTranslation() {
+        // Arrange
+        Rectangle bounds = new Rectangle(0, 0, 10, 20);
+
+        // Act
+        DrawUtils.transformBounds(bounds, 5, 6, 0, 0, 1, 1, 0, bounds);
+
+        // Assert
+        Assert.assertEquals(new Rectangle(5, 6, 10, 20), bounds);
+    }
+
+    @Test
+    public void testTransformBoundsRotationAroundOrigin() {
+        // Arrange
+        Rectangle local = new Rectangle(0, 0, 10, 20);
+        Rectangle bounds = new Rectangle();
+
+        // Act: 90 degrees around the center
+        DrawUtils.transformBounds(local, 100, 100, 5, 10, 1, 1, 90, bounds);
+
+        // Assert
+        Assert.assertEquals(95, bounds.x, EPSILON);
+        Assert.assertEquals(105, bounds.y, EPSILON);
+        Assert.assertEquals(20, bounds.width, EPSILON);
+        Assert.assertEquals(10, bounds.height, EPSILON);
+    }
+
+    @Test
+    public void testTransformBoundsScale() {
+        // Arrange
+        Rectangle bounds = new Rectangle(0, 0, 10, 10);
+
+        // Act
+        DrawUtils.transformBounds(bounds, 0, 0, 0, 0, 2, 0.5f, 0, bounds);
+
+        // Assert
+        Assert.assertEquals(0, bounds.x, EPSILON);
+        Assert.assertEquals(0, bounds.y, EPSILON);
+        Assert.assertEquals(20, bounds.width, EPSILON);
+        Assert.assertEquals(5, bounds.height, EPSILON);
+    }
+
+    @Test
+    public void testPixelScaleTakesViewportAndZoomIntoAccount() {
+        // Arrange: a 400x300 viewport stretched to an 800x600 screen, zoomed in x2
+        Matrix4 projection = new Matrix4().setToOrtho2D(0, 0, 400 * 0.5f, 300 * 0.5f);
+
+        // Act
+        float scale = DrawUtils.getPixelScale(projection, new Matrix4(), 800, 600);
+
+        // Assert
+        Assert.assertEquals(4, scale, EPSILON);
+    }
+
+    @Test
+    public void testPixelScaleTakesTransformIntoAccount() {
+        // Arrange: a screen-sized viewport, and a group scaled x0.5 and rotated 90 degrees
+        Matrix4 projection = new Matrix4().setToOrtho2D(0, 0, 800, 600);
+        Matrix4 transform = new Matrix4().set(new Affine2().rotate(90).scale(0.5f, 0.5f));
+
+        // Act
+        float scale = DrawUtils.getPixelScale(projection, transform, 800, 600);
+
+        // Assert
+        Assert.assertEquals(0.5f, scale, EPSILON);
+    }
+
+    @Test
+    public void testOnlyTilesOverlappingTheViewportAreDrawn() {
+        // Arrange: tiles at x = -70, 30, 130, 230, 330 and 430
+        TestDrawable drawable = new TestDrawable(30, 0, 100, 50);
+        Rectangle viewport = new Rectangle(220, 0, 160, 50);
+
+        // Act
+        int culled = DrawUtils.drawTileableSprite(null, 1, drawable, true, false, 0, 500, 0, 0,
+                viewport);
+
+        // Assert
+        Assert.assertEquals(3, culled);
+        Assert.assertEquals(3, drawable.drawnPositions.size);
+        Assert.assertEquals(new Vector2(130, 0), drawable.drawnPositions.get(0));
+        Assert.assertEquals(new Vector2(230, 0), drawable.drawnPositions.get(1));
+        Assert.assertEquals(new Vector2(330, 0), drawable.drawnPositions.get(2));
+        Assert.assertEquals(30, drawable.getX(), EPSILON);
+    }
+
+    @Test
+    public void testOnlyTilesOverlappingTheViewportAreDrawnInBothDimensions() {
+        // Arrange: 4x4 tiles, from (0, 0) to (400, 200)
+        TestDrawable drawable = new TestDrawable(0, 0, 100, 50);
+        Rectangle viewport = new Rectangle(150, 60, 100, 20);
+
+        // Act
+        int culled = DrawUtils.drawTileableSprite(null, 1, drawable, true, true, 0, 300, 0, 150,
+                viewport);
+
+        // Assert
+        Assert.assertEquals(14, culled);
+        Assert.assertEquals(2, drawable.drawnPositions.size);
+        Assert.assertEquals(new Vector2(100, 50), drawable.drawnPositions.get(0));
+        Assert.assertEquals(new Vector2(200, 50), drawable.drawnPositions.get(1));
+    }
+
+    @Test
+    public void testAllTilesAreDrawnWithoutViewport() {
+        // Arrange
+        TestDrawable drawable = new TestDrawable(30, 0, 100, 50);
+
+        // Act
+        int culled = DrawUtils.drawTileableSprite(null, 1, drawable, true, false, 0, 500, 0, 0,
+                null);
+
+        // Assert
+        Assert.assertEquals(0, culled);
+        Assert.assertEquals(6, drawable.drawnPositions.size);
+        Assert.assertEquals(new Vector2(-70, 0), drawable.drawnPositions.get(0));
+    }
+
+    private static class TestDrawable implements DrawUtils.BatchDrawableSprite {
+        final Array<Vector2> drawnPositions = new Array<Vector2>();
+        float x;
+        float y;
+        final float width;
+        final float height;
+
+        TestDrawable(float x, float y, float width, float height) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public void drawSprite(Batch batch, float parentAlpha) {
+            drawnPositions.add(new Vector2(x, y));
+        }
+
+        @Override
+        public float getX() {
+            return x;
+        }
+
+        @Override
+        public float getY() {
+            return y;
+        }
+
+        @Override
+        public float getWidth() {
+            return width;
+        }
+
+        @Override
+        public float getHeight() {
+            return height;
+        }
+
+        @Override
+        public void setPosition(float x, float y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public void getDrawBounds(Rectangle bounds) {
+            bounds.set(0, 0, width, height);
+        }
+    }
+}
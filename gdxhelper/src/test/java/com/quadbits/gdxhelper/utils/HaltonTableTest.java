@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class HaltonTableTest {
+    @Test
+    public void testValuesMatchHaltonSequence() {
+        // Arrange
+        HaltonTable table = new HaltonTable(3, 64);
+
+        // Act & Assert
+        for (int i = 0; i < 64; i++) {
+            Assert.assertEquals(DrawUtils.haltonSequence(i, 3), table.get(i), 0.00001f);
+        }
+        Assert.assertEquals(1.f / 3.f, table.get(1), 0.00001f);
+        Assert.assertEquals(2.f / 3.f + 1.f / 9.f, table.get(5), 0.00001f);
+    }
+
+    @Test
+    public void testIndicesWrapAround() {
+        // Arrange
+        HaltonTable table = new HaltonTable(2, 16);
+
+        // Act
+        float wrapped = table.get(16 + 3);
+
+        // Assert
+        Assert.assertEquals(table.get(3), wrapped, 0);
+    }
+}
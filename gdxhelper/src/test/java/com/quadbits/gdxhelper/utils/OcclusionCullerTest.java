@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Group;
+import com.quadbits.gdxhelper.actors.Cullable;
+import com.quadbits.gdxhelper.actors.Occluder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class OcclusionCullerTest {
+    @Test
+    public void testActorsCoveredByLaterOpaqueActorsAreHidden() {
+        // Arrange
+        Group root = new Group();
+        TestActor covered = new TestActor(10, 10, 20, 20, false);
+        TestActor partiallyCovered = new TestActor(90, 10, 20, 20, false);
+        TestActor occluder = new TestActor(0, 0, 100, 50, true);
+        root.addActor(covered);
+        root.addActor(partiallyCovered);
+        root.addActor(occluder);
+        OcclusionCuller culler = new OcclusionCuller();
+
+        // Act
+        culler.cull(root, null);
+
+        // Assert
+        Assert.assertFalse(covered.isVisible());
+        Assert.assertTrue(partiallyCovered.isVisible());
+        Assert.assertTrue(occluder.isVisible());
+        Assert.assertEquals(1, culler.getOccludedActorCount());
+    }
+
+    @Test
+    public void testActorsDrawnAfterAnOccluderAreNotHidden() {
+        // Arrange
+        Group root = new Group();
+        TestActor occluder = new TestActor(0, 0, 100, 50, true);
+        TestActor onTop = new TestActor(10, 10, 20, 20, false);
+        root.addActor(occluder);
+        root.addActor(onTop);
+        OcclusionCuller culler = new OcclusionCuller();
+
+        // Act
+        culler.cull(root, null);
+
+        // Assert
+        Assert.assertTrue(onTop.isVisible());
+        Assert.assertEquals(0, culler.getOccludedActorCount());
+    }
+
+    @Test
+    public void testGroupOffsetsAndAlphaAreTakenIntoAccount() {
+        // Arrange
+        Group root = new Group();
+        TestActor covered = new TestActor(110, 10, 20, 20, false);
+        Group layer = new Group();
+        layer.setPosition(100, 0);
+        TestActor occluder = new TestActor(0, 0, 50, 50, true); // (100, 0) in root coordinates
+        layer.addActor(occluder);
+        Group translucentLayer = new Group();
+        translucentLayer.getColor().a = 0.5f;
+        translucentLayer.addActor(new TestActor(0, 0, 1000, 1000, true));
+        root.addActor(covered);
+        root.addActor(layer);
+        root.addActor(translucentLayer);
+        OcclusionCuller culler = new OcclusionCuller();
+
+        // Act
+        culler.cull(root, null);
+
+        // Assert
+        Assert.assertFalse(covered.isVisible());
+        Assert.assertEquals(1, culler.getOccluderCount());
+    }
+
+    @Test
+    public void testViewportCoverageAndRestore() {
+        // Arrange
+        Group root = new Group();
+        TestActor covered = new TestActor(10, 10, 20, 20, false);
+        root.addActor(covered);
+        root.addActor(new TestActor(0, 0, 100, 100, true));
+        OcclusionCuller culler = new OcclusionCuller();
+
+        // Act
+        boolean fullyCovered = culler.cull(root, new Rectangle(0, 0, 100, 100));
+        boolean largerViewportCovered = culler.cull(root, new Rectangle(0, 0, 100, 101));
+        culler.restore();
+
+        // Assert
+        Assert.assertTrue(fullyCovered);
+        Assert.assertFalse(largerViewportCovered);
+        Assert.assertTrue(covered.isVisible());
+        Assert.assertEquals(0, culler.getOccludedActorCount());
+    }
+
+    private static class TestActor extends Actor implements Cullable, Occluder {
+        private final boolean opaque;
+
+        public TestActor(float x, float y, float width, float height, boolean opaque) {
+            setBounds(x, y, width, height);
+            this.opaque = opaque;
+        }
+
+        @Override
+        public boolean getCullingBounds(Rectangle bounds) {
+            bounds.set(getX(), getY(), getWidth(), getHeight());
+            return true;
+        }
+
+        @Override
+        public boolean getOpaqueBounds(Rectangle bounds) {
+            return opaque && getCullingBounds(bounds);
+        }
+    }
+}
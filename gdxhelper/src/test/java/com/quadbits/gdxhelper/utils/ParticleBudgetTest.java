@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class ParticleBudgetTest {
+    static class FakeClient implements ParticleBudget.Client {
+        int liveParticleCount;
+        float emissionScale = 1;
+
+        FakeClient(int liveParticleCount) {
+            this.liveParticleCount = liveParticleCount;
+        }
+
+        @Override
+        public int getLiveParticleCount() {
+            return liveParticleCount;
+        }
+
+        @Override
+        public void setEmissionScale(float emissionScale) {
+            this.emissionScale = emissionScale;
+        }
+    }
+
+    @Test
+    public void testUnderBudgetKeepsFullEmission() {
+        // Arrange
+        ParticleBudget budget = new ParticleBudget();
+        FakeClient client = new FakeClient(100);
+        budget.register(client, 0);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            budget.endFrame();
+        }
+
+        // Assert
+        Assert.assertEquals(1, client.emissionScale, 0);
+        Assert.assertEquals(0, budget.getPressure(), 0);
+        Assert.assertEquals(100, budget.getLiveParticleCount());
+        Assert.assertEquals(100.f / ParticleBudget.DEFAULT_MAX_LIVE_PARTICLES, budget.getLoad(),
+                0.0001f);
+    }
+
+    @Test
+    public void testLowestPriorityIsScaledDownFirst() {
+        // Arrange
+        ParticleBudget budget = new ParticleBudget();
+        budget.setMaxLiveParticles(100);
+        FakeClient low = new FakeClient(150);
+        FakeClient high = new FakeClient(150);
+        budget.register(low, 0);
+        budget.register(high, 10);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            budget.endFrame();
+        }
+
+        // Assert
+        Assert.assertTrue(low.emissionScale < 1);
+        Assert.assertEquals(1, high.emissionScale, 0);
+    }
+
+    @Test
+    public void testSustainedOverloadReachesMinimumScale() {
+        // Arrange
+        ParticleBudget budget = new ParticleBudget();
+        budget.setMaxLiveParticles(100);
+        FakeClient low = new FakeClient(500);
+        FakeClient high = new FakeClient(500);
+        budget.register(low, 0);
+        budget.register(high, 1);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            budget.endFrame();
+        }
+
+        // Assert
+        Assert.assertEquals(1, budget.getPressure(), 0.0001f);
+        Assert.assertEquals(budget.getMinEmissionScale(), low.emissionScale, 0.0001f);
+        Assert.assertEquals(budget.getMinEmissionScale(), high.emissionScale, 0.0001f);
+    }
+
+    @Test
+    public void testPressureDecaysWhenLoadDrops() {
+        // Arrange
+        ParticleBudget budget = new ParticleBudget();
+        budget.setMaxLiveParticles(100);
+        FakeClient client = new FakeClient(500);
+        budget.register(client, 0);
+        for (int i = 0; i < 10; i++) {
+            budget.endFrame();
+        }
+        float pressure = budget.getPressure();
+
+        // Act
+        client.liveParticleCount = 10;
+        budget.endFrame();
+
+        // Assert
+        Assert.assertTrue(budget.getPressure() < pressure);
+    }
+
+    @Test
+    public void testParticleTimeCountsTowardsLoad() {
+        // Arrange
+        ParticleBudget budget = new ParticleBudget();
+        budget.setMaxParticleMillis(1);
+        FakeClient client = new FakeClient(0);
+        budget.register(client, 0);
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            budget.addParticleNanos(5000000);
+            budget.endFrame();
+        }
+
+        // Assert
+        Assert.assertTrue(budget.getParticleMillis() > 1);
+        Assert.assertTrue(budget.getLoad() > 1);
+        Assert.assertTrue(client.emissionScale < 1);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.Pool;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class PoolRegistryTest {
+    private static class DisposableObject implements Disposable {
+        boolean disposed = false;
+
+        @Override
+        public void dispose() {
+            disposed = true;
+        }
+    }
+
+    private static class DisposableObjectPool extends Pool<DisposableObject> {
+        @Override
+        protected DisposableObject newObject() {
+            return new DisposableObject();
+        }
+    }
+
+    @Test
+    public void testClearFreeObjects() {
+        // Arrange
+        PoolRegistry registry = new PoolRegistry();
+        Pool<DisposableObject> pool1 = registry.register(new DisposableObjectPool());
+        Pool<DisposableObject> pool2 = registry.register(new DisposableObjectPool());
+        DisposableObject inUse = pool1.obtain();
+        DisposableObject free1 = pool1.obtain();
+        DisposableObject free2 = pool2.obtain();
+        pool1.free(free1);
+        pool2.free(free2);
+
+        // Act
+        int released = registry.clearFreeObjects();
+
+        // Assert
+        Assert.assertEquals(2, released);
+        Assert.assertEquals(0, registry.getFreeObjectCount());
+        Assert.assertTrue(free1.disposed);
+        Assert.assertTrue(free2.disposed);
+        Assert.assertFalse(inUse.disposed);
+    }
+
+    @Test
+    public void testUnregister() {
+        // Arrange
+        PoolRegistry registry = new PoolRegistry();
+        Pool<DisposableObject> pool = registry.register(new DisposableObjectPool());
+        pool.free(new DisposableObject());
+
+        // Act
+        registry.unregister(pool);
+        int released = registry.clearFreeObjects();
+
+        // Assert
+        Assert.assertEquals(0, released);
+        Assert.assertEquals(0, registry.getPoolCount());
+        Assert.assertEquals(1, pool.getFree());
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.math.Rectangle;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+/**
+ *
+ */
+public class ShelfAllocatorTest {
+    @Test
+    public void testAllocationsDoNotOverlap() {
+        // Arrange
+        ShelfAllocator allocator = new ShelfAllocator(256, 256, 2);
+        ArrayList<Rectangle> rectangles = new ArrayList<Rectangle>();
+
+        // Act
+        for (int i = 0; i < 40; i++) {
+            Rectangle rectangle = new Rectangle();
+            if (allocator.allocate(10 + (i * 7) % 30, 10 + (i * 11) % 25, rectangle)) {
+                rectangles.add(rectangle);
+            }
+        }
+
+        // Assert
+        Assert.assertEquals(40, rectangles.size());
+        for (int i = 0; i < rectangles.size(); i++) {
+            Rectangle r1 = rectangles.get(i);
+            Assert.assertTrue(r1.x >= 2 && r1.y >= 2);
+            Assert.assertTrue(r1.x + r1.width <= 254 && r1.y + r1.height <= 254);
+            for (int j = i + 1; j < rectangles.size(); j++) {
+                Assert.assertFalse(r1.overlaps(rectangles.get(j)));
+            }
+        }
+    }
+
+    @Test
+    public void testPaddingBetweenRectangles() {
+        // Arrange
+        ShelfAllocator allocator = new ShelfAllocator(64, 64, 4);
+        Rectangle r1 = new Rectangle();
+        Rectangle r2 = new Rectangle();
+
+        // Act
+        allocator.allocate(10, 10, r1);
+        allocator.allocate(10, 10, r2);
+
+        // Assert
+        Assert.assertEquals(r1.y, r2.y, 0);
+        Assert.assertEquals(r1.x + r1.width + 4, r2.x, 0);
+    }
+
+    @Test
+    public void testFullAllocator() {
+        // Arrange
+        ShelfAllocator allocator = new ShelfAllocator(32, 32, 0);
+        Rectangle rectangle = new Rectangle();
+
+        // Act
+        boolean first = allocator.allocate(32, 32, rectangle);
+        boolean second = allocator.allocate(1, 1, rectangle);
+        boolean tooBig = new ShelfAllocator(32, 32, 1).allocate(31, 31, rectangle);
+
+        // Assert
+        Assert.assertTrue(first);
+        Assert.assertFalse(second);
+        Assert.assertFalse(tooBig);
+        Assert.assertEquals(32 * 32, allocator.getUsedArea());
+    }
+
+    @Test
+    public void testClear() {
+        // Arrange
+        ShelfAllocator allocator = new ShelfAllocator(32, 32, 0);
+        Rectangle rectangle = new Rectangle();
+        allocator.allocate(32, 32, rectangle);
+
+        // Act
+        allocator.clear();
+
+        // Assert
+        Assert.assertEquals(0, allocator.getUsedArea());
+        Assert.assertTrue(allocator.allocate(32, 32, rectangle));
+    }
+}
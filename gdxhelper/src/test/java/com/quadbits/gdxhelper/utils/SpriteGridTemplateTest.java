@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class SpriteGridTemplateTest {
+    @Test
+    public void testSelectLod() {
+        // Arrange
+        SpriteGridTemplate quarter = createTemplate(0.25f);
+        SpriteGridTemplate half = createTemplate(0.5f);
+        SpriteGridTemplate full = createTemplate(1);
+        full.lods = new SpriteGridTemplate[]{quarter, half, full};
+
+        // Assert
+        Assert.assertSame(quarter, full.selectLod(0.1f));
+        Assert.assertSame(quarter, full.selectLod(0.25f));
+        Assert.assertSame(half, full.selectLod(0.3f));
+        Assert.assertSame(full, full.selectLod(0.75f));
+        Assert.assertSame(full, full.selectLod(2));
+        Assert.assertEquals(3, full.getLodCount());
+    }
+
+    @Test
+    public void testSelectLodWithoutVariants() {
+        // Arrange
+        SpriteGridTemplate template = createTemplate(1);
+
+        // Assert
+        Assert.assertSame(template, template.selectLod(0.1f));
+        Assert.assertEquals(1, template.getLodCount());
+        Assert.assertSame(template, template.getLod(0));
+    }
+
+    @Test
+    public void testDrawingOrderGroupsPages() {
+        // Act
+        SpriteGridTemplate template = new SpriteGridTemplate(2, 2,
+                new TextureRegion[]{new TextureRegion(), new TextureRegion(),
+                        new TextureRegion(), new TextureRegion()}, 1);
+
+        // Assert: regions without texture are all in the same page
+        Assert.assertEquals(1, template.getPageCount());
+        Assert.assertEquals(4, template.getPageCellCount(0));
+        Assert.assertEquals(2, template.getRows());
+        Assert.assertEquals(2, template.getCols());
+    }
+
+    private static SpriteGridTemplate createTemplate(float lodScale) {
+        return new SpriteGridTemplate(1, 1, new TextureRegion[]{new TextureRegion()}, lodScale);
+    }
+}
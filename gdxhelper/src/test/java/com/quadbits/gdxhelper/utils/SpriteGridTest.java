@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.graphics.Color;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class SpriteGridTest {
+    @Test
+    public void testTranslationOnlyChangesTransform() {
+        // Arrange
+        SpriteGrid spriteGrid = new SpriteGrid();
+        int geometryVersion = spriteGrid.getGeometryVersion();
+        int transformVersion = spriteGrid.getTransformVersion();
+
+        // Act
+        spriteGrid.setPosition(10, 20);
+
+        // Assert
+        Assert.assertEquals(geometryVersion, spriteGrid.getGeometryVersion());
+        Assert.assertEquals(transformVersion + 1, spriteGrid.getTransformVersion());
+    }
+
+    @Test
+    public void testUnchangedValuesDoNotBumpVersions() {
+        // Arrange
+        SpriteGrid spriteGrid = new SpriteGrid();
+        spriteGrid.setPosition(10, 20);
+        spriteGrid.setSize(100, 50);
+        spriteGrid.setRotation(45);
+        spriteGrid.setColor(Color.RED);
+        int geometryVersion = spriteGrid.getGeometryVersion();
+        int transformVersion = spriteGrid.getTransformVersion();
+        int colorVersion = spriteGrid.getColorVersion();
+
+        // Act
+        spriteGrid.setPosition(10, 20);
+        spriteGrid.setSize(100, 50);
+        spriteGrid.setRotation(45);
+        spriteGrid.setColor(new Color(Color.RED));
+
+        // Assert
+        Assert.assertEquals(geometryVersion, spriteGrid.getGeometryVersion());
+        Assert.assertEquals(transformVersion, spriteGrid.getTransformVersion());
+        Assert.assertEquals(colorVersion, spriteGrid.getColorVersion());
+    }
+
+    @Test
+    public void testSizeChangesGeometry() {
+        // Arrange
+        SpriteGrid spriteGrid = new SpriteGrid();
+        int geometryVersion = spriteGrid.getGeometryVersion();
+        int transformVersion = spriteGrid.getTransformVersion();
+
+        // Act
+        spriteGrid.setSize(100, 50);
+
+        // Assert
+        Assert.assertEquals(geometryVersion + 1, spriteGrid.getGeometryVersion());
+        Assert.assertEquals(transformVersion, spriteGrid.getTransformVersion());
+    }
+
+    @Test
+    public void testColorIsCopied() {
+        // Arrange
+        SpriteGrid spriteGrid = new SpriteGrid();
+        Color color = new Color(Color.RED);
+
+        // Act
+        spriteGrid.setColor(color);
+        color.set(Color.BLUE);
+
+        // Assert
+        Assert.assertEquals(Color.RED, spriteGrid.getColor());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.LongMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class TextureAtlasProxyTest {
+    @Test
+    public void testParseIndex() {
+        // Assert
+        Assert.assertEquals(0, TextureAtlasProxy.parseIndex("tree-0-0", 5, 6));
+        Assert.assertEquals(12, TextureAtlasProxy.parseIndex("tree-12-3", 5, 7));
+        Assert.assertEquals(-1, TextureAtlasProxy.parseIndex("tree-01-3", 5, 7));
+        Assert.assertEquals(-1, TextureAtlasProxy.parseIndex("tree-a-3", 5, 6));
+        Assert.assertEquals(-1, TextureAtlasProxy.parseIndex("tree--3", 5, 5));
+    }
+
+    @Test
+    public void testParseLodScale() {
+        // Assert
+        Assert.assertEquals(0.5f, TextureAtlasProxy.parseLodScale("cloud@0.5", 5), 0);
+        Assert.assertEquals(0.25f, TextureAtlasProxy.parseLodScale("cloud@.25", 5), 0);
+        Assert.assertEquals(-1, TextureAtlasProxy.parseLodScale("cloud@1", 5), 0);
+        Assert.assertEquals(-1, TextureAtlasProxy.parseLodScale("cloud@0", 5), 0);
+        Assert.assertEquals(-1, TextureAtlasProxy.parseLodScale("cloud@0.5-0-0", 5), 0);
+        Assert.assertEquals(-1, TextureAtlasProxy.parseLodScale("cloud@", 5), 0);
+        Assert.assertEquals(-1, TextureAtlasProxy.parseLodScale("cloud-0.5", 5), 0);
+    }
+
+    @Test
+    public void testGridBounds() {
+        // Arrange: a 2x3 grid, plus a cell out of the contiguous bounds
+        LongMap<TextureRegion> cells = new LongMap<TextureRegion>();
+        for (int i = 0; i < 2; i++) {
+            for (int j = 0; j < 3; j++) {
+                cells.put(TextureAtlasProxy.cellKey(i, j), new TextureRegion());
+            }
+        }
+        cells.put(TextureAtlasProxy.cellKey(5, 5), new TextureRegion());
+
+        // Act
+        TextureAtlasProxy.Grid grid = TextureAtlasProxy.Grid.create(cells);
+
+        // Assert
+        Assert.assertEquals(2, grid.getRows());
+        Assert.assertEquals(3, grid.getCols());
+        Assert.assertSame(cells.get(TextureAtlasProxy.cellKey(1, 2)), grid.getCell(1, 2));
+    }
+
+    @Test
+    public void testGridWithMissingCells() {
+        // Arrange: the second row is missing its last cell
+        LongMap<TextureRegion> cells = new LongMap<TextureRegion>();
+        cells.put(TextureAtlasProxy.cellKey(0, 0), new TextureRegion());
+        cells.put(TextureAtlasProxy.cellKey(0, 1), new TextureRegion());
+        cells.put(TextureAtlasProxy.cellKey(1, 0), new TextureRegion());
+
+        // Act
+        TextureAtlasProxy.Grid grid = TextureAtlasProxy.Grid.create(cells);
+
+        // Assert
+        Assert.assertEquals(2, grid.getRows());
+        Assert.assertEquals(2, grid.getCols());
+        Assert.assertNotNull(grid.getCell(1, 0));
+        Assert.assertNull(grid.getCell(1, 1));
+    }
+
+    @Test
+    public void testGridWithoutFirstCell() {
+        // Arrange
+        LongMap<TextureRegion> cells = new LongMap<TextureRegion>();
+        cells.put(TextureAtlasProxy.cellKey(0, 1), new TextureRegion());
+
+        // Act
+        TextureAtlasProxy.Grid grid = TextureAtlasProxy.Grid.create(cells);
+
+        // Assert
+        Assert.assertNull(grid);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.graphics.Pixmap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class TextureMemoryTrackerTest {
+    @Test
+    public void testTrackAndUntrack() {
+        // Arrange
+        TextureMemoryTracker tracker = new TextureMemoryTracker();
+
+        // Act
+        tracker.track("page1", 1000, "atlas");
+        tracker.track("page2", 500, "atlas");
+        tracker.track("gradient", 200, "sky");
+        tracker.untrack("page1");
+
+        // Assert
+        Assert.assertEquals(700, tracker.getTotalBytes());
+        Assert.assertEquals(1700, tracker.getPeakBytes());
+        Assert.assertEquals(2, tracker.getTextureCount());
+        Assert.assertEquals(500, tracker.getOwnerBytes("atlas"));
+        Assert.assertEquals(200, tracker.getOwnerBytes("sky"));
+    }
+
+    @Test
+    public void testTrackingTwiceReplacesRecord() {
+        // Arrange
+        TextureMemoryTracker tracker = new TextureMemoryTracker();
+
+        // Act
+        tracker.track("page", 1000, "atlas");
+        tracker.track("page", 300, "packer");
+
+        // Assert
+        Assert.assertEquals(300, tracker.getTotalBytes());
+        Assert.assertEquals(0, tracker.getOwnerBytes("atlas"));
+        Assert.assertEquals(300, tracker.getOwnerBytes("packer"));
+        Assert.assertFalse(tracker.getBytesPerOwner().containsKey("atlas"));
+    }
+
+    @Test
+    public void testUntrackOwner() {
+        // Arrange
+        TextureMemoryTracker tracker = new TextureMemoryTracker();
+        tracker.track("page1", 1000, "atlas");
+        tracker.track("page2", 500, "atlas");
+        tracker.track("gradient", 200, "sky");
+
+        // Act
+        tracker.untrackOwner("atlas");
+
+        // Assert
+        Assert.assertEquals(200, tracker.getTotalBytes());
+        Assert.assertEquals(1, tracker.getTextureCount());
+        Assert.assertEquals(0, tracker.getBytes("page1"));
+        Assert.assertEquals(200, tracker.getBytes("gradient"));
+    }
+
+    @Test
+    public void testBudget() {
+        // Arrange
+        TextureMemoryTracker tracker = new TextureMemoryTracker();
+        tracker.track("page", 1000, "atlas");
+
+        // Act
+        boolean fitsWithoutBudget = tracker.fitsInBudget(Integer.MAX_VALUE);
+        tracker.setBudgetBytes(1500);
+
+        // Assert
+        Assert.assertTrue(fitsWithoutBudget);
+        Assert.assertEquals(500, tracker.getRemainingBudget());
+        Assert.assertTrue(tracker.fitsInBudget(500));
+        Assert.assertFalse(tracker.fitsInBudget(501));
+        Assert.assertTrue(tracker.fitsInBudget(-1000));
+    }
+
+    @Test
+    public void testEstimateBytes() {
+        // Assert
+        Assert.assertEquals(1024 * 1024 * 4, TextureMemoryTracker
+                .estimateBytes(1024, 1024, Pixmap.Format.RGBA8888, false));
+        Assert.assertEquals(1024 * 1024 * 2, TextureMemoryTracker
+                .estimateBytes(1024, 1024, Pixmap.Format.RGB565, false));
+        Assert.assertEquals(256 * 256 * 4 * 4 / 3, TextureMemoryTracker
+                .estimateBytes(256, 256, Pixmap.Format.RGBA8888, true));
+        Assert.assertEquals(512 * 512 / 2,
+                TextureMemoryTracker.estimateETC1Bytes(512, 512, false));
+    }
+}
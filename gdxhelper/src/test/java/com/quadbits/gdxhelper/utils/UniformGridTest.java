@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2015 Quadbits SLU
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quadbits.gdxhelper.utils;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class UniformGridTest {
+    @Test
+    public void testQueryReturnsIntersectingItemsOnceAndInOrder() {
+        // Arrange
+        UniformGrid grid = new UniformGrid();
+        grid.clear(0, 0, 100, 100, 4, 4);
+        grid.add(60, 60, 30, 30); // 0: top right
+        grid.add(10, 10, 80, 80); // 1: spans every cell
+        grid.add(5, 5, 10, 10);   // 2: bottom left
+        grid.build();
+        IntArray out = new IntArray();
+
+        // Act
+        int count = grid.query(0, 0, 30, 30, out);
+
+        // Assert
+        Assert.assertEquals(2, count);
+        Assert.assertEquals(1, out.get(0));
+        Assert.assertEquals(2, out.get(1));
+    }
+
+    @Test
+    public void testItemsOutsideTheAreaAreStoredInBorderCells() {
+        // Arrange
+        UniformGrid grid = new UniformGrid();
+        grid.clear(0, 0, 100, 100, 4, 4);
+        grid.add(-50, 120, 20, 20);
+        grid.build();
+        IntArray out = new IntArray();
+
+        // Act
+        int insideCount = grid.query(0, 90, 5, 5, out);
+        int outsideCount = grid.query(-45, 125, 5, 5, out);
+        int farCount = grid.query(90, 0, 5, 5, out);
+
+        // Assert
+        Assert.assertEquals(1, insideCount);
+        Assert.assertEquals(1, outsideCount);
+        Assert.assertEquals(0, farCount);
+    }
+
+    @Test
+    public void testQueryCoversEveryItemAgainstBruteForce() {
+        // Arrange
+        UniformGrid grid = new UniformGrid();
+        grid.clear(0, 0, 200, 100, 8, 5);
+        float[][] items = new float[50][];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new float[]{(i * 37) % 220 - 10, (i * 53) % 110 - 5, 5 + i % 30,
+                    5 + (i * 7) % 20};
+            grid.add(items[i][0], items[i][1], items[i][2], items[i][3]);
+        }
+        grid.build();
+        IntArray out = new IntArray();
+
+        // Act
+        grid.query(40, 20, 60, 30, out);
+
+        // Assert
+        for (int i = 0; i < items.length; i++) {
+            float[] item = items[i];
+            boolean intersects = item[0] <= 100 && item[0] + item[2] >= 40 && item[1] <= 50 &&
+                    item[1] + item[3] >= 20;
+            if (intersects) {
+                Assert.assertTrue("Missing item " + i, out.contains(i));
+            }
+        }
+        for (int k = 1; k < out.size; k++) {
+            Assert.assertTrue(out.get(k - 1) < out.get(k));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testQueryBeforeBuildFails() {
+        // Arrange
+        UniformGrid grid = new UniformGrid();
+        grid.add(0, 0, 1, 1);
+
+        // Act
+        grid.query(0, 0, 1, 1, new IntArray());
+    }
+}